@@ -0,0 +1,3 @@
+-- Runs once, when the compose volume is first initialized. The library itself is preloaded by the
+-- db service's command (shared_preload_libraries); GET /api/admin/db/statements reads this view.
+CREATE EXTENSION IF NOT EXISTS pg_stat_statements;
@@ -0,0 +1,256 @@
+package com.acode.resume.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-model load against a running app: requests to POST /api/chat arrive as a Poisson process
+// at -Dload.rate per second regardless of how fast responses come back, so a slow server builds
+// up in-flight requests instead of slowing the generator down. Latency is measured from each
+// request's scheduled arrival time (no coordinated omission) into HDR histograms.
+//
+// Start Postgres (docker compose up -d) and the app (ingested once with app.ingest=true), then:
+//
+//   ./mvnw -Pbench test-compile exec:java -Dbench.main=com.acode.resume.bench.ChatLoadTest \
+//       -Dload.rate=200 -Dload.duration-s=60 -Dload.slo.p99-ms=50
+//
+//   load.url            app base url                                  (http://localhost:8080)
+//   load.rate           arrivals per second                           (100)
+//   load.duration-s     measured seconds, after load.warmup-s         (30, 5)
+//   load.mix            weights per query class                       (fact:30,experience:40,fuzzy:20,unanswerable:10)
+//   load.resume-id      resumeId sent with every request              (none: app.default-resume-id)
+//   load.slo.p50-ms / p99-ms / p999-ms / error-rate                   (unset = not checked)
+//
+// DB round-trips per request come from the transaction counters in pg_stat_database
+// (RESUME_DB_URL / _USER / _PASSWORD, same as TenantScaleBenchmark); chat reads run in autocommit,
+// so every statement is one transaction. Other clients of the same database inflate the number.
+// The run exits with status 1 when any configured SLO is missed.
+public class ChatLoadTest {
+
+    private static final String[] CLASSES = {"fact", "experience", "fuzzy", "unanswerable"};
+
+    private static final String[][] QUERIES = {
+            // fact: answered from the profile snapshot
+            {"What is your email?", "skills?", "What is your GPA?", "Where are you based?", "phone number", "certifications"},
+            // experience: retrieval over chunks (some are canonical questions)
+            {"What did you do at Cognizant?", "Tell me about the RAGOps Copilot project", "What did you build with Spring Boot?",
+                    "distributed job queue throughput", "Cloudflare Workers registration backend", "logistic regression recall",
+                    "How did you improve API responsiveness?", "What did you do at Edureka?"},
+            // fuzzy: misspellings and partial names, usually the trigram leg or query expansion
+            {"cognizent", "chico state web developer", "ragops copilt", "univrsity marketplace", "tensorflow keras throughput predictin"},
+            // unanswerable: no supporting chunk
+            {"Do you know Kubernetes operators?", "What is your favorite movie?", "Have you worked with Haskell?", "salary expectations"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "http://localhost:8080") + "/api/chat";
+        double rate = Double.parseDouble(System.getProperty("load.rate", "100"));
+        int durationS = Integer.getInteger("load.duration-s", 30);
+        int warmupS = Integer.getInteger("load.warmup-s", 5);
+        String resumeId = System.getProperty("load.resume-id", "");
+        double[] weights = weights(System.getProperty("load.mix", "fact:30,experience:40,fuzzy:20,unanswerable:10"));
+
+        ObjectMapper mapper = new ObjectMapper();
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        JdbcTemplate jdbc = database();
+
+        // warmup: same arrival process, nothing recorded
+        Run warm = new Run();
+        drive(http, mapper, url, resumeId, rate, warmupS, weights, new Random(7), warm);
+
+        Run run = new Run();
+        long tx0 = transactions(jdbc);
+        long t0 = System.nanoTime();
+        drive(http, mapper, url, resumeId, rate, durationS, weights, new Random(42), run);
+        double wallS = (System.nanoTime() - t0) / 1e9;
+        long tx1 = transactions(jdbc);
+
+        long sent = run.sent.get();
+        long failed = run.rejected.get() + run.errors.get();
+        double errorRate = sent == 0 ? 0 : (double) failed / sent;
+
+        System.out.printf("target %.0f req/s for %d s against %s%n", rate, durationS, url);
+        System.out.printf("sent %d, ok %d, 429 %d, errors %d (error rate %.4f), throughput %.1f ok/s%n",
+                sent, run.ok.get(), run.rejected.get(), run.errors.get(), errorRate, run.ok.get() / wallS);
+        if (tx0 >= 0 && tx1 >= 0 && sent > 0) {
+            System.out.printf("db round-trips/request %.2f%n", (double) (tx1 - tx0) / sent);
+        }
+        System.out.printf("%-14s %8s %10s %10s %10s %10s%n", "class", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        row("all", run.all);
+        for (int c = 0; c < CLASSES.length; c++) row(CLASSES[c], run.byClass[c]);
+
+        List<String> missed = new ArrayList<>();
+        slo(missed, "p50", "load.slo.p50-ms", ms(run.all.getValueAtPercentile(50)));
+        slo(missed, "p99", "load.slo.p99-ms", ms(run.all.getValueAtPercentile(99)));
+        slo(missed, "p99.9", "load.slo.p999-ms", ms(run.all.getValueAtPercentile(99.9)));
+        slo(missed, "error rate", "load.slo.error-rate", errorRate);
+
+        if (missed.size() > 0) {
+            for (int i = 0; i < missed.size(); i++) System.out.println("SLO MISSED: " + missed.get(i));
+            System.exit(1);
+        }
+        System.out.println("SLOs met");
+        System.exit(0);
+    }
+
+    private static class Run {
+        final Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final Histogram[] byClass = new Histogram[CLASSES.length];
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        Run() {
+            for (int c = 0; c < byClass.length; c++) byClass[c] = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        }
+
+        synchronized void record(int cls, long micros) {
+            all.recordValue(Math.min(micros, all.getHighestTrackableValue()));
+            byClass[cls].recordValue(Math.min(micros, byClass[cls].getHighestTrackableValue()));
+        }
+    }
+
+    // Schedules Poisson arrivals for durationS seconds and waits for the stragglers.
+    private static void drive(HttpClient http, ObjectMapper mapper, String url, String resumeId, double rate, int durationS,
+                              double[] weights, Random rnd, Run run) throws Exception {
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationS);
+        double next = start;
+
+        while (true) {
+            next += -Math.log(1 - rnd.nextDouble()) / rate * 1e9;
+            long at = (long) next;
+            if (at >= end) break;
+
+            int cls = pick(weights, rnd);
+            String[] qs = QUERIES[cls];
+            String q = qs[rnd.nextInt(qs.length)];
+
+            long wait = at - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            pool.execute(() -> send(http, mapper, url, resumeId, q, cls, at, run));
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static void send(HttpClient http, ObjectMapper mapper, String url, String resumeId, String q, int cls,
+                             long scheduledAt, Run run) {
+        run.sent.incrementAndGet();
+        try {
+            ObjectNode body = mapper.createObjectNode();
+            body.put("message", q);
+            if (resumeId.length() > 0) body.put("resumeId", resumeId);
+
+            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                    .build();
+            HttpResponse<Void> res = http.send(req, HttpResponse.BodyHandlers.discarding());
+
+            if (res.statusCode() == 200) run.ok.incrementAndGet();
+            else if (res.statusCode() == 429) run.rejected.incrementAndGet();
+            else run.errors.incrementAndGet();
+        } catch (Exception e) {
+            run.errors.incrementAndGet();
+        }
+        run.record(cls, (System.nanoTime() - scheduledAt) / 1000);
+    }
+
+    private static double[] weights(String mix) {
+        double[] w = new double[CLASSES.length];
+        String[] parts = mix.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            String[] kv = parts[i].trim().split(":");
+            int c = -1;
+            for (int k = 0; k < CLASSES.length; k++) {
+                if (CLASSES[k].equals(kv[0].trim())) c = k;
+            }
+            if (c < 0 || kv.length != 2) throw new IllegalArgumentException("load.mix: unknown entry " + parts[i]);
+            w[c] = Double.parseDouble(kv[1].trim());
+        }
+        double sum = 0;
+        for (int c = 0; c < w.length; c++) sum += w[c];
+        if (sum <= 0) throw new IllegalArgumentException("load.mix: weights must add up to more than 0");
+        for (int c = 0; c < w.length; c++) w[c] /= sum;
+        return w;
+    }
+
+    private static int pick(double[] weights, Random rnd) {
+        double x = rnd.nextDouble();
+        for (int c = 0; c < weights.length; c++) {
+            x -= weights[c];
+            if (x < 0) return c;
+        }
+        return weights.length - 1;
+    }
+
+    private static void row(String name, Histogram h) {
+        if (h.getTotalCount() == 0) {
+            System.out.printf("%-14s %8d%n", name, 0);
+            return;
+        }
+        System.out.printf("%-14s %8d %10.2f %10.2f %10.2f %10.2f%n", name, h.getTotalCount(),
+                ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)),
+                ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+    }
+
+    private static void slo(List<String> missed, String name, String property, double actual) {
+        String limit = System.getProperty(property);
+        if (limit == null || limit.isBlank()) return;
+        double max = Double.parseDouble(limit);
+        if (actual > max) missed.add(String.format("%s = %.3f > %s (%s)", name, actual, limit, property));
+    }
+
+    // -1 when the database is not reachable; the report then leaves out round-trips
+    private static long transactions(JdbcTemplate jdbc) {
+        try {
+            Long n = jdbc.queryForObject(
+                    "SELECT xact_commit + xact_rollback FROM pg_stat_database WHERE datname = current_database()", Long.class);
+            return n == null ? -1 : n;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static JdbcTemplate database() {
+        String url = env("RESUME_DB_URL", "jdbc:postgresql://localhost:5432/resume_db");
+        String user = env("RESUME_DB_USER", "resume");
+        String password = env("RESUME_DB_PASSWORD", "resume");
+        return new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String env(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v;
+    }
+}
@@ -0,0 +1,99 @@
+package com.acode.resume.bench;
+
+import com.acode.resume.retrieval.CorpusSnapshot;
+import com.acode.resume.retrieval.CorpusSnapshotStore;
+import com.acode.resume.retrieval.InMemoryRetrievalEngine;
+import com.acode.resume.retrieval.PostgresRetrievalEngine;
+import com.acode.resume.retrieval.RetrievalEngine;
+import com.acode.resume.retrieval.RetrievalThresholds;
+import com.acode.resume.retrieval.SnapshotRetrievalEngine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Time to first answer and retained heap of the three ways a node can come up:
+//   postgres   nothing loaded; the first search pays connection + planning
+//   memory     InMemoryRetrievalEngine reads resume_chunks over JDBC and re-analyzes every chunk
+//   snapshot   maps the corpus snapshot (written here from the same database) and decodes its indexes
+//
+// Needs a migrated database with resumes ingested; for a large corpus keep TenantScaleBenchmark's
+// clones (-Dbench.keep=true). Heap is "used after GC" before and after loading, so run it alone:
+//
+//   ./mvnw -Pbench test-compile exec:java -Dbench.main=com.acode.resume.bench.SnapshotStartupBenchmark \
+//       -Dbench.snapshot=target/corpus.snap
+public class SnapshotStartupBenchmark {
+
+    private static final String QUESTION = "What did you do at Cognizant?";
+
+    // keeps loaded engines reachable while heap is measured
+    private static Object retained;
+
+    public static void main(String[] args) throws Exception {
+        String url = env("RESUME_DB_URL", "jdbc:postgresql://localhost:5432/resume_db");
+        String user = env("RESUME_DB_USER", "resume");
+        String password = env("RESUME_DB_PASSWORD", "resume");
+        Path file = Path.of(System.getProperty("bench.snapshot", "target/corpus.snap"));
+
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+        Long chunks = jdbc.queryForObject("SELECT count(*) FROM resume_chunks", Long.class);
+        if (chunks == null || chunks == 0) {
+            System.out.println("No chunks. Run the app once with app.ingest=true first.");
+            return;
+        }
+
+        long w0 = System.nanoTime();
+        new CorpusSnapshotStore(jdbc, file.toString(), true, "postgres").write();
+        System.out.printf("chunks %d, snapshot %d bytes written in %.0f ms%n", chunks, Files.size(file), ms(System.nanoTime() - w0));
+        System.out.printf("%-10s %12s %14s %12s%n", "path", "load ms", "first ms", "heap MB");
+
+        // postgres: no load step, the first request goes to the database
+        long h0 = usedHeap();
+        long t0 = System.nanoTime();
+        RetrievalEngine pg = new PostgresRetrievalEngine(jdbc, RetrievalThresholds.DEFAULTS);
+        long t1 = System.nanoTime();
+        pg.search("default", QUESTION, 10);
+        row("postgres", t1 - t0, System.nanoTime() - t1, pg, h0);
+
+        h0 = usedHeap();
+        t0 = System.nanoTime();
+        InMemoryRetrievalEngine memory = new InMemoryRetrievalEngine(jdbc, RetrievalThresholds.DEFAULTS);
+        memory.reload();
+        t1 = System.nanoTime();
+        memory.search("default", QUESTION, 10);
+        row("memory", t1 - t0, System.nanoTime() - t1, memory, h0);
+
+        h0 = usedHeap();
+        t0 = System.nanoTime();
+        CorpusSnapshotStore store = new CorpusSnapshotStore(null, file.toString(), false, "snapshot");
+        SnapshotRetrievalEngine snapshot = new SnapshotRetrievalEngine(store, RetrievalThresholds.DEFAULTS);
+        t1 = System.nanoTime();
+        snapshot.search("default", QUESTION, 10);
+        CorpusSnapshot s = store.current();
+        row("snapshot", t1 - t0, System.nanoTime() - t1, snapshot, h0);
+        System.out.printf("snapshot: %d resumes, %d chunks, chunk text stays in the %d-byte mapping%n", s.resumes(), s.chunks(), s.bytes);
+    }
+
+    private static void row(String name, long loadNanos, long firstNanos, Object engine, long heapBefore) {
+        retained = engine;
+        long heap = usedHeap() - heapBefore;
+        System.out.printf("%-10s %12.1f %14.2f %12.1f%n", name, ms(loadNanos), ms(firstNanos), heap / 1048576.0);
+        retained = null;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String env(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v;
+    }
+}
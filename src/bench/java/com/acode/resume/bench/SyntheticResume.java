@@ -0,0 +1,70 @@
+package com.acode.resume.bench;
+
+import java.util.Random;
+
+// Deterministic resume-shaped text: contact header, then repeating EXPERIENCE / PROJECTS /
+// SKILLS sections with headers, bullets and blank-line entry boundaries.
+public final class SyntheticResume {
+
+    private static final String[] COMPANIES = {
+            "Cognizant Technology Solutions", "Edureka", "California State University, Chico",
+            "Acme Robotics", "Northwind Traders", "Globex Corporation", "Initech", "Umbrella Health"
+    };
+
+    private static final String[] VERBS = {
+            "Built", "Owned", "Improved", "Implemented", "Designed", "Migrated", "Load tested", "Shipped"
+    };
+
+    private static final String[] THINGS = {
+            "Spring Boot microservices for claims workflows",
+            "a Postgres full-text search pipeline with GIN indexes",
+            "a RabbitMQ job queue with retries and DLQ handling",
+            "Prometheus/Grafana dashboards for p95 latency",
+            "a React registration flow backed by Cloudflare Workers",
+            "an Elastic Net model with temporal validation",
+            "CI/CD pipelines on AWS with Docker",
+            "a LangGraph tool-calling workflow with citations"
+    };
+
+    private SyntheticResume() {
+    }
+
+    public static String generate(int lines, long seed) {
+        Random rnd = new Random(seed);
+        StringBuilder sb = new StringBuilder(lines * 96);
+
+        sb.append("Jane Doe\n");
+        sb.append("Phone: (555) 010-0000 | Email: jane@example.com | Location: Chico, CA\n\n");
+        int n = 3;
+
+        while (n < lines) {
+            int section = rnd.nextInt(3);
+            if (section == 2) {
+                sb.append("SKILLS\n");
+                sb.append("Languages: Python, Java, C++, TypeScript\n");
+                sb.append("Frameworks/Libraries: Spring Boot, FastAPI, Django, React\n\n");
+                n += 4;
+                continue;
+            }
+
+            sb.append(section == 0 ? "EXPERIENCE\n" : "PROJECTS\n");
+            n++;
+            int entries = 1 + rnd.nextInt(3);
+            for (int e = 0; e < entries && n < lines; e++) {
+                String company = COMPANIES[rnd.nextInt(COMPANIES.length)];
+                sb.append(company).append(" - Software Engineer (Dec 2021 - Aug 2024) - Hyderabad, India\n");
+                n++;
+                int bullets = 2 + rnd.nextInt(3);
+                for (int b = 0; b < bullets && n < lines; b++) {
+                    sb.append("• ").append(VERBS[rnd.nextInt(VERBS.length)]).append(' ')
+                            .append(THINGS[rnd.nextInt(THINGS.length)]).append(" for ")
+                            .append(1000 + rnd.nextInt(50000)).append("+ users.\n");
+                    n++;
+                }
+                sb.append('\n');
+                n++;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.acode.resume.bench;
+
+import com.acode.resume.retrieval.HybridRetrievalEngine;
+import com.acode.resume.retrieval.PostgresRetrievalEngine;
+import com.acode.resume.retrieval.RetrievalEngine;
+import com.acode.resume.retrieval.RetrievalThresholds;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Retrieval latency per resume as the number of resumes grows.
+//
+// Needs a migrated database with the 'default' resume ingested (run the app once with
+// app.ingest=true). Clones it into bench-<n> resumes, then times PostgresRetrievalEngine.search
+// for random resumes at each scale. Clones are removed at the end unless -Dbench.keep=true.
+// -Dbench.engine=hybrid (or hybrid-rrf) times HybridRetrievalEngine instead.
+//
+//   ./mvnw -Pbench test-compile exec:java -Dbench.main=com.acode.resume.bench.TenantScaleBenchmark \
+//       -Dbench.scales=10,1000,100000 -Dbench.queries=2000
+public class TenantScaleBenchmark {
+
+    private static final String[] QUESTIONS = {
+            "What did you do at Cognizant?",
+            "spring boot microservices",
+            "Tell me about the RAGOps Copilot project",
+            "distributed job queue throughput",
+            "Cloudflare Workers registration backend",
+            "logistic regression recall",
+            "kubernetes operators",
+            "cognizent",
+    };
+
+    public static void main(String[] args) {
+        String url = env("RESUME_DB_URL", "jdbc:postgresql://localhost:5432/resume_db");
+        String user = env("RESUME_DB_USER", "resume");
+        String password = env("RESUME_DB_PASSWORD", "resume");
+
+        String[] scaleArgs = System.getProperty("bench.scales", "10,1000,100000").split(",");
+        int queries = Integer.getInteger("bench.queries", 2000);
+        boolean keep = Boolean.getBoolean("bench.keep");
+
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+        String engineName = System.getProperty("bench.engine", "postgres");
+        RetrievalEngine engine;
+        if (engineName.equals("hybrid")) engine = new HybridRetrievalEngine(jdbc, RetrievalThresholds.DEFAULTS, "fallback", 60);
+        else if (engineName.equals("hybrid-rrf")) engine = new HybridRetrievalEngine(jdbc, RetrievalThresholds.DEFAULTS, "rrf", 60);
+        else engine = new PostgresRetrievalEngine(jdbc, RetrievalThresholds.DEFAULTS);
+
+        Integer base = jdbc.queryForObject("SELECT count(*) FROM resume_chunks WHERE resume_id = 'default'", Integer.class);
+        if (base == null || base == 0) {
+            System.out.println("No chunks for resume 'default'. Run the app once with app.ingest=true first.");
+            return;
+        }
+
+        System.out.println("engine: " + engineName);
+        System.out.printf("%10s %12s %10s %10s %10s%n", "resumes", "chunks", "p50 ms", "p99 ms", "max ms");
+
+        int seeded = 0;
+        try {
+            for (int s = 0; s < scaleArgs.length; s++) {
+                int target = Integer.parseInt(scaleArgs[s].trim());
+                if (target > seeded) {
+                    seed(jdbc, seeded + 1, target);
+                    seeded = target;
+                    jdbc.execute("ANALYZE resume_chunks");
+                }
+
+                Random rnd = new Random(42);
+                for (int i = 0; i < Math.min(200, queries); i++) {
+                    engine.search(resumeId(rnd, seeded), QUESTIONS[rnd.nextInt(QUESTIONS.length)], 10);
+                }
+
+                long[] lat = new long[queries];
+                for (int i = 0; i < queries; i++) {
+                    String rid = resumeId(rnd, seeded);
+                    String q = QUESTIONS[rnd.nextInt(QUESTIONS.length)];
+                    long t0 = System.nanoTime();
+                    engine.search(rid, q, 10);
+                    lat[i] = System.nanoTime() - t0;
+                }
+                Arrays.sort(lat);
+
+                Long chunks = jdbc.queryForObject("SELECT count(*) FROM resume_chunks", Long.class);
+                System.out.printf("%10d %12d %10.2f %10.2f %10.2f%n",
+                        seeded, chunks, ms(pct(lat, 0.50)), ms(pct(lat, 0.99)), ms(lat[lat.length - 1]));
+            }
+        } finally {
+            if (!keep) {
+                jdbc.update("DELETE FROM resume_chunks WHERE resume_id LIKE 'bench-%'");
+                jdbc.update("DELETE FROM resume_profile WHERE resume_id LIKE 'bench-%'");
+            }
+        }
+    }
+
+    // Clones the default resume as bench-<from> .. bench-<to>, server side.
+    private static void seed(JdbcTemplate jdbc, int from, int to) {
+        long t0 = System.nanoTime();
+        jdbc.update(
+                "INSERT INTO resume_chunks (resume_id, section, content, metadata, content_hash) " +
+                        "SELECT 'bench-' || g, c.section, c.content, c.metadata, c.content_hash " +
+                        "FROM generate_series(?, ?) g CROSS JOIN resume_chunks c WHERE c.resume_id = 'default'",
+                from, to
+        );
+        jdbc.update(
+                "INSERT INTO resume_profile (resume_id, profile_json) " +
+                        "SELECT 'bench-' || g, p.profile_json " +
+                        "FROM generate_series(?, ?) g CROSS JOIN (SELECT profile_json FROM resume_profile " +
+                        "WHERE resume_id = 'default' ORDER BY id DESC LIMIT 1) p",
+                from, to
+        );
+        System.out.println("  seeded resumes " + from + ".." + to + " in " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+    }
+
+    private static String resumeId(Random rnd, int n) {
+        return "bench-" + (1 + rnd.nextInt(n));
+    }
+
+    private static long pct(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String env(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v;
+    }
+}
@@ -0,0 +1,143 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.api.ChatResponse;
+import com.acode.resume.api.ChatResponseWriter;
+import com.acode.resume.bench.SyntheticResume;
+import com.acode.resume.ingest.ResumeChunker;
+import com.acode.resume.retrieval.ChunkRow;
+import com.acode.resume.retrieval.NormalizedQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// formatGroupedAnswer / clip over retrieval-sized row lists, intent matching over a query mix, and
+// writing the /api/chat body for one answer: ChatResponseWriter (what the controller does) vs.
+// the ChatResponse copy + ObjectMapper it replaced. Compare gc.alloc.rate.norm (bytes/op) from
+// the GC profiler for the allocation per request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerAssemblyBenchmark {
+
+    // roughly the production mix: facts first, then experience, fuzzy and unanswerable
+    private static final String[] QUERIES = {
+            "What is your email?",
+            "what's your gpa",
+            "skills?",
+            "Where are you based?",
+            "What did you do at Cognizant?",
+            "Tell me about the RAGOps Copilot project",
+            "What did you build with Spring Boot?",
+            "distributed job queue throughput",
+            "cognizent",
+            "Do you know Kubernetes operators?",
+            "any certifications",
+            "What frameworks have you used?",
+    };
+
+    @Param({"3", "10"})
+    public int rows;
+
+    private ResumeChatService service;
+    private IntentMatcher intents;
+    private NormalizedQuery[] queries;
+    private List<ChunkRow> hits;
+    private String longText;
+    private ObjectMapper objectMapper;
+    private ChatResponseWriter responseWriter;
+    private ResumeChatService.Result result;
+
+    @Setup
+    public void setup() {
+        intents = new IntentMatcher(new DefaultResourceLoader(), new ObjectMapper(), e -> { },
+                "classpath:chat/intent-rules.json");
+        service = new ResumeChatService(null, null, null, null, null, null, intents, null, null, null, "default");
+        queries = new NormalizedQuery[QUERIES.length];
+        for (int i = 0; i < QUERIES.length; i++) queries[i] = NormalizedQuery.of(QUERIES[i]);
+
+        List<ResumeChunker.Chunk> chunks = ResumeChunker.split(SyntheticResume.generate(200, 7));
+        hits = new ArrayList<>();
+        for (int i = 0; i < chunks.size() && hits.size() < rows; i++) {
+            ResumeChunker.Chunk c = chunks.get(i);
+            if (!"bullet".equals(c.type)) continue;
+            hits.add(new ChunkRow(i + 1, c.section, c.content, 0.06, "fts", c.type));
+        }
+
+        longText = "  " + chunks.get(chunks.size() - 1).content.repeat(4) + "  ";
+
+        objectMapper = new ObjectMapper();
+        responseWriter = new ChatResponseWriter(objectMapper);
+        ResumeChatService.AnswerPack pack = service.formatGroupedAnswer(hits);
+        result = new ResumeChatService.Result(true, pack.answer, pack.citations, new ArrayList<>(), null);
+    }
+
+    @Benchmark
+    public ResumeChatService.AnswerPack formatGroupedAnswer() {
+        return service.formatGroupedAnswer(hits);
+    }
+
+    @Benchmark
+    public void writeResponse(Blackhole bh) throws IOException {
+        responseWriter.write(new BlackholeStream(bh), result);
+    }
+
+    @Benchmark
+    public void writeResponseDatabind(Blackhole bh) throws IOException {
+        ResumeChatService.Result r = result;
+        objectMapper.writeValue(new BlackholeStream(bh),
+                new ChatResponse(r.canAnswer, r.answer, r.citations, r.usedFields, r.debugHits, r.debugTrace));
+    }
+
+    @Benchmark
+    public String clip() {
+        return service.clip(longText, 260);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void matchFactMix(Blackhole bh) {
+        for (int i = 0; i < queries.length; i++) {
+            bh.consume(intents.match(queries[i]));
+        }
+    }
+
+    // the servlet stream stand-in: consumes bytes without keeping them
+    private static final class BlackholeStream extends OutputStream {
+        private final Blackhole bh;
+
+        BlackholeStream(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void write(int b) {
+            bh.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bh.consume(b);
+            bh.consume(len);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.ingest.ChunkWriter;
+import com.acode.resume.ingest.IngestDocument;
+import com.acode.resume.ingest.IngestGeneration;
+import com.acode.resume.ingest.IngestPipeline;
+import com.acode.resume.ingest.IngestSource;
+import com.acode.resume.retrieval.CorpusSnapshotStore;
+import com.acode.resume.retrieval.PostgresRetrievalEngine;
+import com.acode.resume.retrieval.QueryNormalizer;
+import com.acode.resume.retrieval.RetrievalThresholds;
+import com.acode.resume.retrieval.SemanticIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Full answer() path against a throwaway Postgres 16 (Testcontainers, needs Docker):
+// Flyway schema, the real ingest pipeline, then the Postgres retrieval engine.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatEndToEndBenchmark {
+
+    private static final String[] QUERIES = {
+            "What is your email?",
+            "skills?",
+            "What did you do at Cognizant?",
+            "Tell me about the RAGOps Copilot project",
+            "What did you build with Spring Boot?",
+            "distributed job queue throughput",
+            "cognizent",
+            "Do you know Kubernetes operators?",
+            "chico state web developer",
+    };
+
+    @Param({"false", "true"})
+    public boolean answerCache;
+
+    // materialized answers for canonical questions (Cognizant, RAGOps Copilot above)
+    @Param({"false", "true"})
+    public boolean canonical;
+
+    private PostgreSQLContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private ResumeChatService service;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:16");
+        postgres.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        ObjectMapper objectMapper = new ObjectMapper();
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        String profile = classpathText("resume/profile.json");
+        String resume = classpathText("resume/resume.txt");
+        IngestSource source = new IngestSource() {
+            private boolean done;
+
+            @Override
+            public IngestDocument next() {
+                if (done) return null;
+                done = true;
+                return new IngestDocument("default", "resume.txt", profile, resume);
+            }
+        };
+        new IngestPipeline(new ChunkWriter(jdbc, "batch"), tx, objectMapper, 500, 4, false).run(source);
+
+        IntentMatcher intents = new IntentMatcher(new DefaultResourceLoader(), objectMapper, e -> { },
+                "classpath:chat/intent-rules.json");
+        service = new ResumeChatService(
+                new PostgresRetrievalEngine(jdbc, RetrievalThresholds.DEFAULTS),
+                new SemanticIndex(jdbc, false, 384, 16, 100, 50, 0.15, 60, 1000),
+                new ProfileSnapshotHolder(jdbc, objectMapper, intents, new CorpusSnapshotStore(jdbc, "", false, "postgres"), 100),
+                new AnswerCache(new IngestGeneration(), new SimpleMeterRegistry(), answerCache, 10_000, 600),
+                new AnswerCoalescer(new IngestGeneration(), new SimpleMeterRegistry(), false, 2000),
+                new CanonicalAnswers(jdbc, jdbc, tx, objectMapper, canonical, new String[0], 100, 600),
+                intents,
+                new QueryNormalizer(new SimpleMeterRegistry(), true, 10_000),
+                new ChatMetrics(new SimpleMeterRegistry()),
+                new ConcurrencyLimiter(new SimpleMeterRegistry(), false, 10, 2, 100, 250, 0.9),
+                "default"
+        );
+        service.materializeCanonical("default");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) dataSource.close();
+        if (postgres != null) postgres.stop();
+    }
+
+    @Benchmark
+    public ResumeChatService.Result answer() throws Exception {
+        String q = QUERIES[next++ % QUERIES.length];
+        return service.answer(q, false);
+    }
+
+    private static String classpathText(String path) throws Exception {
+        return new String(new ClassPathResource(path).getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+package com.acode.resume.ingest;
+
+import com.acode.resume.bench.SyntheticResume;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkerBenchmark {
+
+    @Param({"50", "500", "5000", "50000"})
+    public int lines;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = SyntheticResume.generate(lines, 42);
+    }
+
+    @Benchmark
+    public List<ResumeChunker.Chunk> split() {
+        return ResumeChunker.split(text);
+    }
+}
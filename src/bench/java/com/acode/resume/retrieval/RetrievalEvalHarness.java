@@ -0,0 +1,288 @@
+package com.acode.resume.retrieval;
+
+import com.acode.resume.ingest.ResumeChunker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Retrieval quality and round-trips of the fts-then-trgm fallback on a labelled question set:
+//   recall@k          answerable questions with a relevant chunk among the returned rows
+//   MRR               mean 1 / rank of the first relevant row (0 when none), answerable questions
+//   canAnswer P / R   a non-empty result is correct when the question is answerable and a relevant
+//                     row was returned; precision over non-empty results, recall over answerable questions
+//   queries/question  1 when fts is accepted, 2 when the trgm leg runs (postgres and memory modes)
+//
+// Both legs are fetched once per question; the decision is then replayed offline, so any
+// RetrievalThresholds (and every candidate ThresholdTuner tries) is scored without another query.
+//
+//   -Deval.source=db       PostgresRetrievalEngine legs against the ingested corpus (default;
+//                          RESUME_DB_URL / _USER / _PASSWORD, -Deval.resume=default)
+//   -Deval.source=bundled  ChunkIndex over the bundled resume.txt, no database
+//   -Deval.questions=path  tab-separated "question<TAB>phrase" lines instead of the built-in set;
+//                          an empty phrase marks a question the resume cannot answer
+//   -Deval.thresholds=path a RetrievalThresholds file to score instead of the bundled one for the source
+//
+//   ./mvnw -Pbench test-compile exec:java -Dbench.main=com.acode.resume.retrieval.RetrievalEvalHarness
+public class RetrievalEvalHarness {
+
+    // question -> phrase a relevant chunk contains ("" = not answerable from the resume)
+    private static final String[][] QUESTIONS = {
+            {"What did you do at Cognizant?", "Spring Boot microservices"},
+            {"cognizent", "Cognizant"},
+            {"insurance claims microservices", "insurance claims"},
+            {"production incidents you resolved", "incidents"},
+            {"uptime of services you supported", "99.9%"},
+            {"unit testing with mockito", "Mockito"},
+            {"what did you do at edureka", "Edureka"},
+            {"logistic regression model", "logistic regression"},
+            {"data cleaning with pandas", "Pandas"},
+            {"cloudflare workers registration backend", "Cloudflare Workers"},
+            {"wrangler deploy workflow", "Wrangler"},
+            {"chico love event website", "Chico Love"},
+            {"distributed job queue", "Job Queue"},
+            {"worker throughput tasks per second", "tasks/sec"},
+            {"dead letter queue retries", "DLQ"},
+            {"rag copilot with citations", "RAG copilot"},
+            {"langgraph github issues", "GitHub issues"},
+            {"predict training time of CNNs", "sec/epoch"},
+            {"nvidia a100 benchmark", "A100"},
+            {"django marketplace on gcp", "GCP"},
+            {"load balancer high availability", "Load Balancer"},
+            {"which programming languages do you know", "Python"},
+            {"message brokers", "RabbitMQ"},
+            {"monitoring with prometheus and grafana", "Prometheus"},
+            {"pytorch experience", "PyTorch"},
+            {"which courses did you take", "Courses"},
+            {"aws certifications", "AWS Certified"},
+            {"postgress", "PostgreSQL"},
+            {"experience with rust embedded firmware", ""},
+            {"tell me about your phd thesis", ""},
+            {"salesforce administration", ""},
+            {"ios swiftui apps", ""},
+            {"blockchain smart contracts", ""},
+            {"team size you managed as director", ""},
+    };
+
+    public static final class Labelled {
+        public final String question;
+        public final String expect;
+
+        Labelled(String question, String expect) {
+            this.question = question;
+            this.expect = expect;
+        }
+
+        boolean answerable() {
+            return expect.length() > 0;
+        }
+
+        boolean relevant(ChunkRow r) {
+            return answerable() && r.content.toLowerCase().contains(expect.toLowerCase());
+        }
+    }
+
+    // both legs' top-k rows for one question, best first
+    public static final class Legs {
+        public final Labelled q;
+        public final List<ChunkRow> fts;
+        public final List<ChunkRow> trgm;
+
+        Legs(Labelled q, List<ChunkRow> fts, List<ChunkRow> trgm) {
+            this.q = q;
+            this.fts = fts;
+            this.trgm = trgm;
+        }
+    }
+
+    public static final class Metrics {
+        public double recallAtK;
+        public double mrr;
+        public double canAnswerPrecision;
+        public double canAnswerRecall;
+        public double queriesPerQuestion;
+        public int ftsAccepted;
+        public int trgmAccepted;
+        public int ftsWeakAccepted;
+        public int empty;
+
+        // no worse than base on any quality measure
+        boolean keepsQuality(Metrics base) {
+            return recallAtK >= base.recallAtK - 1e-9
+                    && mrr >= base.mrr - 1e-9
+                    && canAnswerPrecision >= base.canAnswerPrecision - 1e-9
+                    && canAnswerRecall >= base.canAnswerRecall - 1e-9;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int k = Integer.getInteger("eval.k", 5);
+        List<Legs> legs = collect(questions(), k);
+        RetrievalThresholds t = thresholds();
+
+        System.out.printf("%-45s %-16s %6s %6s%n", "question", "decision", "rank", "trips");
+        for (int i = 0; i < legs.size(); i++) {
+            Legs l = legs.get(i);
+            RetrievalTrace trace = new RetrievalTrace();
+            List<ChunkRow> rows = LexicalFallbackEngine.choose(l.fts, l.trgm, t, trace);
+            int rank = firstRelevant(l.q, rows, k);
+            System.out.printf("%-45s %-16s %6s %6d%n", clip(l.q.question, 45), trace.decisions.get(0),
+                    l.q.answerable() ? (rank > 0 ? String.valueOf(rank) : "miss") : (rows.isEmpty() ? "ok" : "fp"),
+                    LexicalFallbackEngine.ftsAccepted(l.fts, t) ? 1 : 2);
+        }
+        System.out.println();
+        System.out.println("thresholds: " + t);
+        header();
+        row("eval", evaluate(legs, t, k));
+    }
+
+    static List<Labelled> questions() throws Exception {
+        List<Labelled> out = new ArrayList<>();
+        String file = System.getProperty("eval.questions");
+        if (file == null) {
+            for (int i = 0; i < QUESTIONS.length; i++) out.add(new Labelled(QUESTIONS[i][0], QUESTIONS[i][1]));
+            return out;
+        }
+        List<String> lines = Files.readAllLines(Path.of(file), StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank() || line.startsWith("#")) continue;
+            int tab = line.indexOf('\t');
+            if (tab < 0) out.add(new Labelled(line.trim(), ""));
+            else out.add(new Labelled(line.substring(0, tab).trim(), line.substring(tab + 1).trim()));
+        }
+        return out;
+    }
+
+    // the bundled source scores like memory mode, so it starts from that mode's thresholds file
+    static RetrievalThresholds thresholds() throws Exception {
+        String file = System.getProperty("eval.thresholds");
+        if (file != null) return RetrievalThresholds.parse(new ObjectMapper().readTree(Path.of(file).toFile()));
+        String bundled = System.getProperty("eval.source", "db").equals("bundled") ? "thresholds-memory.json" : "thresholds.json";
+        try (InputStream in = RetrievalEvalHarness.class.getResourceAsStream("/retrieval/" + bundled)) {
+            return RetrievalThresholds.parse(new ObjectMapper().readTree(in));
+        }
+    }
+
+    static List<Legs> collect(List<Labelled> qs, int k) throws Exception {
+        List<Legs> out = new ArrayList<>(qs.size());
+        String source = System.getProperty("eval.source", "db");
+
+        if (source.equals("bundled")) {
+            String text;
+            try (InputStream in = RetrievalEvalHarness.class.getResourceAsStream("/resume/resume.txt")) {
+                text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            List<ResumeChunker.Chunk> chunks = ResumeChunker.split(text);
+            List<ChunkRow> rows = new ArrayList<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                ResumeChunker.Chunk c = chunks.get(i);
+                rows.add(new ChunkRow(i + 1, c.section, c.content, 0, "", c.type));
+            }
+            ChunkIndex index = ChunkIndex.build(rows);
+            for (int i = 0; i < qs.size(); i++) {
+                String q = qs.get(i).question;
+                out.add(new Legs(qs.get(i), index.fts(q, k), index.trgm(q, k)));
+            }
+            System.out.println("source: bundled resume.txt, chunks=" + rows.size() + ", questions=" + qs.size());
+            return out;
+        }
+
+        String url = env("RESUME_DB_URL", "jdbc:postgresql://localhost:5432/resume_db");
+        String user = env("RESUME_DB_USER", "resume");
+        String password = env("RESUME_DB_PASSWORD", "resume");
+        String resumeId = System.getProperty("eval.resume", "default");
+
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+        Integer chunks = jdbc.queryForObject("SELECT count(*) FROM resume_chunks WHERE resume_id = ?", Integer.class, resumeId);
+        if (chunks == null || chunks == 0) {
+            throw new IllegalStateException("no chunks for resume '" + resumeId + "'; run the app once with app.ingest=true");
+        }
+        PostgresRetrievalEngine engine = new PostgresRetrievalEngine(jdbc, RetrievalThresholds.DEFAULTS);
+        for (int i = 0; i < qs.size(); i++) {
+            NormalizedQuery q = NormalizedQuery.of(qs.get(i).question);
+            out.add(new Legs(qs.get(i), engine.fts(resumeId, q, k), engine.trgm(resumeId, q, k)));
+        }
+        System.out.println("source: " + url + " resume=" + resumeId + ", chunks=" + chunks + ", questions=" + qs.size());
+        return out;
+    }
+
+    static Metrics evaluate(List<Legs> legs, RetrievalThresholds t, int k) {
+        Metrics m = new Metrics();
+        int answerable = 0;
+        int answered = 0;
+        int correct = 0;
+        int found = 0;
+        double rr = 0;
+        int trips = 0;
+
+        RetrievalTrace trace = new RetrievalTrace();
+        for (int i = 0; i < legs.size(); i++) {
+            Legs l = legs.get(i);
+            List<ChunkRow> rows = LexicalFallbackEngine.choose(l.fts, l.trgm, t, trace);
+            trips += LexicalFallbackEngine.ftsAccepted(l.fts, t) ? 1 : 2;
+
+            int rank = firstRelevant(l.q, rows, k);
+            if (l.q.answerable()) {
+                answerable++;
+                if (rank > 0) {
+                    found++;
+                    rr += 1.0 / rank;
+                }
+            }
+            if (!rows.isEmpty()) {
+                answered++;
+                if (rank > 0) correct++;
+            }
+        }
+
+        for (int i = 0; i < trace.decisions.size(); i++) {
+            String d = trace.decisions.get(i);
+            if (d.equals(RetrievalTrace.FTS_ACCEPTED)) m.ftsAccepted++;
+            else if (d.equals(RetrievalTrace.TRGM_ACCEPTED)) m.trgmAccepted++;
+            else if (d.equals(RetrievalTrace.FTS_WEAK_ACCEPTED)) m.ftsWeakAccepted++;
+            else m.empty++;
+        }
+
+        m.recallAtK = answerable == 0 ? 0 : (double) found / answerable;
+        m.mrr = answerable == 0 ? 0 : rr / answerable;
+        m.canAnswerPrecision = answered == 0 ? 1 : (double) correct / answered;
+        m.canAnswerRecall = answerable == 0 ? 0 : (double) correct / answerable;
+        m.queriesPerQuestion = legs.isEmpty() ? 0 : (double) trips / legs.size();
+        return m;
+    }
+
+    // 1-based rank of the first relevant row within the top k, 0 for none
+    private static int firstRelevant(Labelled q, List<ChunkRow> rows, int k) {
+        for (int i = 0; i < rows.size() && i < k; i++) {
+            if (q.relevant(rows.get(i))) return i + 1;
+        }
+        return 0;
+    }
+
+    static void header() {
+        System.out.printf("%-10s %9s %7s %8s %8s %9s %18s%n", "", "recall@k", "MRR", "can P", "can R", "q/quest",
+                "fts/trgm/weak/none");
+    }
+
+    static void row(String label, Metrics m) {
+        System.out.printf("%-10s %9.3f %7.3f %8.3f %8.3f %9.2f %18s%n", label, m.recallAtK, m.mrr,
+                m.canAnswerPrecision, m.canAnswerRecall, m.queriesPerQuestion,
+                m.ftsAccepted + "/" + m.trgmAccepted + "/" + m.ftsWeakAccepted + "/" + m.empty);
+    }
+
+    private static String clip(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max - 3) + "...";
+    }
+
+    private static String env(String name, String def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : v;
+    }
+}
@@ -0,0 +1,120 @@
+package com.acode.resume.retrieval;
+
+import com.acode.resume.ingest.ResumeChunker;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Recall@k and per-query latency of the lexical fts/trgm fallback alone vs. fused with the
+// semantic stage, on the bundled resume and a fixed question set. Runs without a database:
+// ChunkIndex stands in for the postgres ranking (same thresholds and fallback decision).
+//
+// A question counts as answered when any returned chunk contains its expected phrase.
+//
+//   ./mvnw -Pbench test-compile exec:java -Dbench.main=com.acode.resume.retrieval.SemanticRecallBenchmark
+public class SemanticRecallBenchmark {
+
+    // question -> phrase the answer chunk must contain
+    private static final String[][] QUESTIONS = {
+            {"What did you do at Cognizant?", "Spring Boot microservices"},
+            {"what backend work have you done", "backend"},
+            {"which message brokers have you used", "RabbitMQ"},
+            {"tell me about production incidents you handled", "incidents"},
+            {"experience with machine learning models", "logistic regression"},
+            {"have you built a job queue", "Job Queue"},
+            {"how did you measure worker throughput", "tasks/sec"},
+            {"did you deploy anything on google cloud", "GCP"},
+            {"what testing frameworks do you use", "JUnit"},
+            {"predicting training time of neural networks", "sec/epoch"},
+            {"rag copilot citations", "RAG copilot"},
+            {"cloudflare workers registration", "Cloudflare Workers"},
+            {"data cleaning pipeline", "Pandas"},
+            {"uptime of services you supported", "99.9%"},
+            {"kubernetes operators", "Kubernetes"},
+            {"cognizent", "Cognizant"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        int k = Integer.getInteger("bench.k", 5);
+        int reps = Integer.getInteger("bench.reps", 2000);
+
+        String text;
+        try (InputStream in = SemanticRecallBenchmark.class.getResourceAsStream("/resume/resume.txt")) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<ResumeChunker.Chunk> chunks = ResumeChunker.split(text);
+        List<ChunkRow> rows = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            ResumeChunker.Chunk c = chunks.get(i);
+            rows.add(new ChunkRow(i + 1, c.section, c.content, 0, "", c.type));
+        }
+
+        ChunkIndex lexical = ChunkIndex.build(rows);
+        Embedder embedder = new HashingEmbedder(384);
+        long t0 = System.nanoTime();
+        HnswIndex hnsw = HnswIndex.build(rows, embedder, 16, 100);
+        System.out.printf("chunks=%d, hnsw build %.2f ms%n", rows.size(), (System.nanoTime() - t0) / 1e6);
+
+        int lexHits = 0;
+        int fusedHits = 0;
+        long[] lexLat = new long[QUESTIONS.length * reps];
+        long[] fusedLat = new long[QUESTIONS.length * reps];
+        float[] v = new float[embedder.dimension()];
+
+        System.out.printf("%-50s %8s %8s%n", "question", "lexical", "fused");
+        for (int qi = 0; qi < QUESTIONS.length; qi++) {
+            String q = QUESTIONS[qi][0];
+            String expect = QUESTIONS[qi][1];
+
+            List<ChunkRow> lex = null;
+            List<ChunkRow> fused = null;
+            for (int r = 0; r < reps; r++) {
+                long s = System.nanoTime();
+                lex = lexicalSearch(lexical, q, k);
+                long m = System.nanoTime();
+                embedder.embed(q, v);
+                fused = SemanticIndex.rrf(lex, hnsw.search(v, k, 50, 0.15), k, 60);
+                long e = System.nanoTime();
+                lexLat[qi * reps + r] = m - s;
+                fusedLat[qi * reps + r] = e - s;
+            }
+
+            boolean a = contains(lex, expect);
+            boolean b = contains(fused, expect);
+            if (a) lexHits++;
+            if (b) fusedHits++;
+            System.out.printf("%-50s %8s %8s%n", q, a ? "hit" : "-", b ? "hit" : "-");
+        }
+
+        Arrays.sort(lexLat);
+        Arrays.sort(fusedLat);
+        System.out.println();
+        System.out.printf("%-10s %10s %10s %10s%n", "engine", "recall@" + k, "p50 us", "p99 us");
+        System.out.printf("%-10s %10.2f %10.1f %10.1f%n", "lexical", (double) lexHits / QUESTIONS.length,
+                pct(lexLat, 0.50) / 1e3, pct(lexLat, 0.99) / 1e3);
+        System.out.printf("%-10s %10.2f %10.1f %10.1f%n", "fused", (double) fusedHits / QUESTIONS.length,
+                pct(fusedLat, 0.50) / 1e3, pct(fusedLat, 0.99) / 1e3);
+    }
+
+    private static List<ChunkRow> lexicalSearch(ChunkIndex index, String q, int k) {
+        List<ChunkRow> a = index.fts(q, k);
+        if (LexicalFallbackEngine.ftsAccepted(a, RetrievalThresholds.DEFAULTS)) return a;
+        return LexicalFallbackEngine.choose(a, index.trgm(q, k), RetrievalThresholds.DEFAULTS, new RetrievalTrace());
+    }
+
+    private static boolean contains(List<ChunkRow> rows, String phrase) {
+        String p = phrase.toLowerCase();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).content.toLowerCase().contains(p)) return true;
+        }
+        return false;
+    }
+
+    private static long pct(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+}
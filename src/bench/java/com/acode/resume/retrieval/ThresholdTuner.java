@@ -0,0 +1,161 @@
+package com.acode.resume.retrieval;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Picks fallback cutoffs that issue fewer queries without losing quality, and writes them as a
+// RetrievalThresholds file for app.retrieval.thresholds.location.
+//
+// Uses RetrievalEvalHarness's legs and metrics (same -Deval.* flags). The starting thresholds
+// are the baseline: a candidate is only eligible when recall@k, MRR and canAnswer precision and
+// recall are all at least the baseline's, and among those the fewest queries per question wins
+// (then higher MRR, then the smallest change). Candidate cutoffs are the scores actually observed,
+// since the decisions only change there. The default cutoffs are tuned first, then each section
+// that decides at least -Deval.min-section-questions questions gets its own, one at a time.
+//
+// The result fits the labelled set; re-run RetrievalEvalHarness with -Deval.thresholds on a
+// different question file before deploying it.
+//
+//   ./mvnw -Pbench test-compile exec:java -Dbench.main=com.acode.resume.retrieval.ThresholdTuner \
+//       -Deval.out=target/thresholds.json
+public class ThresholdTuner {
+
+    // candidate values per cutoff; more observed scores are thinned to evenly spaced ones
+    private static final int MAX_CANDIDATES = 64;
+
+    public static void main(String[] args) throws Exception {
+        int k = Integer.getInteger("eval.k", 5);
+        int minSection = Integer.getInteger("eval.min-section-questions", 3);
+        Path out = Path.of(System.getProperty("eval.out", "target/thresholds.json"));
+
+        List<RetrievalEvalHarness.Legs> legs = RetrievalEvalHarness.collect(RetrievalEvalHarness.questions(), k);
+        RetrievalThresholds start = RetrievalEvalHarness.thresholds();
+        RetrievalEvalHarness.Metrics base = RetrievalEvalHarness.evaluate(legs, start, k);
+
+        long t0 = System.nanoTime();
+        RetrievalThresholds best = tune(legs, start, null, base, k);
+
+        Map<String, Integer> deciding = decidingSections(legs);
+        for (Map.Entry<String, Integer> e : deciding.entrySet()) {
+            if (e.getValue() < minSection) continue;
+            best = tune(legs, best, e.getKey(), base, k);
+        }
+        RetrievalEvalHarness.Metrics tuned = RetrievalEvalHarness.evaluate(legs, best, k);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+
+        System.out.println();
+        System.out.println("before: " + start);
+        System.out.println("after:  " + best);
+        RetrievalEvalHarness.header();
+        RetrievalEvalHarness.row("before", base);
+        RetrievalEvalHarness.row("after", tuned);
+        System.out.printf("tuned in %d ms; sections deciding questions: %s%n", ms, deciding);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        Files.writeString(out, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(best.toJson(objectMapper)));
+        System.out.println("wrote " + out + " (app.retrieval.thresholds.location=file:" + out + ")");
+    }
+
+    // Grid search over one set of cutoffs: the defaults when section is null, else that section's.
+    private static RetrievalThresholds tune(List<RetrievalEvalHarness.Legs> legs, RetrievalThresholds current, String section,
+                                           RetrievalEvalHarness.Metrics base, int k) {
+        RetrievalThresholds.Cutoffs now = section == null ? current.defaults : cutoffsOf(current, section);
+
+        TreeSet<Double> fts = new TreeSet<>();
+        TreeSet<Double> trgm = new TreeSet<>();
+        for (int i = 0; i < legs.size(); i++) {
+            RetrievalEvalHarness.Legs l = legs.get(i);
+            if (l.fts.size() > 0 && applies(current, section, l.fts.get(0).section)) fts.add(l.fts.get(0).score);
+            for (int j = 0; j < l.trgm.size(); j++) {
+                ChunkRow r = l.trgm.get(j);
+                if (applies(current, section, r.section)) trgm.add(r.score);
+            }
+        }
+        fts.add(now.ftsAccept);
+        fts.add(now.ftsWeak);
+        trgm.add(now.trgmAccept);
+        double[] ftsCands = thin(fts);
+        double[] trgmCands = thin(trgm);
+
+        RetrievalThresholds best = current;
+        RetrievalEvalHarness.Metrics bestM = RetrievalEvalHarness.evaluate(legs, current, k);
+        double bestDist = 0;
+
+        for (int a = 0; a < ftsCands.length; a++) {
+            for (int b = 0; b < trgmCands.length; b++) {
+                for (int w = 0; w < ftsCands.length && ftsCands[w] <= ftsCands[a]; w++) {
+                    RetrievalThresholds.Cutoffs c = new RetrievalThresholds.Cutoffs(ftsCands[a], trgmCands[b], ftsCands[w]);
+                    RetrievalThresholds t = current.with(section, c);
+                    RetrievalEvalHarness.Metrics m = RetrievalEvalHarness.evaluate(legs, t, k);
+                    if (!m.keepsQuality(base)) continue;
+
+                    double dist = Math.abs(c.ftsAccept - now.ftsAccept) + Math.abs(c.trgmAccept - now.trgmAccept)
+                            + Math.abs(c.ftsWeak - now.ftsWeak);
+                    if (better(m, dist, bestM, bestDist)) {
+                        best = t;
+                        bestM = m;
+                        bestDist = dist;
+                    }
+                }
+            }
+        }
+
+        System.out.printf("%-12s queries/question %.3f, MRR %.3f%n", section == null ? "default" : section,
+                bestM.queriesPerQuestion, bestM.mrr);
+        return best;
+    }
+
+    private static boolean better(RetrievalEvalHarness.Metrics m, double dist, RetrievalEvalHarness.Metrics best, double bestDist) {
+        if (m.queriesPerQuestion < best.queriesPerQuestion - 1e-9) return true;
+        if (m.queriesPerQuestion > best.queriesPerQuestion + 1e-9) return false;
+        if (m.mrr > best.mrr + 1e-9) return true;
+        if (m.mrr < best.mrr - 1e-9) return false;
+        return dist < bestDist - 1e-12;
+    }
+
+    // which rows a section's cutoffs see: its own, or for the defaults every section without its own
+    private static boolean applies(RetrievalThresholds t, String section, String rowSection) {
+        if (section == null) return !t.sections.containsKey(rowSection);
+        return section.equals(rowSection);
+    }
+
+    private static RetrievalThresholds.Cutoffs cutoffsOf(RetrievalThresholds t, String section) {
+        RetrievalThresholds.Cutoffs c = t.sections.get(section);
+        return c == null ? t.defaults : c;
+    }
+
+    // sections of the rows the decisions are made on (top fts row, accepted-candidate trgm rows),
+    // counted once per question
+    private static Map<String, Integer> decidingSections(List<RetrievalEvalHarness.Legs> legs) {
+        Map<String, Integer> out = new HashMap<>();
+        for (int i = 0; i < legs.size(); i++) {
+            RetrievalEvalHarness.Legs l = legs.get(i);
+            List<String> seen = new ArrayList<>();
+            if (l.fts.size() > 0) seen.add(l.fts.get(0).section);
+            for (int j = 0; j < l.trgm.size(); j++) {
+                if (!seen.contains(l.trgm.get(j).section)) seen.add(l.trgm.get(j).section);
+            }
+            for (int j = 0; j < seen.size(); j++) out.merge(seen.get(j), 1, Integer::sum);
+        }
+        return out;
+    }
+
+    private static double[] thin(TreeSet<Double> values) {
+        Double[] all = values.toArray(new Double[0]);
+        int n = Math.min(all.length, MAX_CANDIDATES);
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            int j = n == all.length ? i : (int) ((long) i * (all.length - 1) / (n - 1));
+            out[i] = all[j];
+        }
+        return out;
+    }
+}
@@ -0,0 +1,55 @@
+package com.acode.resume.api;
+
+import com.acode.resume.db.StatementStats;
+import com.acode.resume.ingest.ResumeIngestService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final ResumeIngestService ingestService;
+    private final StatementStats statementStats;
+    private final String token;
+
+    public AdminController(ResumeIngestService ingestService, StatementStats statementStats,
+                           @Value("${app.admin.token:}") String token) {
+        this.ingestService = ingestService;
+        this.statementStats = statementStats;
+        this.token = token;
+    }
+
+    // Every admin endpoint requires X-Admin-Token = app.admin.token; all are disabled while no token is configured.
+
+    // Re-ingests the configured resume source while chat keeps serving the previous corpus.
+    @PostMapping("/ingest")
+    public ResumeIngestService.Report ingest(@RequestHeader(value = "X-Admin-Token", required = false) String given) throws Exception {
+        checkToken(given);
+
+        ResumeIngestService.Report r = ingestService.tryIngest();
+        if (r == null) throw new ResponseStatusException(HttpStatus.CONFLICT, "an ingest is already running");
+        return r;
+    }
+
+    // Planning vs execution time of the retrieval statements, per database server.
+    @GetMapping("/db/statements")
+    public List<StatementStats.Server> statements(@RequestHeader(value = "X-Admin-Token", required = false) String given,
+                                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        checkToken(given);
+        return statementStats.snapshot(Math.max(1, Math.min(limit, 200)));
+    }
+
+    private void checkToken(String given) {
+        if (token.isBlank()) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "admin endpoints are disabled (app.admin.token)");
+        if (given == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), given.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "bad admin token");
+        }
+    }
+}
@@ -1,23 +1,132 @@
 package com.acode.resume.api;
 
+import com.acode.resume.chat.OverloadedException;
 import com.acode.resume.chat.ResumeChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
 public class ChatController {
 
     private final ResumeChatService service;
+    private final ObjectMapper objectMapper;
+    private final ChatResponseWriter responseWriter;
+    private final int maxBatch;
 
-    public ChatController(ResumeChatService service) {
+    public ChatController(ResumeChatService service, ObjectMapper objectMapper,
+                          @Value("${app.chat.batch.max-questions:100}") int maxBatch) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.responseWriter = new ChatResponseWriter(objectMapper);
+        this.maxBatch = maxBatch;
     }
 
+    // Written by ChatResponseWriter straight to the servlet stream; the body is ChatResponse JSON.
+    // The answer is computed before anything is written, so a 429 is still a plain status.
     @PostMapping("/chat")
-    public ChatResponse chat(@Valid @RequestBody ChatRequest req) throws Exception {
+    public void chat(@Valid @RequestBody ChatRequest req, HttpServletResponse response) throws Exception {
         boolean debug = req.debug;
-        ResumeChatService.Result r = service.answer(req.message, debug);
-        return new ChatResponse(r.canAnswer, r.answer, r.citations, r.usedFields, r.debugHits);
+        ResumeChatService.Result r = service.answer(req.resumeId, req.message, debug);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        responseWriter.write(response.getOutputStream(), r);
+    }
+
+    // Same question, answered as a stream of events (see ChatEventWriter): the intent decision
+    // first, then each group and bullet with its citation as it is formatted, debug data last.
+    // Accept: application/x-ndjson for NDJSON, text/event-stream for SSE.
+    @PostMapping(value = "/chat/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamNdjson(@Valid @RequestBody ChatRequest req) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> stream(req, new ChatEventWriter(out, objectMapper, false)));
+    }
+
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSse(@Valid @RequestBody ChatRequest req) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(out -> stream(req, new ChatEventWriter(out, objectMapper, true)));
+    }
+
+    // The status line is already sent, so failures become an error event before the stream
+    // closes: 429 for an overload, 500 for anything else. A client that went away gets nothing.
+    private void stream(ChatRequest req, ChatEventWriter writer) {
+        try {
+            service.stream(req.resumeId, req.message, req.debug, writer);
+        } catch (OverloadedException e) {
+            writer.error(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+            writer.done(false);
+        } catch (UncheckedIOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            System.out.println("[CHAT] stream failed: " + e);
+            writer.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Could not answer the question.");
+            writer.done(false);
+        }
+    }
+
+    // Many questions in one call. Requests are grouped by (resumeId, debug) and each group is
+    // answered by ResumeChatService.answerAll; responses come back in request order.
+    @PostMapping("/chat/batch")
+    public void batch(@RequestBody List<ChatRequest> reqs, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (reqs == null || reqs.isEmpty()) {
+            responseWriter.writeAll(response.getOutputStream(), new ArrayList<>());
+            return;
+        }
+        if (reqs.size() > maxBatch) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + maxBatch + " questions per batch");
+        }
+        // the @NotBlank on ChatRequest.message, per element (@Valid does not reach into the list)
+        for (int i = 0; i < reqs.size(); i++) {
+            ChatRequest req = reqs.get(i);
+            if (req == null || req.message == null || req.message.isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "question " + i + ": message must not be blank");
+            }
+        }
+
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < reqs.size(); i++) {
+            ChatRequest req = reqs.get(i);
+            String rid = req.resumeId == null ? "" : req.resumeId.trim();
+            groups.computeIfAbsent((req.debug ? "d|" : "n|") + rid, k -> new ArrayList<>()).add(i);
+        }
+
+        ResumeChatService.Result[] out = new ResumeChatService.Result[reqs.size()];
+        for (List<Integer> idx : groups.values()) {
+            ChatRequest first = reqs.get(idx.get(0));
+            List<String> messages = new ArrayList<>(idx.size());
+            for (int i = 0; i < idx.size(); i++) messages.add(reqs.get(idx.get(i)).message);
+
+            List<ResumeChatService.Result> rs = service.answerAll(first.resumeId, messages, first.debug);
+            for (int i = 0; i < idx.size(); i++) out[idx.get(i)] = rs.get(i);
+        }
+        responseWriter.writeAll(response.getOutputStream(), Arrays.asList(out));
+    }
+
+    // Fail fast instead of queueing on the connection pool; clients should back off and retry.
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ChatResponse> overloaded(OverloadedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ChatResponse(false, "The service is busy, please retry shortly.", List.of(), List.of(), null, null));
     }
 }
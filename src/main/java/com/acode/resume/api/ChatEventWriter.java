@@ -0,0 +1,123 @@
+package com.acode.resume.api;
+
+import com.acode.resume.chat.AnswerStream;
+import com.acode.resume.chat.ResumeChatService;
+import com.acode.resume.retrieval.ChunkRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Writes AnswerStream events to the response as they happen, one JSON object per event,
+// flushed immediately. Framing is NDJSON (one object per line, with an "event" field) or
+// server-sent events ("event: <name>" + "data: <json>").
+//
+//   intent  {"path", "field"}
+//   group   {"title", "heading"}
+//   bullet  {"text", "citation"}
+//   answer  {"canAnswer", "answer", "citations", "usedFields"}
+//   debug   {"debugHits", "debugTrace"}
+//   error   {"status", "message"}      (429 when the limiter rejects after the stream started, 500
+//                                      when answering failed)
+//   done    {"canAnswer"}
+public class ChatEventWriter implements AnswerStream {
+
+    private static final byte[] NL = {'\n'};
+
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+    private final boolean sse;
+
+    public ChatEventWriter(OutputStream out, ObjectMapper objectMapper, boolean sse) {
+        this.out = out;
+        this.objectMapper = objectMapper;
+        this.sse = sse;
+    }
+
+    @Override
+    public void intent(String path, String field) {
+        ObjectNode n = event("intent");
+        n.put("path", path);
+        n.put("field", field);
+        write("intent", n);
+    }
+
+    @Override
+    public void group(String source, int end, boolean heading) {
+        ObjectNode n = event("group");
+        n.put("title", source.substring(0, end));
+        n.put("heading", heading);
+        write("group", n);
+    }
+
+    @Override
+    public void bullet(ChunkRow row, int start, int end, boolean clipped) {
+        String text = row.content.substring(start, end);
+        if (clipped) text = text + "...";
+        ObjectNode n = event("bullet");
+        n.put("text", text);
+        n.set("citation", objectMapper.valueToTree(new Citation(row.id, row.section, text)));
+        write("bullet", n);
+    }
+
+    @Override
+    public void answer(ResumeChatService.Result r) {
+        ObjectNode n = event("answer");
+        n.put("canAnswer", r.canAnswer);
+        n.put("answer", r.answer);
+        n.set("citations", objectMapper.valueToTree(r.citations));
+        n.set("usedFields", objectMapper.valueToTree(r.usedFields));
+        write("answer", n);
+    }
+
+    @Override
+    public void debug(List<RetrievalHit> hits, DebugTrace trace) {
+        ObjectNode n = event("debug");
+        n.set("debugHits", objectMapper.valueToTree(hits));
+        n.set("debugTrace", objectMapper.valueToTree(trace));
+        write("debug", n);
+    }
+
+    @Override
+    public void done(boolean canAnswer) {
+        ObjectNode n = event("done");
+        n.put("canAnswer", canAnswer);
+        write("done", n);
+    }
+
+    public void error(int status, String message) {
+        ObjectNode n = event("error");
+        n.put("status", status);
+        n.put("message", message);
+        write("error", n);
+    }
+
+    private ObjectNode event(String name) {
+        ObjectNode n = objectMapper.createObjectNode();
+        if (!sse) n.put("event", name);
+        return n;
+    }
+
+    private void write(String name, ObjectNode n) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(n);
+            if (sse) {
+                out.write(("event: " + name + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+                out.write(json);
+                out.write(NL);
+                out.write(NL);
+            } else {
+                out.write(json);
+                out.write(NL);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // client went away; stop producing
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -6,6 +6,9 @@ public class ChatRequest {
     @NotBlank
     public String message;
 
+    // Optional: which resume to answer from; defaults to app.default-resume-id
+    public String resumeId;
+
     // Optional: if omitted in JSON, defaults to false
     public boolean debug = false;
 }
@@ -11,11 +11,16 @@ public class ChatResponse {
     // Present only when request debug=true
     public List<RetrievalHit> debugHits;
 
-    public ChatResponse(boolean canAnswer, String answer, List<Citation> citations, List<String> usedFields, List<RetrievalHit> debugHits) {
+    // Present only when request debug=true: per-stage timings and fallback decisions for this request
+    public DebugTrace debugTrace;
+
+    public ChatResponse(boolean canAnswer, String answer, List<Citation> citations, List<String> usedFields, List<RetrievalHit> debugHits,
+                        DebugTrace debugTrace) {
         this.canAnswer = canAnswer;
         this.answer = answer;
         this.citations = citations;
         this.usedFields = usedFields;
         this.debugHits = debugHits;
+        this.debugTrace = debugTrace;
     }
 }
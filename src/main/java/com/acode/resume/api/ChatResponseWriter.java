@@ -0,0 +1,113 @@
+package com.acode.resume.api;
+
+import com.acode.resume.chat.ResumeChatService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// Writes a ResumeChatService.Result as ChatResponse JSON (same field names and order) straight to
+// the response through one streaming JsonGenerator: no ChatResponse copy per request and no bean
+// serializer walk, and the generator's buffers come from Jackson's recycler. One instance serves
+// every request; it holds no per-request state. ChatResponseWriterTest checks the bytes against
+// the application's ObjectMapper writing ChatResponse, so a spring.jackson.* setting this writer
+// does not honor fails the build instead of changing the API.
+public class ChatResponseWriter {
+
+    private final JsonFactory factory;
+
+    public ChatResponseWriter(ObjectMapper objectMapper) {
+        this.factory = objectMapper.getFactory();
+    }
+
+    public void write(OutputStream out, ResumeChatService.Result r) throws IOException {
+        try (JsonGenerator g = generator(out)) {
+            write(g, r);
+        }
+    }
+
+    // a JSON array of responses, in order
+    public void writeAll(OutputStream out, List<ResumeChatService.Result> rs) throws IOException {
+        try (JsonGenerator g = generator(out)) {
+            g.writeStartArray();
+            for (int i = 0; i < rs.size(); i++) write(g, rs.get(i));
+            g.writeEndArray();
+        }
+    }
+
+    // closing the generator flushes it and returns its buffers, but leaves the response open
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        JsonGenerator g = factory.createGenerator(out, JsonEncoding.UTF8);
+        g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return g;
+    }
+
+    private static void write(JsonGenerator g, ResumeChatService.Result r) throws IOException {
+        g.writeStartObject();
+        g.writeBooleanField("canAnswer", r.canAnswer);
+        g.writeStringField("answer", r.answer);
+
+        g.writeArrayFieldStart("citations");
+        for (int i = 0; i < r.citations.size(); i++) {
+            Citation c = r.citations.get(i);
+            g.writeStartObject();
+            g.writeNumberField("chunkId", c.chunkId);
+            g.writeStringField("section", c.section);
+            g.writeStringField("snippet", c.snippet);
+            g.writeEndObject();
+        }
+        g.writeEndArray();
+
+        g.writeArrayFieldStart("usedFields");
+        for (int i = 0; i < r.usedFields.size(); i++) g.writeString(r.usedFields.get(i));
+        g.writeEndArray();
+
+        g.writeFieldName("debugHits");
+        if (r.debugHits == null) {
+            g.writeNull();
+        } else {
+            g.writeStartArray();
+            for (int i = 0; i < r.debugHits.size(); i++) {
+                RetrievalHit h = r.debugHits.get(i);
+                g.writeStartObject();
+                g.writeNumberField("chunkId", h.chunkId);
+                g.writeStringField("section", h.section);
+                g.writeStringField("method", h.method);
+                g.writeNumberField("score", h.score);
+                g.writeStringField("type", h.type);
+                g.writeStringField("snippet", h.snippet);
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+        }
+
+        g.writeFieldName("debugTrace");
+        if (r.debugTrace == null) {
+            g.writeNull();
+        } else {
+            DebugTrace t = r.debugTrace;
+            g.writeStartObject();
+            g.writeStringField("path", t.path);
+            g.writeNumberField("totalMs", t.totalMs);
+            g.writeArrayFieldStart("stages");
+            for (int i = 0; i < t.stages.size(); i++) {
+                DebugTrace.Stage s = t.stages.get(i);
+                g.writeStartObject();
+                g.writeStringField("stage", s.stage);
+                g.writeNumberField("ms", s.ms);
+                g.writeNumberField("rows", s.rows);
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeArrayFieldStart("decisions");
+            for (int i = 0; i < t.decisions.size(); i++) g.writeString(t.decisions.get(i));
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+        g.writeEndObject();
+    }
+}
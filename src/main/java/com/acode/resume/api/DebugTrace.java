@@ -0,0 +1,29 @@
+package com.acode.resume.api;
+
+import java.util.List;
+
+public class DebugTrace {
+    public String path;              // "fact", "cache" or "retrieval"
+    public double totalMs;
+    public List<Stage> stages;
+    public List<String> decisions;   // fallback branch per search, e.g. "fts_accepted"
+
+    public DebugTrace(String path, double totalMs, List<Stage> stages, List<String> decisions) {
+        this.path = path;
+        this.totalMs = totalMs;
+        this.stages = stages;
+        this.decisions = decisions;
+    }
+
+    public static class Stage {
+        public String stage;
+        public double ms;
+        public int rows;
+
+        public Stage(String stage, double ms, int rows) {
+            this.stage = stage;
+            this.ms = ms;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.acode.resume.chat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Multi-pattern substring matcher compiled to a dense DFA (goto + failure links folded into
+// one transition table), so a single pass over the text reports every pattern it contains.
+// Matching is case-insensitive: patterns and text are lower-cased per char.
+final class AhoCorasick {
+
+    private final int[] asciiClass = new int[128];
+    private final Map<Character, Integer> otherClass = new HashMap<>();
+    private final int alphabet;
+
+    private final int[] delta;
+    private final int[][] out;
+
+    AhoCorasick(List<String> patterns) {
+        int classes = 1; // class 0: any char that appears in no pattern
+        for (int p = 0; p < patterns.size(); p++) {
+            String s = patterns.get(p);
+            for (int i = 0; i < s.length(); i++) {
+                char c = Character.toLowerCase(s.charAt(i));
+                if (classOf(c) == 0) {
+                    if (c < 128) asciiClass[c] = classes;
+                    else otherClass.put(c, classes);
+                    classes++;
+                }
+            }
+        }
+        this.alphabet = classes;
+
+        // trie
+        List<int[]> next = new ArrayList<>();
+        List<List<Integer>> outs = new ArrayList<>();
+        next.add(newRow());
+        outs.add(new ArrayList<>());
+
+        for (int p = 0; p < patterns.size(); p++) {
+            String s = patterns.get(p);
+            int state = 0;
+            for (int i = 0; i < s.length(); i++) {
+                int c = classOf(Character.toLowerCase(s.charAt(i)));
+                int n = next.get(state)[c];
+                if (n < 0) {
+                    n = next.size();
+                    next.get(state)[c] = n;
+                    next.add(newRow());
+                    outs.add(new ArrayList<>());
+                }
+                state = n;
+            }
+            outs.get(state).add(p);
+        }
+
+        // failure links, folded into the transition table breadth-first
+        int states = next.size();
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] root = next.get(0);
+        for (int c = 0; c < alphabet; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                fail[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int r = queue.poll();
+            int[] row = next.get(r);
+            for (int c = 0; c < alphabet; c++) {
+                int s = row[c];
+                int viaFail = next.get(fail[r])[c];
+                if (s < 0) {
+                    row[c] = viaFail;
+                } else {
+                    fail[s] = viaFail;
+                    outs.get(s).addAll(outs.get(viaFail));
+                    queue.add(s);
+                }
+            }
+        }
+
+        this.delta = new int[states * alphabet];
+        this.out = new int[states][];
+        for (int s = 0; s < states; s++) {
+            System.arraycopy(next.get(s), 0, delta, s * alphabet, alphabet);
+            List<Integer> o = outs.get(s);
+            int[] arr = new int[o.size()];
+            for (int i = 0; i < arr.length; i++) arr[i] = o.get(i);
+            out[s] = arr;
+        }
+    }
+
+    // Sets found[p] for every pattern p that occurs in text.
+    void scan(CharSequence text, boolean[] found) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = delta[state * alphabet + classOf(Character.toLowerCase(text.charAt(i)))];
+            int[] o = out[state];
+            for (int j = 0; j < o.length; j++) found[o[j]] = true;
+        }
+    }
+
+    private int classOf(char c) {
+        if (c < 128) return asciiClass[c];
+        Integer k = otherClass.get(c);
+        return k == null ? 0 : k;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabet];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,79 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.ingest.IngestGeneration;
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import com.acode.resume.retrieval.NormalizedQuery;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Size- and TTL-bounded cache of retrieval answers per resume (Caffeine, W-TinyLFU eviction).
+// Keys carry the ingest generation, so entries from an older corpus are never served;
+// the whole cache is also dropped when an ingest commits.
+@Component
+public class AnswerCache {
+
+    private final IngestGeneration generation;
+    private final Cache<String, ResumeChatService.Result> cache;
+    private final boolean enabled;
+
+    public AnswerCache(IngestGeneration generation,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.cache.answers.enabled:true}") boolean enabled,
+                       @Value("${app.cache.answers.max-size:10000}") long maxSize,
+                       @Value("${app.cache.answers.ttl-seconds:600}") long ttlSeconds) {
+        this.generation = generation;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.answers");
+    }
+
+    public ResumeChatService.Result get(String resumeId, NormalizedQuery query, boolean debug, Supplier<ResumeChatService.Result> loader) {
+        if (!enabled) return loader.get();
+        return cache.get(key(generation.current(), resumeId, query, debug), k -> loader.get());
+    }
+
+    // Cached answer or null; never runs a loader.
+    public ResumeChatService.Result peek(String resumeId, NormalizedQuery query, boolean debug) {
+        if (!enabled) return null;
+        return cache.getIfPresent(key(generation.current(), resumeId, query, debug));
+    }
+
+    public void put(String resumeId, NormalizedQuery query, boolean debug, ResumeChatService.Result result) {
+        if (!enabled) return;
+        cache.put(key(generation.current(), resumeId, query, debug), result);
+    }
+
+    @EventListener
+    public void onIngested(ResumeIngestedEvent event) {
+        cache.invalidateAll();
+    }
+
+    // cached answers were retrieved with the old expansions, and new fact paths must win over them
+    @EventListener
+    public void onIntentRulesReloaded(IntentRulesReloadedEvent event) {
+        cache.invalidateAll();
+    }
+
+    // the query part is NormalizedQuery.key, so "What did you do at Cognizant?" and
+    // "what did you do at  cognizant" share an entry. AnswerCoalescer groups in-flight requests
+    // by the same key.
+    static String key(long generation, String resumeId, NormalizedQuery query, boolean debug) {
+        StringBuilder sb = new StringBuilder(resumeId.length() + query.key.length() + 24);
+        sb.append(generation).append('|').append(debug ? 'd' : 'n').append('|').append(resumeId).append('|');
+        sb.append(query.key);
+        return sb.toString();
+    }
+}
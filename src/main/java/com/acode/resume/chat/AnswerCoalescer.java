@@ -0,0 +1,106 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.ingest.IngestGeneration;
+import com.acode.resume.retrieval.NormalizedQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Single-flight for retrieval answers: concurrent requests with the same resume, normalized query
+// and debug flag (AnswerCache.key, including the ingest generation) share one computation.
+// The first caller runs the loader; the others wait up to timeout-ms for its result and get the
+// same Result, or the same exception if it failed. A waiter that times out gets an
+// OverloadedException (429) rather than starting its own search. The entry is removed as soon as
+// the computation finishes, so later requests go through AnswerCache.
+//
+// Metrics: chat.coalesce counter, tag outcome = executed | coalesced | timeout.
+@Component
+public class AnswerCoalescer {
+
+    private final IngestGeneration generation;
+    private final boolean enabled;
+    private final long timeoutMs;
+
+    private final ConcurrentHashMap<String, CompletableFuture<ResumeChatService.Result>> inflight = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    public AnswerCoalescer(IngestGeneration generation,
+                           MeterRegistry registry,
+                           @Value("${app.chat.coalesce.enabled:true}") boolean enabled,
+                           @Value("${app.chat.coalesce.timeout-ms:2000}") long timeoutMs) {
+        this.generation = generation;
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        this.executed = counter(registry, "executed");
+        this.coalesced = counter(registry, "coalesced");
+        this.timedOut = counter(registry, "timeout");
+    }
+
+    public interface Loader {
+        ResumeChatService.Result load() throws Exception;
+    }
+
+    public ResumeChatService.Result get(String resumeId, NormalizedQuery query, boolean debug, Loader loader) throws Exception {
+        if (!enabled) return loader.load();
+
+        String key = AnswerCache.key(generation.current(), resumeId, query, debug);
+        CompletableFuture<ResumeChatService.Result> mine = new CompletableFuture<>();
+        CompletableFuture<ResumeChatService.Result> running = inflight.putIfAbsent(key, mine);
+        if (running != null) return await(running);
+
+        executed.increment();
+        try {
+            ResumeChatService.Result r = loader.load();
+            mine.complete(r);
+            return r;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inflight.remove(key, mine);
+        }
+    }
+
+    // identical requests currently being computed (tests / diagnostics)
+    public int inflight() {
+        return inflight.size();
+    }
+
+    private ResumeChatService.Result await(CompletableFuture<ResumeChatService.Result> running) throws Exception {
+        try {
+            ResumeChatService.Result r = running.get(timeoutMs, TimeUnit.MILLISECONDS);
+            coalesced.increment();
+            return r;
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new OverloadedException("identical request still running after " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            // the waiters see the leader's own exception, so an OverloadedException is still a 429
+            coalesced.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for an identical request", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("chat.coalesce")
+                .description("Retrieval answers computed vs. shared with concurrent identical requests")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.api.Citation;
+import com.acode.resume.api.DebugTrace;
+import com.acode.resume.api.RetrievalHit;
+import com.acode.resume.retrieval.ChunkRow;
+
+import java.util.List;
+
+// Receiver for ResumeChatService.stream, called in this order:
+//   intent  once, before any database work
+//   group / bullet  for a retrieval answer, as each one is formatted
+//   answer  instead, for answers that are already complete (facts, cache hits, "no information")
+//   debug   last, only for debug requests
+//   done    always
+public interface AnswerStream {
+
+    // path: "fact", "cache", "retrieval" or "none"; field is the fact label for path "fact"
+    void intent(String path, String field);
+
+    // The title is source[0, end). heading is false for the plain section groups (EXPERIENCE,
+    // PROJECTS, SKILLS, EDUCATION), which formatGroupedAnswer does not title.
+    void group(String source, int end, boolean heading);
+
+    // The bullet text is row.content[start, end), followed by "..." when clipped; it cites row.
+    // Ranges instead of strings, so formatting allocates nothing the receiver does not keep.
+    void bullet(ChunkRow row, int start, int end, boolean clipped);
+
+    void answer(ResumeChatService.Result result);
+
+    void debug(List<RetrievalHit> hits, DebugTrace trace);
+
+    void done(boolean canAnswer);
+}
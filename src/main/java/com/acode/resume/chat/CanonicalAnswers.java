@@ -0,0 +1,223 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.api.Citation;
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import com.acode.resume.retrieval.NormalizedQuery;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Answers to a resume's canonical questions, rendered once per ingest into resume_answers and
+// served from memory: a matching question costs one normalization and one map lookup instead of
+// ranking SQL plus answer formatting. Questions are the configured app.canonical.questions plus
+// ones derived from header chunks ("what did you do at <company>", "tell me about <project>").
+// Each resume's answers are loaded with one query on first use (bounded, like profile snapshots)
+// and expire after app.canonical.ttl-seconds, so nodes that did not run the ingest pick up the
+// rows another node rewrote.
+@Component
+public class CanonicalAnswers {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String[] questions;
+
+    private final Map<String, Map<String, ResumeChatService.Result>> answers;
+
+    public CanonicalAnswers(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                            TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                            @Value("${app.canonical.enabled:true}") boolean enabled,
+                            @Value("${app.canonical.questions:}") String[] questions,
+                            @Value("${app.canonical.max-resumes:10000}") long maxResumes,
+                            @Value("${app.canonical.ttl-seconds:600}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.questions = questions;
+
+        Cache<String, Map<String, ResumeChatService.Result>> cache = Caffeine.newBuilder()
+                .maximumSize(maxResumes)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.answers = cache.asMap();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // Loaded answers for the resume, or null; never touches the database.
+    public Map<String, ResumeChatService.Result> peek(String resumeId) {
+        if (!enabled) return Map.of();
+        return answers.get(resumeId);
+    }
+
+    // Resumes without materialized answers are cached as empty maps, so they cost one query, not one per request.
+    public Map<String, ResumeChatService.Result> get(String resumeId) {
+        if (!enabled) return Map.of();
+        return answers.computeIfAbsent(resumeId, this::load);
+    }
+
+    // First thing after a commit: the old answers cite chunks that may be gone, so until
+    // ResumeChatService re-materializes them (last listener) the resume's canonical questions go
+    // through retrieval. The empty map also keeps get() from reloading the old rows.
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onIngested(ResumeIngestedEvent event) {
+        if (!enabled) return;
+        for (int i = 0; i < event.resumeIds.size(); i++) answers.put(event.resumeIds.get(i), Map.of());
+    }
+
+    // Resumes with materialized answers, to render again when the intent rules change.
+    public List<String> resumeIds() {
+        if (!enabled) return new ArrayList<>();
+        return jdbcTemplate.queryForList("SELECT DISTINCT resume_id FROM resume_answers ORDER BY resume_id", String.class);
+    }
+
+    // Configured questions first, then one per experience / project header, in resume order.
+    public List<String> questions(String resumeId) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < questions.length; i++) {
+            if (!questions[i].isBlank()) out.add(questions[i].trim());
+        }
+
+        List<String> companies = new ArrayList<>();
+        List<String> projects = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT section, content FROM resume_chunks " +
+                        "WHERE resume_id = ? AND metadata->>'type' = 'header' ORDER BY id",
+                (RowCallbackHandler) rs -> {
+                    String content = rs.getString("content");
+                    if ("EXPERIENCE".equals(rs.getString("section"))) companies.add(cut(content, " - "));
+                    else if ("PROJECTS".equals(rs.getString("section"))) projects.add(cut(cut(content, " ("), " - "));
+                },
+                resumeId
+        );
+
+        // "Cognizant Technology Solutions" is usually asked about as "Cognizant"; first words that
+        // two companies share are left out
+        Map<String, Integer> firstWords = new HashMap<>();
+        for (int i = 0; i < companies.size(); i++) firstWords.merge(firstWord(companies.get(i)), 1, Integer::sum);
+
+        for (int i = 0; i < companies.size(); i++) {
+            String c = companies.get(i);
+            if (c.length() == 0) continue;
+            out.add("What did you do at " + c);
+            String w = firstWord(c);
+            if (w.length() >= 4 && !w.equals(c) && firstWords.get(w) == 1) out.add("What did you do at " + w);
+        }
+        for (int i = 0; i < projects.size(); i++) {
+            String p = projects.get(i);
+            if (p.length() == 0) continue;
+            out.add("Tell me about " + p);
+            out.add("Tell me about the " + p + " project");
+        }
+        return out;
+    }
+
+    // Replaces the resume's rows in one transaction and swaps its in-memory map.
+    public void replace(String resumeId, List<String> qs, List<ResumeChatService.Result> results) {
+        if (!enabled) return;
+
+        Map<String, ResumeChatService.Result> next = new LinkedHashMap<>();
+        List<Object[]> args = new ArrayList<>(qs.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < qs.size(); i++) {
+            String k = NormalizedQuery.key(qs.get(i));
+            if (!seen.add(k)) continue;
+            ResumeChatService.Result r = results.get(i);
+            next.put(k, r);
+            args.add(new Object[]{resumeId, k, qs.get(i), r.canAnswer, r.answer, citationsJson(r.citations)});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM resume_answers WHERE resume_id = ?", resumeId);
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO resume_answers (resume_id, question_key, question, can_answer, answer, citations) " +
+                            "VALUES (?, ?, ?, ?, ?, ?::jsonb)",
+                    args
+            );
+        });
+        answers.put(resumeId, next);
+    }
+
+    // Deletes the resume's rows after a failed materialization, so no node serves answers rendered
+    // against the previous ingest; its canonical questions go through retrieval until the next one.
+    public void clear(String resumeId) {
+        if (!enabled) return;
+        answers.put(resumeId, Map.of());
+        jdbcTemplate.update("DELETE FROM resume_answers WHERE resume_id = ?", resumeId);
+    }
+
+    private Map<String, ResumeChatService.Result> load(String resumeId) {
+        Map<String, ResumeChatService.Result> out = new HashMap<>();
+        readJdbcTemplate.query(
+                "SELECT question_key, can_answer, answer, citations::text AS citations FROM resume_answers WHERE resume_id = ?",
+                (RowCallbackHandler) rs -> out.put(rs.getString("question_key"), new ResumeChatService.Result(
+                        rs.getBoolean("can_answer"),
+                        rs.getString("answer"),
+                        citations(rs.getString("citations")),
+                        new ArrayList<>(),
+                        null
+                )),
+                resumeId
+        );
+        return out;
+    }
+
+    private String citationsJson(List<Citation> citations) {
+        try {
+            return objectMapper.writeValueAsString(citations);
+        } catch (Exception e) {
+            throw new IllegalStateException("cannot serialize citations", e);
+        }
+    }
+
+    private List<Citation> citations(String json) {
+        try {
+            JsonNode arr = objectMapper.readTree(json);
+            List<Citation> out = new ArrayList<>(arr.size());
+            for (int i = 0; i < arr.size(); i++) {
+                JsonNode c = arr.get(i);
+                out.add(new Citation(c.path("chunkId").asLong(), c.path("section").asText(""), c.path("snippet").asText("")));
+            }
+            return out;
+        } catch (Exception e) {
+            throw new IllegalStateException("resume_answers.citations is not valid JSON", e);
+        }
+    }
+
+    private static String cut(String s, String sep) {
+        int idx = s.indexOf(sep);
+        return (idx < 0 ? s : s.substring(0, idx)).trim();
+    }
+
+    private static String firstWord(String s) {
+        int idx = s.indexOf(' ');
+        String w = idx < 0 ? s : s.substring(0, idx);
+        return w.endsWith(",") ? w.substring(0, w.length() - 1) : w;
+    }
+}
@@ -0,0 +1,56 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.retrieval.RetrievalTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Publishes a finished RetrievalTrace to Micrometer:
+//   chat.answer                 timer, tag path = fact | canonical | cache | coalesced | retrieval | batch
+//   chat.stage                  timer, tag stage = fact_match | profile | canonical | cache | coalesced | fts | trgm | hybrid | batch_search | vector | expand | format
+//   chat.retrieval.decision     counter, tag decision = fts_accepted | trgm_accepted | fts_weak_accepted | rrf_fused | empty
+// Histogram buckets / percentiles come from management.metrics.distribution.* in application.yml.
+@Component
+public class ChatMetrics {
+
+    private final MeterRegistry registry;
+
+    // tag values are a small fixed set, so meters are looked up once and reused
+    private final Map<String, Timer> answerTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> decisionCounters = new ConcurrentHashMap<>();
+
+    public ChatMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void record(String path, long totalNanos, RetrievalTrace trace) {
+        answerTimers.computeIfAbsent(path, p -> Timer.builder("chat.answer")
+                .description("End-to-end answer latency")
+                .tag("path", p)
+                .register(registry)).record(totalNanos, TimeUnit.NANOSECONDS);
+
+        List<RetrievalTrace.Stage> stages = trace.stages;
+        for (int i = 0; i < stages.size(); i++) {
+            RetrievalTrace.Stage s = stages.get(i);
+            stageTimers.computeIfAbsent(s.name, n -> Timer.builder("chat.stage")
+                    .description("Latency of one stage of the answer path")
+                    .tag("stage", n)
+                    .register(registry)).record(s.nanos, TimeUnit.NANOSECONDS);
+        }
+
+        List<String> decisions = trace.decisions;
+        for (int i = 0; i < decisions.size(); i++) {
+            decisionCounters.computeIfAbsent(decisions.get(i), d -> Counter.builder("chat.retrieval.decision")
+                    .description("Which fts/trgm fallback branch produced the rows")
+                    .tag("decision", d)
+                    .register(registry)).increment();
+        }
+    }
+}
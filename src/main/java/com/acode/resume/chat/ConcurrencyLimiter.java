@@ -0,0 +1,97 @@
+package com.acode.resume.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// AIMD limit on concurrent DB-bound work (retrieval queries, profile loads).
+// Callers that cannot get a permit are rejected immediately instead of queueing on the
+// connection pool. Every completed call adjusts the limit:
+//   slower than latency-threshold-ms, or failed  ->  limit *= backoff   (not below min-limit)
+//   fast, while at least half the limit is in use ->  limit += 1         (not above max-limit)
+//
+// Metrics: chat.limiter.limit, chat.limiter.inflight (gauges), chat.limiter.rejected (counter).
+@Component
+public class ConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long thresholdNanos;
+    private final double backoff;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    private final Counter rejected;
+
+    public ConcurrencyLimiter(MeterRegistry registry,
+                              @Value("${app.limiter.enabled:true}") boolean enabled,
+                              @Value("${app.limiter.initial-limit:10}") int initialLimit,
+                              @Value("${app.limiter.min-limit:2}") int minLimit,
+                              @Value("${app.limiter.max-limit:100}") int maxLimit,
+                              @Value("${app.limiter.latency-threshold-ms:250}") long latencyThresholdMs,
+                              @Value("${app.limiter.backoff:0.9}") double backoff) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("app.limiter needs 1 <= min-limit <= max-limit");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoff = backoff;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        Gauge.builder("chat.limiter.limit", this, l -> l.limit)
+                .description("Current adaptive concurrency limit for DB-bound chat work")
+                .register(registry);
+        Gauge.builder("chat.limiter.inflight", inflight, AtomicInteger::get)
+                .description("DB-bound chat calls currently holding a permit")
+                .register(registry);
+        this.rejected = Counter.builder("chat.limiter.rejected")
+                .description("Chat requests rejected because the limit was reached")
+                .register(registry);
+    }
+
+    public boolean tryAcquire() {
+        if (!enabled) return true;
+        while (true) {
+            int cur = inflight.get();
+            if (cur >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inflight.compareAndSet(cur, cur + 1)) return true;
+        }
+    }
+
+    // Must be called exactly once per successful tryAcquire.
+    public void release(long elapsedNanos, boolean ok) {
+        if (!enabled) return;
+        int before = inflight.getAndDecrement();
+        adjust(elapsedNanos, ok, before);
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    private synchronized void adjust(long elapsedNanos, boolean ok, int inflightAtRelease) {
+        double l = limit;
+        if (!ok || elapsedNanos > thresholdNanos) {
+            l = Math.max(minLimit, l * backoff);
+        } else if (inflightAtRelease * 2 >= (int) l) {
+            l = Math.min(maxLimit, l + 1);
+        }
+        limit = l;
+    }
+}
@@ -0,0 +1,15 @@
+package com.acode.resume.chat;
+
+public class FactMatch {
+    public final boolean matched;
+    public final String fieldPath;
+    public final String label;
+
+    public FactMatch(boolean matched, String fieldPath, String label) {
+        this.matched = matched;
+        this.fieldPath = fieldPath;
+        this.label = label;
+    }
+
+    public static final FactMatch NONE = new FactMatch(false, "", "");
+}
@@ -0,0 +1,85 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.retrieval.NormalizedQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+
+// Loads the intent rule table from app.intents.location and keeps the compiled IntentRules.
+// When the location is a plain file, it is re-checked every app.intents.reload-check-ms and
+// recompiled on change; a broken edit is logged and the previous rules stay live.
+@Component
+public class IntentMatcher {
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String location;
+
+    private volatile IntentRules rules;
+    private volatile long lastModified;
+
+    public IntentMatcher(ResourceLoader resourceLoader, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                         @Value("${app.intents.location:classpath:chat/intent-rules.json}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.location = location;
+        this.lastModified = modifiedAt(resourceLoader.getResource(location));
+        this.rules = load();
+    }
+
+    public IntentRules current() {
+        return rules;
+    }
+
+    public IntentRules.Match match(NormalizedQuery q) {
+        return rules.match(q.folded);
+    }
+
+    @Scheduled(initialDelayString = "${app.intents.reload-check-ms:5000}", fixedDelayString = "${app.intents.reload-check-ms:5000}")
+    public void checkForChanges() {
+        Resource r = resourceLoader.getResource(location);
+        if (!r.isFile()) return;
+
+        long modified = modifiedAt(r);
+        if (modified == lastModified) return;
+        lastModified = modified;
+
+        try {
+            reload();
+        } catch (Exception e) {
+            System.out.println("[INTENTS] reload of " + location + " failed, keeping previous rules: " + e.getMessage());
+        }
+    }
+
+    public synchronized void reload() {
+        IntentRules next = load();
+        rules = next;
+        System.out.println("[INTENTS] reloaded " + location + ", facts=" + next.facts().size());
+        eventPublisher.publishEvent(new IntentRulesReloadedEvent(next));
+    }
+
+    private static long modifiedAt(Resource r) {
+        try {
+            return r.isFile() ? r.lastModified() : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private IntentRules load() {
+        Resource r = resourceLoader.getResource(location);
+        try (InputStream in = r.getInputStream()) {
+            return IntentRules.compile(objectMapper.readTree(in));
+        } catch (Exception e) {
+            throw new IllegalStateException("cannot load intent rules from " + location, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.retrieval.NormalizedQuery;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compiled intent table: fact rules and query-expansion rules, in priority order (file order),
+// all sharing one Aho–Corasick automaton over their keywords.
+//
+// A rule matches when at least one of its "keywords" occurs in the query (or it has none)
+// and every one of its "all" keywords occurs too. Keywords are folded like NormalizedQuery.folded,
+// which is what match() scans.
+public final class IntentRules {
+
+    // Both decisions from one scan of the query.
+    public static final class Match {
+        public final FactMatch fact;
+        public final String expansion;
+
+        Match(FactMatch fact, String expansion) {
+            this.fact = fact;
+            this.expansion = expansion;
+        }
+    }
+
+    private static final class Rule {
+        final int[] any;
+        final int[] all;
+
+        Rule(int[] any, int[] all) {
+            this.any = any;
+            this.all = all;
+        }
+
+        boolean matches(boolean[] found) {
+            for (int i = 0; i < all.length; i++) {
+                if (!found[all[i]]) return false;
+            }
+            if (any.length == 0) return all.length > 0;
+            for (int i = 0; i < any.length; i++) {
+                if (found[any[i]]) return true;
+            }
+            return false;
+        }
+    }
+
+    private final List<Rule> factRules = new ArrayList<>();
+    private final List<FactMatch> facts = new ArrayList<>();
+    private final List<Rule> expansionRules = new ArrayList<>();
+    private final List<String> expansions = new ArrayList<>();
+
+    private final List<String> keywords = new ArrayList<>();
+    private final Map<String, Integer> keywordIds = new HashMap<>();
+    private final AhoCorasick automaton;
+
+    private IntentRules(JsonNode root) {
+        JsonNode fs = root.path("facts");
+        for (int i = 0; i < fs.size(); i++) {
+            JsonNode f = fs.get(i);
+            String path = f.path("fieldPath").asText("");
+            if (path.length() == 0) throw new IllegalArgumentException("facts[" + i + "] has no fieldPath");
+            factRules.add(rule(f, "facts[" + i + "]"));
+            facts.add(new FactMatch(true, path, f.path("label").asText(path)));
+        }
+
+        JsonNode es = root.path("expansions");
+        for (int i = 0; i < es.size(); i++) {
+            JsonNode e = es.get(i);
+            String query = e.path("query").asText("");
+            if (query.length() == 0) throw new IllegalArgumentException("expansions[" + i + "] has no query");
+            expansionRules.add(rule(e, "expansions[" + i + "]"));
+            expansions.add(query);
+        }
+
+        this.automaton = new AhoCorasick(keywords);
+    }
+
+    public static IntentRules compile(JsonNode root) {
+        return new IntentRules(root);
+    }
+
+    // Every fact the rules can produce, for ProfileSnapshot pre-resolution.
+    public List<FactMatch> facts() {
+        return facts;
+    }
+
+    // folded: NormalizedQuery.folded
+    public Match match(CharSequence folded) {
+        boolean[] found = scan(folded);
+        return new Match(fact(found), expansion(found));
+    }
+
+    private FactMatch fact(boolean[] found) {
+        for (int i = 0; i < factRules.size(); i++) {
+            if (factRules.get(i).matches(found)) return facts.get(i);
+        }
+        return FactMatch.NONE;
+    }
+
+    private String expansion(boolean[] found) {
+        for (int i = 0; i < expansionRules.size(); i++) {
+            if (expansionRules.get(i).matches(found)) return expansions.get(i);
+        }
+        return "";
+    }
+
+    private boolean[] scan(CharSequence q) {
+        boolean[] found = new boolean[keywords.size()];
+        automaton.scan(q, found);
+        return found;
+    }
+
+    private Rule rule(JsonNode node, String where) {
+        int[] any = ids(node.path("keywords"));
+        int[] all = ids(node.path("all"));
+        if (any.length == 0 && all.length == 0) throw new IllegalArgumentException(where + " has no keywords");
+        return new Rule(any, all);
+    }
+
+    private int[] ids(JsonNode arr) {
+        int[] out = new int[arr.size()];
+        for (int i = 0; i < arr.size(); i++) {
+            String k = NormalizedQuery.fold(arr.get(i).asText());
+            if (k.length() == 0) throw new IllegalArgumentException("empty keyword");
+            Integer id = keywordIds.get(k);
+            if (id == null) {
+                id = keywords.size();
+                keywords.add(k);
+                keywordIds.put(k, id);
+            }
+            out[i] = id;
+        }
+        return out;
+    }
+}
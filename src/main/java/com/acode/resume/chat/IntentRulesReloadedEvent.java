@@ -0,0 +1,10 @@
+package com.acode.resume.chat;
+
+// Published by IntentMatcher whenever a new rule table has been compiled and swapped in.
+public class IntentRulesReloadedEvent {
+    public final IntentRules rules;
+
+    public IntentRulesReloadedEvent(IntentRules rules) {
+        this.rules = rules;
+    }
+}
@@ -0,0 +1,10 @@
+package com.acode.resume.chat;
+
+// Thrown when ConcurrencyLimiter has no permit for a request that needs the database.
+// ChatController maps it to 429.
+public class OverloadedException extends RuntimeException {
+
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,122 @@
+package com.acode.resume.chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable view of the latest resume_profile row with every known fact already
+// resolved and rendered. Built once per profile version and shared by all requests.
+public final class ProfileSnapshot {
+
+    static final String NO_INFO = "I don’t have that information in my resume.";
+
+    public static final ProfileSnapshot EMPTY = new ProfileSnapshot("", null, List.of());
+
+    public final String version;
+    private final JsonNode root;
+    private final Map<String, ResumeChatService.Result> answers;
+
+    private ProfileSnapshot(String version, JsonNode root, List<FactMatch> facts) {
+        this.version = version;
+        this.root = root;
+
+        Map<String, ResumeChatService.Result> m = new HashMap<>();
+        for (int i = 0; i < facts.size(); i++) {
+            FactMatch fm = facts.get(i);
+            m.put(key(fm), render(root, fm));
+        }
+        this.answers = m;
+    }
+
+    public static ProfileSnapshot of(String version, JsonNode root, List<FactMatch> facts) {
+        return new ProfileSnapshot(version, root, facts);
+    }
+
+    public ResumeChatService.Result answer(FactMatch fm) {
+        ResumeChatService.Result r = answers.get(key(fm));
+        if (r != null) return r;
+        return render(root, fm);
+    }
+
+    private static String key(FactMatch fm) {
+        return fm.fieldPath + '|' + fm.label;
+    }
+
+    private static ResumeChatService.Result render(JsonNode root, FactMatch fm) {
+        if (root == null) {
+            return new ResumeChatService.Result(false, NO_INFO, List.of(), List.of(fm.label), null);
+        }
+
+        if (fm.fieldPath.equals("skills_all")) {
+            JsonNode skills = root.get("skills");
+            if (skills == null || skills.isNull()) {
+                return new ResumeChatService.Result(false, NO_INFO, List.of(), List.of(fm.label), null);
+            }
+
+            StringBuilder sb = new StringBuilder();
+
+            appendArray(sb, "Languages", skills.get("languages"));
+            appendArray(sb, "Frameworks/Libraries", skills.get("frameworks"));
+            appendArray(sb, "Data/Cloud/DevOps", skills.get("infra"));
+            appendArray(sb, "Concepts/Testing", skills.get("concepts"));
+
+            String ans = sb.toString().trim();
+            if (ans.length() == 0) ans = NO_INFO;
+            return new ResumeChatService.Result(true, ans, List.of(), List.of("skills"), null);
+        }
+
+        JsonNode value = getByPath(root, fm.fieldPath);
+        if (value == null || value.isMissingNode() || value.isNull()) {
+            return new ResumeChatService.Result(false, NO_INFO, List.of(), List.of(fm.label), null);
+        }
+
+        String answer;
+        if (value.isArray()) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < value.size(); i++) {
+                sb.append("- ").append(value.get(i).asText()).append("\n");
+            }
+            answer = sb.toString().trim();
+        } else {
+            answer = value.asText();
+        }
+
+        return new ResumeChatService.Result(true, answer, List.of(), List.of(fm.label), null);
+    }
+
+    private static void appendArray(StringBuilder sb, String title, JsonNode arr) {
+        if (arr == null || !arr.isArray() || arr.size() == 0) return;
+        sb.append(title).append(":\n");
+        for (int i = 0; i < arr.size(); i++) {
+            sb.append("- ").append(arr.get(i).asText()).append("\n");
+        }
+        sb.append("\n");
+    }
+
+    private static JsonNode getByPath(JsonNode root, String path) {
+        String[] parts = path.split("\\.");
+        JsonNode cur = root;
+
+        for (int i = 0; i < parts.length; i++) {
+            String p = parts[i];
+
+            int idxStart = p.indexOf('[');
+            if (idxStart >= 0) {
+                String name = p.substring(0, idxStart);
+                int idxEnd = p.indexOf(']');
+                int idx = Integer.parseInt(p.substring(idxStart + 1, idxEnd));
+
+                cur = cur.get(name);
+                if (cur == null || !cur.isArray() || idx < 0 || idx >= cur.size()) return null;
+                cur = cur.get(idx);
+            } else {
+                cur = cur.get(p);
+            }
+
+            if (cur == null) return null;
+        }
+        return cur;
+    }
+}
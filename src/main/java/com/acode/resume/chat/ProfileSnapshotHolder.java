@@ -0,0 +1,128 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import com.acode.resume.retrieval.CorpusSnapshot;
+import com.acode.resume.retrieval.CorpusSnapshotStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Holds one ProfileSnapshot per resume (bounded), loaded on first use. Snapshots are dropped after each
+// ingest commit, or when the periodic row-version check sees a different (id, xmin) for a
+// resume's latest resume_profile row; the next request loads the new version.
+// With app.retrieval.mode=snapshot profiles come from the mapped corpus snapshot and never change.
+@Component
+public class ProfileSnapshotHolder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final IntentMatcher intentMatcher;
+    private final CorpusSnapshot corpus;
+
+    private final Map<String, ProfileSnapshot> snapshots;
+
+    public ProfileSnapshotHolder(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, IntentMatcher intentMatcher,
+                                 CorpusSnapshotStore corpusSnapshots,
+                                 @Value("${app.profile.max-snapshots:10000}") long maxSnapshots) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.intentMatcher = intentMatcher;
+        this.corpus = corpusSnapshots.current();
+
+        Cache<String, ProfileSnapshot> cache = Caffeine.newBuilder().maximumSize(maxSnapshots).build();
+        this.snapshots = cache.asMap();
+    }
+
+    // Cached snapshot or null; never touches the database.
+    public ProfileSnapshot peek(String resumeId) {
+        return snapshots.get(resumeId);
+    }
+
+    // Unknown resumes are cached as ProfileSnapshot.EMPTY (version ""), so repeated questions for
+    // them skip the query too; the map is bounded, and the version check drops the entry once a
+    // profile row appears.
+    public ProfileSnapshot get(String resumeId) {
+        ProfileSnapshot s = snapshots.get(resumeId);
+        if (s != null) return s;
+        return snapshots.computeIfAbsent(resumeId, this::load);
+    }
+
+    @EventListener
+    public void onIngested(ResumeIngestedEvent event) {
+        snapshots.clear();
+    }
+
+    // new fact paths need pre-resolving
+    @EventListener
+    public void onIntentRulesReloaded(IntentRulesReloadedEvent event) {
+        snapshots.clear();
+    }
+
+    @Scheduled(initialDelayString = "${app.profile.version-check-ms:30000}", fixedDelayString = "${app.profile.version-check-ms:30000}")
+    public void checkVersion() {
+        if (snapshots.isEmpty() || corpus != null) return;
+
+        Object[] ids = snapshots.keySet().toArray();
+        Map<String, String> versions = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "SELECT DISTINCT ON (resume_id) resume_id, id::text || ':' || xmin::text AS version " +
+                                    "FROM resume_profile WHERE resume_id = ANY (?) ORDER BY resume_id, id DESC"
+                    );
+                    ps.setArray(1, con.createArrayOf("text", ids));
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> versions.put(rs.getString("resume_id"), rs.getString("version"))
+        );
+
+        for (Map.Entry<String, ProfileSnapshot> e : snapshots.entrySet()) {
+            String version = versions.getOrDefault(e.getKey(), "");
+            if (!version.equals(e.getValue().version)) {
+                System.out.println("[PROFILE] " + e.getKey() + " row version changed " + e.getValue().version + " -> " + version);
+                snapshots.remove(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private ProfileSnapshot load(String resumeId) {
+        if (corpus != null) {
+            String json = corpus.profile(resumeId);
+            return json == null ? ProfileSnapshot.EMPTY : parse(resumeId, "snapshot:" + Long.toHexString(corpus.checksum), json);
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id::text || ':' || xmin::text AS version, profile_json::text AS json " +
+                        "FROM resume_profile WHERE resume_id = ? ORDER BY id DESC LIMIT 1",
+                resumeId
+        );
+
+        if (rows.isEmpty()) return ProfileSnapshot.EMPTY;
+
+        String version = (String) rows.get(0).get("version");
+        String json = (String) rows.get(0).get("json");
+        return parse(resumeId, version, json);
+    }
+
+    private ProfileSnapshot parse(String resumeId, String version, String json) {
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            return ProfileSnapshot.of(version, root, intentMatcher.current().facts());
+        } catch (Exception e) {
+            throw new IllegalStateException("resume_profile " + resumeId + "@" + version + " is not valid JSON", e);
+        }
+    }
+}
@@ -1,26 +1,60 @@
 package com.acode.resume.chat;
 
 import com.acode.resume.api.Citation;
+import com.acode.resume.api.DebugTrace;
 import com.acode.resume.api.RetrievalHit;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.jdbc.core.JdbcTemplate;
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import com.acode.resume.retrieval.ChunkRow;
+import com.acode.resume.retrieval.NormalizedQuery;
+import com.acode.resume.retrieval.QueryNormalizer;
+import com.acode.resume.retrieval.RetrievalEngine;
+import com.acode.resume.retrieval.RetrievalTrace;
+import com.acode.resume.retrieval.SemanticIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 public class ResumeChatService {
 
-    private final JdbcTemplate jdbcTemplate;
-    private final ObjectMapper objectMapper;
-
-    public ResumeChatService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
-        this.jdbcTemplate = jdbcTemplate;
-        this.objectMapper = objectMapper;
+    private final RetrievalEngine retrievalEngine;
+    private final SemanticIndex semanticIndex;
+    private final ProfileSnapshotHolder profileSnapshots;
+    private final AnswerCache answerCache;
+    private final AnswerCoalescer coalescer;
+    private final CanonicalAnswers canonicalAnswers;
+    private final IntentMatcher intentMatcher;
+    private final QueryNormalizer queryNormalizer;
+    private final ChatMetrics metrics;
+    private final ConcurrencyLimiter limiter;
+    private final String defaultResumeId;
+
+    public ResumeChatService(RetrievalEngine retrievalEngine, SemanticIndex semanticIndex,
+                             ProfileSnapshotHolder profileSnapshots, AnswerCache answerCache, AnswerCoalescer coalescer,
+                             CanonicalAnswers canonicalAnswers, IntentMatcher intentMatcher, QueryNormalizer queryNormalizer,
+                             ChatMetrics metrics, ConcurrencyLimiter limiter,
+                             @Value("${app.default-resume-id:default}") String defaultResumeId) {
+        this.retrievalEngine = retrievalEngine;
+        this.semanticIndex = semanticIndex;
+        this.profileSnapshots = profileSnapshots;
+        this.answerCache = answerCache;
+        this.coalescer = coalescer;
+        this.canonicalAnswers = canonicalAnswers;
+        this.intentMatcher = intentMatcher;
+        this.queryNormalizer = queryNormalizer;
+        this.metrics = metrics;
+        this.limiter = limiter;
+        this.defaultResumeId = defaultResumeId;
     }
 
     public static class Result {
@@ -29,13 +63,20 @@ public class ResumeChatService {
         public final List<Citation> citations;
         public final List<String> usedFields;
         public final List<RetrievalHit> debugHits;
+        public final DebugTrace debugTrace;
 
         public Result(boolean canAnswer, String answer, List<Citation> citations, List<String> usedFields, List<RetrievalHit> debugHits) {
+            this(canAnswer, answer, citations, usedFields, debugHits, null);
+        }
+
+        public Result(boolean canAnswer, String answer, List<Citation> citations, List<String> usedFields, List<RetrievalHit> debugHits,
+                      DebugTrace debugTrace) {
             this.canAnswer = canAnswer;
             this.answer = answer;
             this.citations = citations;
             this.usedFields = usedFields;
             this.debugHits = debugHits;
+            this.debugTrace = debugTrace;
         }
     }
 
@@ -44,334 +85,581 @@ public class ResumeChatService {
     }
 
     public Result answer(String message, boolean debug) throws Exception {
-        String q = message == null ? "" : message.trim();
-        if (q.length() == 0) {
+        return answer(defaultResumeId, message, debug);
+    }
+
+    public Result answer(String resumeId, String message, boolean debug) throws Exception {
+        String rid = resumeId == null || resumeId.isBlank() ? defaultResumeId : resumeId.trim();
+        NormalizedQuery q = queryNormalizer.normalize(message);
+        if (q.isEmpty()) {
             return new Result(false, "Ask a question about the resume.", new ArrayList<>(), new ArrayList<>(), debug ? new ArrayList<>() : null);
         }
 
-        FactMatch fm = matchFact(q);
+        long start = System.nanoTime();
+        RetrievalTrace trace = new RetrievalTrace();
+
+        long t0 = System.nanoTime();
+        IntentRules.Match intent = intentMatcher.match(q);
+        FactMatch fm = intent.fact;
+        trace.stage("fact_match", t0, fm.matched ? 1 : 0);
+
         if (fm.matched) {
-            Result r = answerFromProfileJson(fm);
-            if (!debug) return r;
-            return new Result(r.canAnswer, r.answer, r.citations, r.usedFields, new ArrayList<>());
+            t0 = System.nanoTime();
+            ProfileSnapshot snapshot = profileSnapshots.peek(rid);
+            if (snapshot == null) snapshot = limited(() -> profileSnapshots.get(rid));
+            Result r = snapshot.answer(fm);
+            trace.stage("profile", t0, r.canAnswer ? 1 : 0);
+            return finish("fact", start, trace, r, debug);
         }
 
-        List<Row> rows = searchChunks(q, 10);
+        // debug requests want hits and a trace, which materialized answers do not carry
+        if (!debug) {
+            t0 = System.nanoTime();
+            Result canonical = canonical(rid, q);
+            if (canonical != null) {
+                trace.stage("canonical", t0, canonical.citations.size());
+                return finish("canonical", start, trace, canonical, false);
+            }
+        }
 
-        if (rows.size() == 0) {
-            String q2 = expandQuery(q);
-            if (q2.length() > 0) rows = searchChunks(q2, 10);
+        // cached answers are served without a permit, so they keep flowing while the limiter rejects
+        t0 = System.nanoTime();
+        Result cached = answerCache.peek(rid, q, debug);
+        if (cached != null) {
+            trace.stage("cache", t0, cached.citations.size());
+            return finish("cache", start, trace, cached, debug);
         }
 
-        if (rows.size() == 0) {
-            return new Result(false, "I don’t have that information in my resume.", new ArrayList<>(), new ArrayList<>(), debug ? new ArrayList<>() : null);
+        // identical requests already in flight share that computation (and its single permit)
+        int before = trace.stages.size();
+        boolean[] executed = new boolean[1];
+        Result r = coalescer.get(rid, q, debug, () -> {
+            executed[0] = true;
+            return limited(() -> answerCache.get(rid, q, debug, () -> answerFromChunks(rid, q, intent.expansion, debug, trace)));
+        });
+        if (!executed[0]) {
+            trace.stage("coalesced", t0, r.citations.size());
+            return finish("coalesced", start, trace, r, debug);
         }
 
-        List<RetrievalHit> dbg = null;
-        if (debug) {
-            dbg = new ArrayList<>();
-            for (int i = 0; i < rows.size(); i++) {
-                Row r = rows.get(i);
-                dbg.add(new RetrievalHit(r.id, r.section, r.method, r.score, r.type, clip(r.content, 160)));
-            }
+        // the loader always records at least one search stage; nothing new means another
+        // request loaded the same key while this one waited
+        if (trace.stages.size() == before) {
+            trace.stage("cache", t0, r.citations.size());
+            return finish("cache", start, trace, r, debug);
         }
+        return finish("retrieval", start, trace, r, debug);
+    }
 
-        List<Row> answerRows = new ArrayList<>();
-        for (int i = 0; i < rows.size(); i++) {
-            Row r = rows.get(i);
-            if (!"header".equals(r.type)) {
-                answerRows.add(r);
+    // Materialized answer for a canonical question, or null. Loading a resume's answers is
+    // database work, so the first request for a resume takes a permit; without one it returns
+    // null and the caller tries the answer cache, which needs no permit, before getting a 429.
+    private Result canonical(String rid, NormalizedQuery q) {
+        Map<String, Result> answers = canonicalAnswers.peek(rid);
+        if (answers == null) {
+            try {
+                answers = limited(() -> canonicalAnswers.get(rid));
+            } catch (OverloadedException e) {
+                return null;
             }
         }
-        if (answerRows.size() == 0) answerRows = rows;
-
-        AnswerPack pack = formatGroupedAnswer(answerRows);
-        return new Result(true, pack.answer, pack.citations, new ArrayList<>(), dbg);
+        return answers.isEmpty() ? null : answers.get(q.key);
     }
 
-    private String expandQuery(String q) {
-        String s = q.toLowerCase();
-
-        if (s.contains("csu") && s.contains("chico")) return "California State University Chico Web Developer";
-        if (s.contains("chico state")) return "California State University Chico";
-        if (s.contains("csuchico")) return "California State University Chico";
-
-        return "";
+    // Answers the new corpus's canonical questions once, after the retrieval indexes have been
+    // rebuilt (their listeners run first).
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onIngested(ResumeIngestedEvent event) {
+        for (int i = 0; i < event.resumeIds.size(); i++) rematerializeCanonical(event.resumeIds.get(i));
     }
 
-    private static class AnswerPack {
-        public final String answer;
-        public final List<Citation> citations;
+    // Materialized answers leave out the questions the old rules answered from the profile and
+    // were retrieved with the old expansions, so every resume that has them is rendered again.
+    @EventListener
+    public void onIntentRulesReloaded(IntentRulesReloadedEvent event) {
+        if (!canonicalAnswers.enabled()) return;
+        long t0 = System.nanoTime();
+        List<String> ids = canonicalAnswers.resumeIds();
+        for (int i = 0; i < ids.size(); i++) rematerializeCanonical(ids.get(i));
+        System.out.println("[CANONICAL] re-rendered " + ids.size() + " resumes for the new intent rules in " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+    }
 
-        public AnswerPack(String answer, List<Citation> citations) {
-            this.answer = answer;
-            this.citations = citations;
+    private void rematerializeCanonical(String rid) {
+        try {
+            materializeCanonical(rid);
+        } catch (Exception e) {
+            // drop the stale answers so chat falls back to retrieval for these questions
+            System.out.println("[CANONICAL] materializing answers for " + rid + " failed: " + e.getMessage());
+            try {
+                canonicalAnswers.clear(rid);
+            } catch (Exception ce) {
+                System.out.println("[CANONICAL] clearing answers for " + rid + " failed: " + ce.getMessage());
+            }
         }
     }
 
-    private AnswerPack formatGroupedAnswer(List<Row> rows) {
-        Map<String, List<Row>> groups = new LinkedHashMap<>();
-
-        for (int i = 0; i < rows.size(); i++) {
-            Row r = rows.get(i);
+    // Runs the resume's canonical questions through the batch retrieval path (same rows and
+    // formatting as answer()) and stores the results. Questions the intent rules answer from the
+    // profile are left out. Returns the number of questions materialized.
+    public int materializeCanonical(String resumeId) {
+        if (!canonicalAnswers.enabled()) return 0;
+
+        long t0 = System.nanoTime();
+        List<String> all = canonicalAnswers.questions(resumeId);
+        List<String> qs = new ArrayList<>();
+        List<NormalizedQuery> nqs = new ArrayList<>();
+        List<String> expansions = new ArrayList<>();
+        for (int i = 0; i < all.size(); i++) {
+            NormalizedQuery nq = NormalizedQuery.of(all.get(i));
+            IntentRules.Match intent = intentMatcher.match(nq);
+            if (intent.fact.matched) continue;
+            qs.add(all.get(i));
+            nqs.add(nq);
+            expansions.add(intent.expansion);
+        }
 
-            String prefix = extractPrefix(r.content);
-            String key;
-            if (prefix.length() > 0) key = prefix;
-            else key = r.section;
+        List<Result> results = qs.size() == 0 ? new ArrayList<>() : answerFromChunks(resumeId, nqs, expansions, false, new RetrievalTrace());
+        canonicalAnswers.replace(resumeId, qs, results);
+        System.out.println("[CANONICAL] " + resumeId + ": " + qs.size() + " answers in " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+        return qs.size();
+    }
 
-            if (!groups.containsKey(key)) groups.put(key, new ArrayList<>());
-            groups.get(key).add(r);
+    // Runs DB-bound work under a ConcurrencyLimiter permit, failing fast when none is free.
+    private <T> T limited(Supplier<T> work) {
+        if (!limiter.tryAcquire()) {
+            throw new OverloadedException("too many concurrent requests (limit " + limiter.limit() + ")");
+        }
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            T v = work.get();
+            ok = true;
+            return v;
+        } finally {
+            limiter.release(System.nanoTime() - t0, ok);
         }
+    }
 
-        StringBuilder sb = new StringBuilder();
-        List<Citation> cites = new ArrayList<>();
+    // Records the trace in Micrometer and, for debug requests, attaches it to a copy of the result
+    // (cached results are shared and never carry a trace).
+    private Result finish(String path, long start, RetrievalTrace trace, Result r, boolean debug) {
+        long total = System.nanoTime() - start;
+        metrics.record(path, total, trace);
+        if (!debug) return r;
 
-        for (Map.Entry<String, List<Row>> e : groups.entrySet()) {
-            String groupTitle = e.getKey();
-            List<Row> groupRows = e.getValue();
+        DebugTrace dt = debugTrace(path, total, trace);
+        List<RetrievalHit> hits = r.debugHits == null ? new ArrayList<>() : r.debugHits;
+        return new Result(r.canAnswer, r.answer, r.citations, r.usedFields, hits, dt);
+    }
 
-            if (!groupTitle.equals("EXPERIENCE") && !groupTitle.equals("PROJECTS") && !groupTitle.equals("SKILLS") && !groupTitle.equals("EDUCATION")) {
-                sb.append(groupTitle).append(":\n");
+    // Answers many questions against one resume. Identical questions are answered once, the
+    // profile snapshot is loaded at most once, and every non-fact question that misses the answer
+    // cache is retrieved through one RetrievalEngine.searchAll call (plus one more for the
+    // expandQuery retries), all under a single limiter permit. Results are in input order.
+    public List<Result> answerAll(String resumeId, List<String> messages, boolean debug) {
+        String rid = resumeId == null || resumeId.isBlank() ? defaultResumeId : resumeId.trim();
+        long start = System.nanoTime();
+        RetrievalTrace trace = new RetrievalTrace();
+
+        Set<String> seen = new HashSet<>();
+        Map<String, Result> answers = new HashMap<>();
+        List<NormalizedQuery> misses = new ArrayList<>();
+        List<String> expansions = new ArrayList<>();
+        ProfileSnapshot snapshot = null;
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < messages.size(); i++) {
+            NormalizedQuery q = queryNormalizer.normalize(messages.get(i));
+            if (!seen.add(q.text)) continue;
+
+            if (q.isEmpty()) {
+                answers.put(q.text, new Result(false, "Ask a question about the resume.", new ArrayList<>(), new ArrayList<>(), debug ? new ArrayList<>() : null));
+                continue;
             }
 
-            for (int i = 0; i < groupRows.size(); i++) {
-                Row r = groupRows.get(i);
-
-                String bulletText = extractAfterDash(r.content);
-                if (bulletText.length() == 0) bulletText = r.content;
+            IntentRules.Match intent = intentMatcher.match(q);
+            if (intent.fact.matched) {
+                if (snapshot == null) {
+                    snapshot = profileSnapshots.peek(rid);
+                    if (snapshot == null) snapshot = limited(() -> profileSnapshots.get(rid));
+                }
+                answers.put(q.text, snapshot.answer(intent.fact));
+                continue;
+            }
 
-                String snip = clip(bulletText, 260);
-                sb.append("- ").append(snip).append("\n");
+            if (!debug) {
+                Result canonical = canonical(rid, q);
+                if (canonical != null) {
+                    answers.put(q.text, canonical);
+                    continue;
+                }
+            }
 
-                cites.add(new Citation(r.id, r.section, snip));
+            Result cached = answerCache.peek(rid, q, debug);
+            if (cached != null) {
+                answers.put(q.text, cached);
+            } else {
+                misses.add(q);
+                expansions.add(intent.expansion);
             }
+        }
+        trace.stage("fact_match", t0, answers.size());
 
-            sb.append("\n");
+        if (misses.size() > 0) {
+            List<Result> fresh = limited(() -> answerFromChunks(rid, misses, expansions, debug, trace));
+            for (int i = 0; i < misses.size(); i++) {
+                answerCache.put(rid, misses.get(i), debug, fresh.get(i));
+                answers.put(misses.get(i).text, fresh.get(i));
+            }
         }
 
-        return new AnswerPack(sb.toString().trim(), cites);
+        List<Result> out = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            String q = messages.get(i) == null ? "" : messages.get(i).trim();
+            out.add(answers.get(q));
+        }
+        return finishAll(start, trace, out, debug);
     }
 
-    private String extractPrefix(String content) {
-        if (content == null) return "";
-        int idx = content.indexOf(" - ");
-        if (idx <= 0) return "";
-        return content.substring(0, idx).trim();
+    // Like finish, for a batch: one chat.answer sample with path=batch, and the shared trace on every result.
+    private List<Result> finishAll(long start, RetrievalTrace trace, List<Result> results, boolean debug) {
+        long total = System.nanoTime() - start;
+        metrics.record("batch", total, trace);
+        if (!debug) return results;
+
+        DebugTrace dt = debugTrace("batch", total, trace);
+
+        List<Result> out = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            List<RetrievalHit> hits = r.debugHits == null ? new ArrayList<>() : r.debugHits;
+            out.add(new Result(r.canAnswer, r.answer, r.citations, r.usedFields, hits, dt));
+        }
+        return out;
     }
 
-    private String extractAfterDash(String content) {
-        if (content == null) return "";
-        int idx = content.indexOf(" - ");
-        if (idx < 0) return "";
-        return content.substring(idx + 3).trim();
+    private static DebugTrace debugTrace(String path, long totalNanos, RetrievalTrace trace) {
+        List<DebugTrace.Stage> stages = new ArrayList<>(trace.stages.size());
+        for (int i = 0; i < trace.stages.size(); i++) {
+            RetrievalTrace.Stage s = trace.stages.get(i);
+            stages.add(new DebugTrace.Stage(s.name, s.nanos / 1e6, s.rows));
+        }
+        return new DebugTrace(path, totalNanos / 1e6, stages, new ArrayList<>(trace.decisions));
     }
 
-    // ---------------- Fact handling ----------------
+    // Streaming variant of answer: the intent decision goes out before any database work, and a
+    // retrieval answer is emitted group by group and bullet by bullet as it is formatted, without
+    // building the answer string. Only the search runs under a limiter permit, so a slow client
+    // never holds one. Streamed retrieval answers are not put in the answer cache.
+    public void stream(String resumeId, String message, boolean debug, AnswerStream out) {
+        String rid = resumeId == null || resumeId.isBlank() ? defaultResumeId : resumeId.trim();
+        NormalizedQuery q = queryNormalizer.normalize(message);
+        if (q.isEmpty()) {
+            out.intent("none", "");
+            out.answer(new Result(false, "Ask a question about the resume.", new ArrayList<>(), new ArrayList<>(), null));
+            out.done(false);
+            return;
+        }
 
-    private static class FactMatch {
-        public boolean matched;
-        public String fieldPath;
-        public String label;
+        long start = System.nanoTime();
+        RetrievalTrace trace = new RetrievalTrace();
 
-        public FactMatch(boolean matched, String fieldPath, String label) {
-            this.matched = matched;
-            this.fieldPath = fieldPath;
-            this.label = label;
+        long t0 = System.nanoTime();
+        IntentRules.Match intent = intentMatcher.match(q);
+        FactMatch fm = intent.fact;
+        trace.stage("fact_match", t0, fm.matched ? 1 : 0);
+
+        if (fm.matched) {
+            out.intent("fact", fm.label);
+            t0 = System.nanoTime();
+            ProfileSnapshot snapshot = profileSnapshots.peek(rid);
+            if (snapshot == null) snapshot = limited(() -> profileSnapshots.get(rid));
+            Result r = snapshot.answer(fm);
+            trace.stage("profile", t0, r.canAnswer ? 1 : 0);
+            out.answer(r);
+            streamTail("fact", start, trace, null, debug, r.canAnswer, out);
+            return;
+        }
+
+        if (!debug) {
+            t0 = System.nanoTime();
+            Result canonical = canonical(rid, q);
+            if (canonical != null) {
+                out.intent("canonical", "");
+                trace.stage("canonical", t0, canonical.citations.size());
+                out.answer(canonical);
+                streamTail("canonical", start, trace, null, false, canonical.canAnswer, out);
+                return;
+            }
         }
+
+        t0 = System.nanoTime();
+        Result cached = answerCache.peek(rid, q, debug);
+        if (cached != null) {
+            out.intent("cache", "");
+            trace.stage("cache", t0, cached.citations.size());
+            out.answer(cached);
+            streamTail("cache", start, trace, cached.debugHits, debug, cached.canAnswer, out);
+            return;
+        }
+
+        out.intent("retrieval", "");
+        List<ChunkRow> rows = limited(() -> searchWithExpansion(rid, q, intent.expansion, trace));
+        if (rows.size() == 0) {
+            out.answer(resultFromRows(rows, false, trace));
+            streamTail("retrieval", start, trace, null, debug, false, out);
+            return;
+        }
+
+        t0 = System.nanoTime();
+        int bullets = formatGrouped(answerRows(rows), out);
+        trace.stage("format", t0, bullets);
+        streamTail("retrieval", start, trace, debug ? debugHits(rows) : null, debug, true, out);
     }
 
-    private FactMatch matchFact(String q) {
-        String s = q.toLowerCase();
+    private void streamTail(String path, long start, RetrievalTrace trace, List<RetrievalHit> hits, boolean debug,
+                            boolean canAnswer, AnswerStream out) {
+        long total = System.nanoTime() - start;
+        metrics.record(path, total, trace);
+        if (debug) out.debug(hits == null ? new ArrayList<>() : hits, debugTrace(path, total, trace));
+        out.done(canAnswer);
+    }
 
-        if (containsAny(s, "who are you", "who is this resume", "your name", "name?")) return new FactMatch(true, "name", "name");
-        if (containsAny(s, "email", "email id", "mail id")) return new FactMatch(true, "email", "email");
-        if (containsAny(s, "phone number", "contact number", "your phone")) return new FactMatch(true, "phone", "phone");
-        if (containsAny(s, "where are you based", "based in", "your location", "location")) return new FactMatch(true, "location", "location");
+    // expansion: the intent rules' rewrite of q ("" for none), tried when q itself finds nothing
+    private Result answerFromChunks(String resumeId, NormalizedQuery q, String expansion, boolean debug, RetrievalTrace trace) {
+        return resultFromRows(searchWithExpansion(resumeId, q, expansion, trace), debug, trace);
+    }
 
-        if (containsAny(s, "gpa")) return new FactMatch(true, "education[0].gpa", "education.gpa");
-        if (containsAny(s, "graduation", "expected may", "may 2027")) return new FactMatch(true, "education[0].grad", "education.grad");
+    private List<ChunkRow> searchWithExpansion(String resumeId, NormalizedQuery q, String expansion, RetrievalTrace trace) {
+        List<ChunkRow> rows = retrievalEngine.search(resumeId, q, 10, trace);
+        rows = semanticIndex.fuse(resumeId, q, rows, 10, trace);
 
-        if (containsAny(s, "skills", "skill set", "skillset")) return new FactMatch(true, "skills_all", "skills");
+        if (rows.size() == 0 && expansion.length() > 0) {
+            long t0 = System.nanoTime();
+            rows = retrievalEngine.search(resumeId, queryNormalizer.normalize(expansion), 10, trace);
+            trace.stage("expand", t0, rows.size());
+        }
+        return rows;
+    }
 
-        if (containsAny(s, "languages")) return new FactMatch(true, "skills.languages", "skills.languages");
-        if (containsAny(s, "frameworks", "libraries")) return new FactMatch(true, "skills.frameworks", "skills.frameworks");
-        if (containsAny(s, "databases", "cloud", "devops", "infra")) return new FactMatch(true, "skills.infra", "skills.infra");
+    private List<Result> answerFromChunks(String resumeId, List<NormalizedQuery> qs, List<String> expansions, boolean debug,
+                                          RetrievalTrace trace) {
+        List<String> texts = new ArrayList<>(qs.size());
+        for (int i = 0; i < qs.size(); i++) texts.add(qs.get(i).text);
+
+        List<List<ChunkRow>> rows = retrievalEngine.searchAll(resumeId, texts, 10, trace);
+        for (int i = 0; i < qs.size(); i++) rows.set(i, semanticIndex.fuse(resumeId, qs.get(i), rows.get(i), 10, trace));
+
+        // expandQuery retries for the questions that found nothing, again as one call
+        List<Integer> retry = new ArrayList<>();
+        List<String> expanded = new ArrayList<>();
+        for (int i = 0; i < qs.size(); i++) {
+            if (rows.get(i).size() > 0) continue;
+            String q2 = expansions.get(i);
+            if (q2.length() == 0) continue;
+            retry.add(i);
+            expanded.add(q2);
+        }
+        if (expanded.size() > 0) {
+            long t0 = System.nanoTime();
+            List<List<ChunkRow>> again = retrievalEngine.searchAll(resumeId, expanded, 10, trace);
+            for (int i = 0; i < retry.size(); i++) rows.set(retry.get(i), again.get(i));
+            trace.stage("expand", t0, expanded.size());
+        }
 
-        if (containsAny(s, "certification", "certifications")) return new FactMatch(true, "certifications", "certifications");
+        List<Result> out = new ArrayList<>(qs.size());
+        for (int i = 0; i < qs.size(); i++) out.add(resultFromRows(rows.get(i), debug, trace));
+        return out;
+    }
 
-        return new FactMatch(false, "", "");
+    private Result resultFromRows(List<ChunkRow> rows, boolean debug, RetrievalTrace trace) {
+        if (rows.size() == 0) {
+            return new Result(false, "I don’t have that information in my resume.", new ArrayList<>(), new ArrayList<>(), debug ? new ArrayList<>() : null);
+        }
+
+        List<RetrievalHit> dbg = debug ? debugHits(rows) : null;
+
+        long t0 = System.nanoTime();
+        AnswerPack pack = formatGroupedAnswer(answerRows(rows));
+        trace.stage("format", t0, pack.citations.size());
+        return new Result(true, pack.answer, pack.citations, new ArrayList<>(), dbg);
     }
 
-    private Result answerFromProfileJson(FactMatch fm) throws Exception {
-        String json = jdbcTemplate.queryForObject(
-                "SELECT profile_json::text FROM resume_profile ORDER BY id DESC LIMIT 1",
-                String.class
-        );
-        JsonNode root = objectMapper.readTree(json);
+    private List<RetrievalHit> debugHits(List<ChunkRow> rows) {
+        List<RetrievalHit> dbg = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ChunkRow r = rows.get(i);
+            dbg.add(new RetrievalHit(r.id, r.section, r.method, r.score, r.type, clip(r.content, 160)));
+        }
+        return dbg;
+    }
 
-        if (fm.fieldPath.equals("skills_all")) {
-            JsonNode skills = root.get("skills");
-            if (skills == null || skills.isNull()) {
-                return new Result(false, "I don’t have that information in my resume.", new ArrayList<>(), List.of(fm.label), null);
+    // header rows give context in retrieval but are not answer lines, unless nothing else matched
+    private static List<ChunkRow> answerRows(List<ChunkRow> rows) {
+        List<ChunkRow> answerRows = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ChunkRow r = rows.get(i);
+            if (!"header".equals(r.type)) {
+                answerRows.add(r);
             }
+        }
+        if (answerRows.size() == 0) answerRows = rows;
+        return answerRows;
+    }
 
-            StringBuilder sb = new StringBuilder();
+    // AnswerPack, formatGroupedAnswer and clip are package-private for the JMH suites in src/bench
 
-            appendArray(sb, "Languages", skills.get("languages"));
-            appendArray(sb, "Frameworks/Libraries", skills.get("frameworks"));
-            appendArray(sb, "Data/Cloud/DevOps", skills.get("infra"));
-            appendArray(sb, "Concepts/Testing", skills.get("concepts"));
+    static class AnswerPack {
+        public final String answer;
+        public final List<Citation> citations;
 
-            String ans = sb.toString().trim();
-            if (ans.length() == 0) ans = "I don’t have that information in my resume.";
-            return new Result(true, ans, new ArrayList<>(), List.of("skills"), null);
+        public AnswerPack(String answer, List<Citation> citations) {
+            this.answer = answer;
+            this.citations = citations;
         }
+    }
+
+    AnswerPack formatGroupedAnswer(List<ChunkRow> rows) {
+        // sized for every row's full text plus its "- " and newline, so the builder never grows
+        int capacity = 0;
+        for (int i = 0; i < rows.size(); i++) capacity += rows.get(i).content.length() + 8;
+        PackBuilder pb = new PackBuilder(capacity, rows.size());
+        formatGrouped(rows, pb);
+        // every bullet line ends in '\n'; the answer does not
+        if (pb.sb.length() > 0) pb.sb.setLength(pb.sb.length() - 1);
+        return new AnswerPack(pb.sb.toString(), pb.cites);
+    }
 
-        JsonNode value = getByPath(root, fm.fieldPath);
-        if (value == null || value.isMissingNode() || value.isNull()) {
-            return new Result(false, "I don’t have that information in my resume.", new ArrayList<>(), List.of(fm.label), null);
+    private static final String[] PLAIN_SECTIONS = {"EXPERIENCE", "PROJECTS", "SKILLS", "EDUCATION"};
+
+    // Groups rows by their context prefix (or section) and hands each group and bullet to out
+    // in answer order, as ranges of the chunk text: the prefix and bullet offsets were computed at
+    // ingest (ChunkRow.prefixEnd / bodyStart), so nothing here copies a string. Returns the
+    // number of bullets.
+    int formatGrouped(List<ChunkRow> rows, AnswerStream out) {
+        int n = rows.size();
+
+        // group[i] = index of the first row with the same title as row i
+        int[] group = new int[n];
+        for (int i = 0; i < n; i++) {
+            group[i] = i;
+            for (int j = 0; j < i; j++) {
+                if (sameTitle(rows.get(j), rows.get(i))) {
+                    group[i] = group[j];
+                    break;
+                }
+            }
         }
 
-        String answer;
-        if (value.isArray()) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < value.size(); i++) {
-                sb.append("- ").append(value.get(i).asText()).append("\n");
+        int bullets = 0;
+        for (int g = 0; g < n; g++) {
+            if (group[g] != g) continue;
+
+            ChunkRow first = rows.get(g);
+            String source = titleSource(first);
+            int end = titleEnd(first);
+            out.group(source, end, !isPlainSection(source, end));
+
+            for (int i = g; i < n; i++) {
+                if (group[i] != g) continue;
+                ChunkRow r = rows.get(i);
+
+                // clip to 260 chars, dropping blanks before the cut
+                int start = r.bodyStart;
+                int stop = r.content.length();
+                while (stop > start && r.content.charAt(stop - 1) <= ' ') stop--;
+                boolean clipped = stop - start > 260;
+                if (clipped) {
+                    stop = start + 260;
+                    while (stop > start && r.content.charAt(stop - 1) <= ' ') stop--;
+                }
+                out.bullet(r, start, stop, clipped);
+                bullets++;
             }
-            answer = sb.toString().trim();
-        } else {
-            answer = value.asText();
         }
+        return bullets;
+    }
+
+    // a group's title is the chunk's context prefix, or its section when it has none
+    private static String titleSource(ChunkRow r) {
+        return r.prefixEnd > 0 ? r.content : r.section;
+    }
+
+    private static int titleEnd(ChunkRow r) {
+        return r.prefixEnd > 0 ? r.prefixEnd : r.section.length();
+    }
 
-        return new Result(true, answer, new ArrayList<>(), List.of(fm.label), null);
+    private static boolean sameTitle(ChunkRow a, ChunkRow b) {
+        int end = titleEnd(a);
+        return end == titleEnd(b) && titleSource(a).regionMatches(0, titleSource(b), 0, end);
     }
 
-    private void appendArray(StringBuilder sb, String title, JsonNode arr) {
-        if (arr == null || !arr.isArray() || arr.size() == 0) return;
-        sb.append(title).append(":\n");
-        for (int i = 0; i < arr.size(); i++) {
-            sb.append("- ").append(arr.get(i).asText()).append("\n");
+    private static boolean isPlainSection(String source, int end) {
+        for (int i = 0; i < PLAIN_SECTIONS.length; i++) {
+            String s = PLAIN_SECTIONS[i];
+            if (s.length() == end && source.regionMatches(0, s, 0, end)) return true;
         }
-        sb.append("\n");
+        return false;
     }
 
-    private JsonNode getByPath(JsonNode root, String path) {
-        String[] parts = path.split("\\.");
-        JsonNode cur = root;
+    // formatGrouped into the non-streaming answer text: "Title:" lines for headed groups,
+    // "- " bullets, a blank line between groups
+    private static final class PackBuilder implements AnswerStream {
+        final StringBuilder sb;
+        final List<Citation> cites;
 
-        for (int i = 0; i < parts.length; i++) {
-            String p = parts[i];
+        PackBuilder(int capacity, int bullets) {
+            this.sb = new StringBuilder(capacity);
+            this.cites = new ArrayList<>(bullets);
+        }
 
-            int idxStart = p.indexOf('[');
-            if (idxStart >= 0) {
-                String name = p.substring(0, idxStart);
-                int idxEnd = p.indexOf(']');
-                int idx = Integer.parseInt(p.substring(idxStart + 1, idxEnd));
+        @Override
+        public void intent(String path, String field) {
+        }
 
-                cur = cur.get(name);
-                if (cur == null || !cur.isArray() || idx < 0 || idx >= cur.size()) return null;
-                cur = cur.get(idx);
-            } else {
-                cur = cur.get(p);
-            }
+        @Override
+        public void group(String source, int end, boolean heading) {
+            if (sb.length() > 0) sb.append("\n");
+            if (heading) sb.append(source, 0, end).append(":\n");
+        }
 
-            if (cur == null) return null;
+        // the bullet text is copied once into the answer, and once more as the citation snippet
+        @Override
+        public void bullet(ChunkRow row, int start, int end, boolean clipped) {
+            sb.append("- ");
+            int at = sb.length();
+            sb.append(row.content, start, end);
+            if (clipped) sb.append("...");
+            cites.add(new Citation(row.id, row.section, sb.substring(at)));
+            sb.append("\n");
         }
-        return cur;
-    }
 
-    private boolean containsAny(String s, String... keys) {
-        for (int i = 0; i < keys.length; i++) {
-            if (s.contains(keys[i])) return true;
+        @Override
+        public void answer(Result result) {
+        }
+
+        @Override
+        public void debug(List<RetrievalHit> hits, DebugTrace trace) {
+        }
+
+        @Override
+        public void done(boolean canAnswer) {
         }
-        return false;
     }
 
-    // ---------------- Chunk search ----------------
-
-    private static class Row {
-        public final long id;
-        public final String section;
-        public final String content;
-        public final double score;
-        public final String method;
-        public final String type;
-
-        public Row(long id, String section, String content, double score, String method, String type) {
-            this.id = id;
-            this.section = section;
-            this.content = content;
-            this.score = score;
-            this.method = method;
-            this.type = type;
-        }
-    }
-
-    private List<Row> searchChunks(String q, int limit) {
-        String sql1 =
-                "SELECT id, section, content, " +
-                        "ts_rank(tsv, plainto_tsquery('english', ?)) AS score, " +
-                        "COALESCE(metadata->>'type','') AS type " +
-                        "FROM resume_chunks " +
-                        "WHERE tsv @@ plainto_tsquery('english', ?) " +
-                        "ORDER BY score DESC " +
-                        "LIMIT ?";
-
-        List<Row> a = jdbcTemplate.query(
-                sql1,
-                (rs, rowNum) -> new Row(
-                        rs.getLong("id"),
-                        rs.getString("section"),
-                        rs.getString("content"),
-                        rs.getDouble("score"),
-                        "fts",
-                        rs.getString("type")
-                ),
-                q, q, limit
-        );
-
-        if (a.size() > 0 && a.get(0).score >= 0.03) {
-            return a;
-        }
-
-        String sql2 =
-                "SELECT id, section, content, " +
-                        "similarity(content, ?) AS score, " +
-                        "COALESCE(metadata->>'type','') AS type " +
-                        "FROM resume_chunks " +
-                        "WHERE content % ? " +
-                        "ORDER BY score DESC " +
-                        "LIMIT ?";
-
-        List<Row> b = jdbcTemplate.query(
-                sql2,
-                (rs, rowNum) -> new Row(
-                        rs.getLong("id"),
-                        rs.getString("section"),
-                        rs.getString("content"),
-                        rs.getDouble("score"),
-                        "trgm",
-                        rs.getString("type")
-                ),
-                q, q, limit
-        );
-
-        List<Row> out = new ArrayList<>();
-        for (int i = 0; i < b.size(); i++) {
-            if (b.get(i).score >= 0.12) out.add(b.get(i));
-        }
-        if (out.size() > 0) return out;
-
-        if (a.size() > 0 && a.get(0).score >= 0.015) return a;
-
-        return new ArrayList<>();
-    }
-
-    private String clip(String s, int max) {
+    // s trimmed and cut to max chars (blanks before the cut dropped) + "...", with at most one copy
+    // of the kept text
+    String clip(String s, int max) {
         if (s == null) return "";
-        String x = s.trim();
-        if (x.length() <= max) return x;
-        return x.substring(0, max).trim() + "...";
+        int b = 0;
+        int e = s.length();
+        while (b < e && s.charAt(b) <= ' ') b++;
+        while (e > b && s.charAt(e - 1) <= ' ') e--;
+        if (e - b <= max) return b == 0 && e == s.length() ? s : s.substring(b, e);
+
+        int c = b + max;
+        while (c > b && s.charAt(c - 1) <= ' ') c--;
+        return new StringBuilder(c - b + 3).append(s, b, c).append("...").toString();
     }
 }
@@ -0,0 +1,27 @@
+package com.acode.resume.db;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+// Two JdbcTemplates over the Boot-configured primary pool:
+//   jdbcTemplate      primary: ingest writes, migrations, and rebuilds right after an ingest
+//   readJdbcTemplate  chat reads (retrieval SQL, profile and canonical-answer loads), routed by ReplicaRouter
+// With no app.datasource.replicas both end up on the primary.
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public JdbcTemplate readJdbcTemplate(ReplicaRouter router) {
+        return new JdbcTemplate(router.readDataSource());
+    }
+}
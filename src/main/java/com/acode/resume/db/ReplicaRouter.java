@@ -0,0 +1,178 @@
+package com.acode.resume.db;
+
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Picks the database for chat reads: app.datasource.replicas round-robin, skipping any replica
+// whose replay lag (checked every app.datasource.lag-check-ms) is over app.datasource.max-lag-ms
+// or that cannot be reached, and the primary when none qualifies. Writes never come here; they
+// use the primary JdbcTemplate.
+//
+// Right after an ingest commits, reads stay on the primary for max-lag + one lag check, so the
+// caches rebuilt from the new corpus are never filled from a replica that has not replayed it.
+@Component
+public class ReplicaRouter {
+
+    // 0 when caught up (or not a standby), -1 when nothing has been replayed yet
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                    "ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, -1) END";
+
+    private final DataSource primary;
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final long maxLagMs;
+    private final long lagCheckMs;
+
+    // per replica: last measured lag in ms, -1 = unreachable / unknown (not routed to)
+    private final AtomicLongArray lag;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile long primaryUntil;
+
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+    private final DataSource readDataSource;
+
+    public ReplicaRouter(DataSource primary, DataSourceProperties primaryProperties, MeterRegistry registry,
+                         @Value("${app.datasource.replicas:}") String[] urls,
+                         @Value("${app.datasource.max-lag-ms:1000}") long maxLagMs,
+                         @Value("${app.datasource.lag-check-ms:1000}") long lagCheckMs,
+                         @Value("${app.datasource.replica-pool-size:10}") int poolSize,
+                         @Value("${app.datasource.prepare-threshold:1}") int prepareThreshold) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        this.lagCheckMs = lagCheckMs;
+        this.primaryUntil = System.nanoTime();
+
+        for (int i = 0; i < urls.length; i++) {
+            String url = urls[i].trim();
+            if (url.length() == 0) continue;
+
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("replica-" + replicas.size());
+            ds.setJdbcUrl(url);
+            ds.setUsername(primaryProperties.getUsername());
+            ds.setPassword(primaryProperties.getPassword());
+            ds.setMaximumPoolSize(poolSize);
+            ds.setReadOnly(true);
+            ds.addDataSourceProperty("prepareThreshold", prepareThreshold);
+            replicas.add(ds);
+            names.add("replica-" + names.size());
+        }
+        this.lag = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            lag.set(i, -1);
+            final int r = i;
+            Gauge.builder("db.replica.lag", lag, l -> l.get(r))
+                    .description("Replay lag of a read replica in ms (-1 = unreachable, not routed to)")
+                    .tag("replica", names.get(i))
+                    .register(registry);
+        }
+
+        this.primaryReads = Counter.builder("db.read.route").tag("target", "primary")
+                .description("Read connections handed out, by target").register(registry);
+        this.replicaReads = Counter.builder("db.read.route").tag("target", "replica")
+                .description("Read connections handed out, by target").register(registry);
+
+        this.readDataSource = new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return pick().getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return pick().getConnection(username, password);
+            }
+        };
+    }
+
+    // DataSource whose every getConnection() is routed by pick()
+    public DataSource readDataSource() {
+        return readDataSource;
+    }
+
+    // "primary" first, then each replica, for per-server statistics
+    public List<String> names() {
+        List<String> out = new ArrayList<>();
+        out.add("primary");
+        out.addAll(names);
+        return out;
+    }
+
+    public DataSource target(String name) {
+        if (name.equals("primary")) return primary;
+        int i = names.indexOf(name);
+        return i < 0 ? null : replicas.get(i);
+    }
+
+    DataSource pick() {
+        int n = replicas.size();
+        if (n > 0 && System.nanoTime() - primaryUntil >= 0) {
+            int start = Math.floorMod(next.getAndIncrement(), n);
+            for (int k = 0; k < n; k++) {
+                int i = (start + k) % n;
+                long l = lag.get(i);
+                if (l >= 0 && l <= maxLagMs) {
+                    replicaReads.increment();
+                    return replicas.get(i);
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.lag-check-ms:1000}")
+    public void checkLag() {
+        for (int i = 0; i < replicas.size(); i++) {
+            long l;
+            try {
+                Long v = new JdbcTemplate(replicas.get(i)).queryForObject(LAG_SQL, Long.class);
+                l = v == null ? -1 : v;
+            } catch (Exception e) {
+                l = -1;
+            }
+            long was = lag.getAndSet(i, l);
+            boolean ok = l >= 0 && l <= maxLagMs;
+            boolean wasOk = was >= 0 && was <= maxLagMs;
+            if (ok != wasOk) {
+                System.out.println("[DB] " + names.get(i) + (ok ? " routable" : " not routable") + " (lag=" + l + "ms)");
+            }
+        }
+    }
+
+    // first (the index rebuilds follow at HIGHEST_PRECEDENCE + 1 and + 2), so they already read
+    // from the primary
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onIngested(ResumeIngestedEvent event) {
+        primaryUntil = System.nanoTime() + (maxLagMs + lagCheckMs) * 1_000_000L;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (int i = 0; i < replicas.size(); i++) replicas.get(i).close();
+    }
+}
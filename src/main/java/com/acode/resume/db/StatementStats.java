@@ -0,0 +1,104 @@
+package com.acode.resume.db;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Planning vs execution time of the statements that touch resume_chunks, per server (primary and
+// each replica), from pg_stat_statements. Needs the extension preloaded and created, with
+// pg_stat_statements.track_planning = on (docker-compose.yml does both on a fresh volume, via
+// docker/initdb); a server without it gets an "extension not installed" entry instead. With
+// server-side prepared statements "plans" stays well below "calls" once Postgres settles on a
+// generic plan.
+@Component
+public class StatementStats {
+
+    private static final String SQL =
+            "SELECT query, calls, plans, total_plan_time, total_exec_time, mean_plan_time, mean_exec_time " +
+                    "FROM pg_stat_statements " +
+                    "WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database()) " +
+                    "AND query LIKE '%resume_chunks%' AND query NOT LIKE '%pg_stat_statements%' " +
+                    "ORDER BY total_plan_time + total_exec_time DESC " +
+                    "LIMIT ?";
+
+    private static final String INSTALLED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_stat_statements')";
+
+    private static final String NOT_INSTALLED =
+            "pg_stat_statements extension not installed: add it to shared_preload_libraries and run " +
+                    "CREATE EXTENSION pg_stat_statements; on the primary";
+
+    private final ReplicaRouter router;
+
+    public StatementStats(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    public static class Statement {
+        public final String query;
+        public final long calls;
+        public final long plans;
+        public final double totalPlanMs;
+        public final double totalExecMs;
+        public final double meanPlanMs;
+        public final double meanExecMs;
+
+        public Statement(String query, long calls, long plans, double totalPlanMs, double totalExecMs,
+                         double meanPlanMs, double meanExecMs) {
+            this.query = query;
+            this.calls = calls;
+            this.plans = plans;
+            this.totalPlanMs = totalPlanMs;
+            this.totalExecMs = totalExecMs;
+            this.meanPlanMs = meanPlanMs;
+            this.meanExecMs = meanExecMs;
+        }
+    }
+
+    public static class Server {
+        public final String name;
+        public final String error;
+        public final List<Statement> statements;
+
+        public Server(String name, String error, List<Statement> statements) {
+            this.name = name;
+            this.error = error;
+            this.statements = statements;
+        }
+    }
+
+    public List<Server> snapshot(int limit) {
+        List<String> names = router.names();
+        List<Server> out = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            DataSource ds = router.target(names.get(i));
+            try {
+                JdbcTemplate jdbc = new JdbcTemplate(ds);
+                if (!Boolean.TRUE.equals(jdbc.queryForObject(INSTALLED_SQL, Boolean.class))) {
+                    out.add(new Server(names.get(i), NOT_INSTALLED, new ArrayList<>()));
+                    continue;
+                }
+                List<Statement> rows = jdbc.query(
+                        SQL,
+                        (rs, rowNum) -> new Statement(
+                                rs.getString("query"),
+                                rs.getLong("calls"),
+                                rs.getLong("plans"),
+                                rs.getDouble("total_plan_time"),
+                                rs.getDouble("total_exec_time"),
+                                rs.getDouble("mean_plan_time"),
+                                rs.getDouble("mean_exec_time")
+                        ),
+                        limit
+                );
+                out.add(new Server(names.get(i), null, rows));
+            } catch (Exception e) {
+                out.add(new Server(names.get(i), e.getMessage(), new ArrayList<>()));
+            }
+        }
+        return out;
+    }
+}
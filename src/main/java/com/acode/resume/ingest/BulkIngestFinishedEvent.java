@@ -0,0 +1,16 @@
+package com.acode.resume.ingest;
+
+import java.util.List;
+
+// Published once at the end of a bulk run, after every group's ResumeIngestedEvent, with all the
+// resumes it committed (also when it stopped on a failure). Listeners that rebuild something over
+// the whole corpus (the snapshot file) run here instead of once per group.
+public class BulkIngestFinishedEvent {
+    public final List<String> resumeIds;
+    public final long chunks;
+
+    public BulkIngestFinishedEvent(List<String> resumeIds, long chunks) {
+        this.resumeIds = resumeIds;
+        this.chunks = chunks;
+    }
+}
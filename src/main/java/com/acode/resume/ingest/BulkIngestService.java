@@ -0,0 +1,344 @@
+package com.acode.resume.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+// Bulk ingest of a directory tree (app.ingestion.bulk.dir): every folder holding a resume.txt
+// (and optionally profile.json) is one resume, its id the folder path relative to the root.
+//
+//   walk    folders are listed once and sorted, so runs see them in the same order
+//   parse   files are read and chunked on a work-stealing pool (one thread per core by default),
+//           folders split recursively so idle threads steal the other halves
+//   write   a few writer threads (app.ingestion.bulk.writers, one pooled connection each) drain
+//           prepared resumes into transactions of about batch-rows chunks
+//
+// A bounded queue between parse and write keeps memory flat when writes fall behind. Resume ids
+// are appended to the checkpoint file after their transaction commits; a restarted run skips
+// them, so delete the file to re-ingest everything. Write semantics per resume are those of a
+// full ingest: profile replaced, chunks upserted by content hash, missing chunks deleted.
+//
+// Each committed group is published as its own ResumeIngestedEvent (bulk = true) on the writer
+// thread, so index rebuilds and canonical answers cover just that group and run in parallel
+// across writers; one BulkIngestFinishedEvent at the end triggers the whole-corpus snapshot.
+@Component
+public class BulkIngestService {
+
+    private static final int SPLIT = 16;
+
+    private static class Prepared {
+        final IngestDocument doc;
+        final List<IngestPipeline.PreparedChunk> rows;
+
+        Prepared(IngestDocument doc, List<IngestPipeline.PreparedChunk> rows) {
+            this.doc = doc;
+            this.rows = rows;
+        }
+    }
+
+    private static final Prepared END = new Prepared(null, List.of());
+
+    private final ChunkWriter chunkWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IngestGeneration generation;
+
+    private final String dir;
+    private final String checkpoint;
+    private final int parallelism;
+    private final int writers;
+    private final int batchRows;
+    private final int queueCapacity;
+
+    public BulkIngestService(ChunkWriter chunkWriter, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher, IngestGeneration generation,
+                             @Value("${app.ingestion.bulk.dir:}") String dir,
+                             @Value("${app.ingestion.bulk.checkpoint:}") String checkpoint,
+                             @Value("${app.ingestion.bulk.parallelism:0}") int parallelism,
+                             @Value("${app.ingestion.bulk.writers:4}") int writers,
+                             @Value("${app.ingestion.bulk.batch-rows:5000}") int batchRows,
+                             @Value("${app.ingestion.bulk.queue-capacity:256}") int queueCapacity) {
+        this.chunkWriter = chunkWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.generation = generation;
+        this.dir = dir;
+        this.checkpoint = checkpoint;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.writers = Math.max(1, writers);
+        this.batchRows = Math.max(1, batchRows);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public boolean enabled() {
+        return !dir.isBlank();
+    }
+
+    public IngestStats run() throws Exception {
+        return run(new IngestStats());
+    }
+
+    // tests read the counters of a run that failed
+    IngestStats run(IngestStats stats) throws Exception {
+        long start = System.nanoTime();
+        Path root = Path.of(dir);
+        Path checkpointFile = checkpoint.isBlank() ? root.resolve(".bulk-ingest.checkpoint") : Path.of(checkpoint);
+
+        // ---- walk ----
+        long t0 = System.nanoTime();
+        List<Path> folders = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(p -> p.getFileName().toString().equals("resume.txt") && Files.isRegularFile(p))
+                    .forEach(p -> folders.add(p.getParent()));
+        }
+        Collections.sort(folders);
+        Set<String> done = readCheckpoint(checkpointFile);
+
+        List<Path> todo = new ArrayList<>(folders.size());
+        for (int i = 0; i < folders.size(); i++) {
+            if (!done.contains(resumeId(root, folders.get(i)))) todo.add(folders.get(i));
+        }
+        long walkNanos = System.nanoTime() - t0;
+        System.out.println("[BULK] " + folders.size() + " resumes under " + root + ", " + (folders.size() - todo.size())
+                + " already in " + checkpointFile + ", walk=" + walkNanos / 1_000_000 + "ms");
+
+        // ---- parse (fork-join) -> bounded queue -> write ----
+        BlockingQueue<Prepared> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService writerPool = Executors.newFixedThreadPool(writers, r -> {
+            Thread t = new Thread(r, "bulk-ingest-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        ForkJoinPool parsePool = new ForkJoinPool(parallelism);
+
+        try (FileChannel cp = FileChannel.open(checkpointFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (int w = 0; w < writers; w++) {
+                writerPool.submit(() -> write(queue, cp, stats, failure, written));
+            }
+
+            long parseStart = System.nanoTime();
+            try {
+                parsePool.invoke(new ParseTask(root, todo, 0, todo.size(), queue, stats, failure));
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+            long parseWall = System.nanoTime() - parseStart;
+
+            for (int w = 0; w < writers; w++) {
+                if (!offer(queue, END, failure)) break;
+            }
+            writerPool.shutdown();
+            writerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+            stats.totalNanos = System.nanoTime() - start;
+            double secs = stats.totalNanos / 1e9;
+            System.out.println("[BULK] " + stats.summary());
+            System.out.println("[BULK] parse: " + rate(stats.documents.get(), parseWall / 1e9) + " resumes/s on " + parallelism
+                    + " threads (read " + stats.readNanos.get() / 1_000_000 + "ms + chunk " + stats.chunkNanos.get() / 1_000_000
+                    + "ms cpu); write: " + rate(stats.chunks.get(), stats.writeNanos.get() / 1e9 / writers) + " rows/s per writer x "
+                    + writers + "; overall " + rate(written.size(), secs) + " resumes/s");
+        } finally {
+            parsePool.shutdownNow();
+            writerPool.shutdownNow();
+        }
+
+        // what committed is in the checkpoint either way; listeners still see it
+        if (!written.isEmpty()) {
+            System.out.println("[INGEST] generation=" + generation.current());
+            eventPublisher.publishEvent(new BulkIngestFinishedEvent(List.copyOf(written), stats.chunks.get()));
+        }
+
+        Throwable f = failure.get();
+        if (f != null) throw new IllegalStateException("bulk ingest failed; rerun to continue from " + checkpointFile, f);
+        return stats;
+    }
+
+    // Splits its range in halves until it is small, then reads and chunks each folder.
+    private class ParseTask extends RecursiveAction {
+        private final Path root;
+        private final List<Path> folders;
+        private final int from;
+        private final int to;
+        private final BlockingQueue<Prepared> queue;
+        private final IngestStats stats;
+        private final AtomicReference<Throwable> failure;
+
+        ParseTask(Path root, List<Path> folders, int from, int to, BlockingQueue<Prepared> queue, IngestStats stats,
+                  AtomicReference<Throwable> failure) {
+            this.root = root;
+            this.folders = folders;
+            this.from = from;
+            this.to = to;
+            this.queue = queue;
+            this.stats = stats;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParseTask(root, folders, from, mid, queue, stats, failure),
+                        new ParseTask(root, folders, mid, to, queue, stats, failure));
+                return;
+            }
+
+            try {
+                IngestPipeline.ChunkPreparer preparer = new IngestPipeline.ChunkPreparer(objectMapper);
+                for (int i = from; i < to && failure.get() == null; i++) {
+                    Path folder = folders.get(i);
+
+                    long t0 = System.nanoTime();
+                    String resume = Files.readString(folder.resolve("resume.txt"), StandardCharsets.UTF_8);
+                    Path profileFile = folder.resolve("profile.json");
+                    String profile = Files.exists(profileFile) ? Files.readString(profileFile, StandardCharsets.UTF_8) : "{}";
+                    stats.readNanos.addAndGet(System.nanoTime() - t0);
+
+                    t0 = System.nanoTime();
+                    IngestDocument doc = new IngestDocument(resumeId(root, folder), root.relativize(folder.resolve("resume.txt")).toString(), profile, resume);
+                    List<IngestPipeline.PreparedChunk> rows = new ArrayList<>();
+                    preparer.startDocument();
+                    ResumeChunker.stream(resume, c -> {
+                        IngestPipeline.PreparedChunk p = preparer.prepare(doc, c);
+                        if (p != null) rows.add(p);
+                    });
+                    stats.chunkNanos.addAndGet(System.nanoTime() - t0);
+                    stats.documents.incrementAndGet();
+
+                    // waiting here is the backpressure: parsing slows down to what the writers commit
+                    if (!offer(queue, new Prepared(doc, rows), failure)) return;
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    // Writer thread: one transaction per group of resumes holding about batchRows chunks, then the
+    // group's ResumeIngestedEvent. Stops without writing its group once anything has failed.
+    private void write(BlockingQueue<Prepared> queue, FileChannel checkpointFile, IngestStats stats,
+                       AtomicReference<Throwable> failure, List<String> written) {
+        List<Prepared> group = new ArrayList<>();
+        int rows = 0;
+        try {
+            while (failure.get() == null) {
+                Prepared p = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (p == null) continue;
+                boolean end = p == END;
+                if (!end) {
+                    group.add(p);
+                    rows += p.rows.size();
+                }
+
+                if (!group.isEmpty() && (end || rows >= batchRows)) {
+                    commit(group, stats);
+                    List<String> ids = new ArrayList<>(group.size());
+                    for (int i = 0; i < group.size(); i++) ids.add(group.get(i).doc.resumeId);
+                    appendCheckpoint(checkpointFile, ids);
+                    written.addAll(ids);
+
+                    generation.bump();
+                    eventPublisher.publishEvent(new ResumeIngestedEvent(ids, rows, true));
+                    group.clear();
+                    rows = 0;
+                }
+                if (end) return;
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    // false once anything has failed, so a producer never waits on writers that have stopped
+    private static boolean offer(BlockingQueue<Prepared> queue, Prepared p, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        while (!queue.offer(p, 100, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) return false;
+        }
+        return true;
+    }
+
+    private void commit(List<Prepared> group, IngestStats stats) {
+        long t0 = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<IngestPipeline.PreparedChunk> batch = new ArrayList<>(batchRows);
+            for (int i = 0; i < group.size(); i++) {
+                Prepared p = group.get(i);
+                chunkWriter.writeProfile(p.doc.resumeId, p.doc.profileJson);
+                batch.addAll(p.rows);
+                if (batch.size() >= batchRows) {
+                    stats.upserted.addAndGet(chunkWriter.upsert(batch));
+                    batch.clear();
+                }
+            }
+            stats.upserted.addAndGet(chunkWriter.upsert(batch));
+
+            for (int i = 0; i < group.size(); i++) {
+                Prepared p = group.get(i);
+                Set<String> keep = new HashSet<>();
+                for (int j = 0; j < p.rows.size(); j++) keep.add(p.rows.get(j).contentHash);
+                stats.deleted.addAndGet(chunkWriter.deleteMissing(p.doc.resumeId, keep));
+                chunkWriter.clearBlocks(p.doc.resumeId);
+                stats.chunks.addAndGet(p.rows.size());
+            }
+        });
+        stats.writeNanos.addAndGet(System.nanoTime() - t0);
+    }
+
+    private static synchronized void appendCheckpoint(FileChannel ch, List<String> ids) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ids.size(); i++) sb.append(ids.get(i)).append('\n');
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) ch.write(buf);
+        ch.force(false);
+    }
+
+    private static Set<String> readCheckpoint(Path file) throws IOException {
+        Set<String> out = new HashSet<>();
+        if (!Files.exists(file)) return out;
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).isBlank()) out.add(lines.get(i));
+        }
+        return out;
+    }
+
+    private static String resumeId(Path root, Path folder) {
+        String rel = root.relativize(folder).toString().replace('\\', '/');
+        return rel.isEmpty() ? root.getFileName().toString() : rel;
+    }
+
+    private static long rate(long n, double secs) {
+        if (secs <= 0) return n;
+        return Math.round(n / secs);
+    }
+}
@@ -0,0 +1,220 @@
+package com.acode.resume.ingest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Write stage of the ingest pipeline. Must be called inside the ingest transaction.
+@Component
+public class ChunkWriter {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO resume_chunks (resume_id, section, content, metadata, content_hash) VALUES (?, ?, ?, ?::jsonb, ?) " +
+                    "ON CONFLICT (resume_id, content_hash) DO UPDATE SET metadata = EXCLUDED.metadata " +
+                    "WHERE resume_chunks.metadata IS DISTINCT FROM EXCLUDED.metadata";
+
+    private static final String UPSERT_FROM_STAGE_SQL =
+            "INSERT INTO resume_chunks (resume_id, section, content, metadata, content_hash) " +
+                    "SELECT resume_id, section, content, metadata, content_hash FROM resume_chunks_stage " +
+                    "ON CONFLICT (resume_id, content_hash) DO UPDATE SET metadata = EXCLUDED.metadata " +
+                    "WHERE resume_chunks.metadata IS DISTINCT FROM EXCLUDED.metadata";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String mode;
+
+    public ChunkWriter(JdbcTemplate jdbcTemplate, @Value("${app.ingestion.write-mode:batch}") String mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+    }
+
+    // Keeps the matching profile row if it is already present, otherwise inserts it; then drops
+    // every other row of that resume. Readers (ORDER BY id DESC LIMIT 1) always see one profile.
+    public void writeProfile(String resumeId, String profileJson) {
+        List<Long> same = jdbcTemplate.queryForList(
+                "SELECT id FROM resume_profile WHERE resume_id = ? AND profile_json = ?::jsonb ORDER BY id DESC LIMIT 1",
+                Long.class,
+                resumeId,
+                profileJson
+        );
+
+        long keep;
+        if (same.isEmpty()) {
+            keep = jdbcTemplate.queryForObject(
+                    "INSERT INTO resume_profile (resume_id, profile_json) VALUES (?, ?::jsonb) RETURNING id",
+                    Long.class,
+                    resumeId,
+                    profileJson
+            );
+        } else {
+            keep = same.get(0);
+        }
+
+        jdbcTemplate.update("DELETE FROM resume_profile WHERE resume_id = ? AND id <> ?", resumeId, keep);
+    }
+
+    // Returns the number of rows inserted or changed.
+    public long upsert(List<IngestPipeline.PreparedChunk> rows) {
+        if (rows.isEmpty()) return 0;
+        if ("copy".equals(mode)) return copy(rows);
+        return batch(rows);
+    }
+
+    public int deleteMissing(String resumeId, Collection<String> keepHashes) {
+        Object[] hashes = keepHashes.toArray();
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM resume_chunks WHERE resume_id = ? AND NOT (content_hash = ANY (?))");
+            ps.setString(1, resumeId);
+            ps.setArray(2, con.createArrayOf("text", hashes));
+            return ps;
+        });
+    }
+
+    // Deletes exactly these chunks (incremental ingest: the ones only removed blocks produced).
+    public int deleteChunks(String resumeId, Collection<String> hashes) {
+        if (hashes.isEmpty()) return 0;
+        Object[] arr = hashes.toArray();
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM resume_chunks WHERE resume_id = ? AND content_hash = ANY (?)");
+            ps.setString(1, resumeId);
+            ps.setArray(2, con.createArrayOf("text", arr));
+            return ps;
+        });
+    }
+
+    // Block hash -> content hashes of its chunks, as recorded by the last incremental ingest.
+    // Read by the chunk stage before the write transaction; ingests of one resume are serialized.
+    public Map<String, String[]> blocks(String resumeId) {
+        Map<String, String[]> out = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT block_hash, chunk_hashes FROM resume_blocks WHERE resume_id = ?",
+                (RowCallbackHandler) rs -> out.put(rs.getString("block_hash"), (String[]) rs.getArray("chunk_hashes").getArray()),
+                resumeId
+        );
+        return out;
+    }
+
+    public void replaceBlocks(String resumeId, Collection<String> removed, Map<String, String[]> added) {
+        if (!removed.isEmpty()) {
+            Object[] arr = removed.toArray();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement("DELETE FROM resume_blocks WHERE resume_id = ? AND block_hash = ANY (?)");
+                ps.setString(1, resumeId);
+                ps.setArray(2, con.createArrayOf("text", arr));
+                return ps;
+            });
+        }
+        if (added.isEmpty()) return;
+
+        List<Map.Entry<String, String[]>> rows = List.copyOf(added.entrySet());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO resume_blocks (resume_id, block_hash, chunk_hashes) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (resume_id, block_hash) DO UPDATE SET chunk_hashes = EXCLUDED.chunk_hashes",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, resumeId);
+                        ps.setString(2, rows.get(i).getKey());
+                        ps.setArray(3, ps.getConnection().createArrayOf("text", rows.get(i).getValue()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+    }
+
+    // Full ingests do not record blocks, and may delete chunks that recorded blocks point at.
+    public void clearBlocks(String resumeId) {
+        jdbcTemplate.update("DELETE FROM resume_blocks WHERE resume_id = ?", resumeId);
+    }
+
+    private long batch(List<IngestPipeline.PreparedChunk> rows) {
+        int[] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                IngestPipeline.PreparedChunk c = rows.get(i);
+                ps.setString(1, c.resumeId);
+                ps.setString(2, c.section);
+                ps.setString(3, c.content);
+                ps.setString(4, c.metadataJson);
+                ps.setString(5, c.contentHash);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        long n = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) n += counts[i];
+        }
+        return n;
+    }
+
+    // COPY into a session-local staging table, then one INSERT ... SELECT upsert per batch.
+    private long copy(List<IngestPipeline.PreparedChunk> rows) {
+        Long n = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (Statement st = con.createStatement()) {
+                st.execute("CREATE TEMP TABLE IF NOT EXISTS resume_chunks_stage " +
+                        "(resume_id TEXT, section TEXT, content TEXT, metadata JSONB, content_hash TEXT) ON COMMIT DELETE ROWS");
+            }
+
+            StringBuilder sb = new StringBuilder(rows.size() * 256);
+            for (int i = 0; i < rows.size(); i++) {
+                IngestPipeline.PreparedChunk c = rows.get(i);
+                appendCopyField(sb, c.resumeId).append('\t');
+                appendCopyField(sb, c.section).append('\t');
+                appendCopyField(sb, c.content).append('\t');
+                appendCopyField(sb, c.metadataJson).append('\t');
+                appendCopyField(sb, c.contentHash).append('\n');
+            }
+
+            try {
+                CopyManager cm = con.unwrap(PGConnection.class).getCopyAPI();
+                cm.copyIn("COPY resume_chunks_stage (resume_id, section, content, metadata, content_hash) FROM STDIN", new StringReader(sb.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into resume_chunks_stage failed", e);
+            }
+
+            try (Statement st = con.createStatement()) {
+                long changed = st.executeUpdate(UPSERT_FROM_STAGE_SQL);
+                st.execute("TRUNCATE resume_chunks_stage");
+                return changed;
+            }
+        });
+        return n == null ? 0 : n;
+    }
+
+    // COPY text format escaping
+    private static StringBuilder appendCopyField(StringBuilder sb, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,15 @@
+package com.acode.resume.ingest;
+
+public class IngestDocument {
+    public final String resumeId;
+    public final String source;
+    public final String profileJson;
+    public final String resumeText;
+
+    public IngestDocument(String resumeId, String source, String profileJson, String resumeText) {
+        this.resumeId = resumeId;
+        this.source = source;
+        this.profileJson = profileJson;
+        this.resumeText = resumeText;
+    }
+}
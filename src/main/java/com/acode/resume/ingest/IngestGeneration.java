@@ -0,0 +1,21 @@
+package com.acode.resume.ingest;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic counter bumped by ResumeIngestRunner on every committed ingest.
+// Anything derived from the corpus can tag itself with the generation it was built from.
+@Component
+public class IngestGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public long current() {
+        return generation.get();
+    }
+
+    public long bump() {
+        return generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,370 @@
+package com.acode.resume.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// read -> chunk -> write, connected by bounded queues. Reading and chunking run on their own
+// threads; the write stage runs on the caller inside a single transaction, so readers keep
+// seeing the previous corpus until commit and never an empty table.
+//
+// Incremental mode hashes every block of a document (see ResumeChunker.blocks) and only chunks and
+// writes blocks whose hash resume_blocks does not already hold; chunks that only removed blocks
+// produced are deleted by hash. Work per re-ingest follows the size of the edit, not the document.
+public class IngestPipeline {
+
+    public static class PreparedChunk {
+        public final String resumeId;
+        public final String section;
+        public final String content;
+        public final String type;
+        public final String metadataJson;
+        public final String contentHash;
+
+        public PreparedChunk(String resumeId, String section, String content, String type, String metadataJson, String contentHash) {
+            this.resumeId = resumeId;
+            this.section = section;
+            this.content = content;
+            this.type = type;
+            this.metadataJson = metadataJson;
+            this.contentHash = contentHash;
+        }
+    }
+
+    // What an incremental ingest changes besides upserting the new blocks' chunks. full: nothing was
+    // recorded for the resume yet, so everything not in keep is deleted, as in a full ingest.
+    private static class BlockDelta {
+        final boolean full;
+        final Set<String> keep;
+        final Set<String> delete;
+        final List<String> removed;
+        final Map<String, String[]> added;
+
+        BlockDelta(boolean full, Set<String> keep, Set<String> delete, List<String> removed, Map<String, String[]> added) {
+            this.full = full;
+            this.keep = keep;
+            this.delete = delete;
+            this.removed = removed;
+            this.added = added;
+        }
+    }
+
+    private static class Batch {
+        final IngestDocument doc;
+        final List<PreparedChunk> rows;
+        final boolean first;
+        final boolean last;
+        final BlockDelta delta;   // last batch of an incremental document only
+
+        Batch(IngestDocument doc, List<PreparedChunk> rows, boolean first, boolean last, BlockDelta delta) {
+            this.doc = doc;
+            this.rows = rows;
+            this.first = first;
+            this.last = last;
+            this.delta = delta;
+        }
+    }
+
+    private static final IngestDocument END_DOC = new IngestDocument("", "", "", "");
+    private static final Batch END_BATCH = new Batch(null, List.of(), false, false, null);
+
+    private final ChunkWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final boolean incremental;
+
+    public IngestPipeline(ChunkWriter writer, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                          int batchSize, int queueCapacity, boolean incremental) {
+        this.writer = writer;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.incremental = incremental;
+    }
+
+    public IngestStats run(IngestSource source) throws Exception {
+        IngestStats stats = new IngestStats();
+        long start = System.nanoTime();
+
+        BlockingQueue<IngestDocument> docs = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService stages = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "ingest-stage");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            stages.submit(() -> {
+                try {
+                    while (true) {
+                        long t0 = System.nanoTime();
+                        IngestDocument d = source.next();
+                        stats.readNanos.addAndGet(System.nanoTime() - t0);
+                        if (d == null) break;
+                        stats.documents.incrementAndGet();
+                        docs.put(d);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    putQuietly(docs, END_DOC);
+                }
+            });
+
+            stages.submit(() -> {
+                try {
+                    ChunkPreparer preparer = new ChunkPreparer(objectMapper);
+                    while (true) {
+                        IngestDocument d = docs.take();
+                        if (d == END_DOC) break;
+
+                        preparer.startDocument();
+                        DocumentBatcher batcher = new DocumentBatcher(d, preparer, batches, stats);
+                        if (incremental) {
+                            chunkChangedBlocks(d, preparer, batcher, stats);
+                        } else {
+                            ResumeChunker.stream(d.resumeText, batcher);
+                            batcher.finish(null);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    putQuietly(batches, END_BATCH);
+                }
+            });
+
+            long[] writesDone = {0};
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> written = new HashSet<>();
+                try {
+                    while (true) {
+                        Batch b = batches.take();
+                        if (b == END_BATCH) break;
+
+                        long t0 = System.nanoTime();
+                        if (b.first) {
+                            written.clear();
+                            writer.writeProfile(b.doc.resumeId, b.doc.profileJson);
+                        }
+                        stats.upserted.addAndGet(writer.upsert(b.rows));
+                        stats.chunks.addAndGet(b.rows.size());
+                        for (int i = 0; i < b.rows.size(); i++) written.add(b.rows.get(i).contentHash);
+
+                        // a document is complete only once its last batch arrived, and only then
+                        // is it safe to drop the chunks it no longer contains
+                        if (b.last && failure.get() == null) {
+                            String rid = b.doc.resumeId;
+                            if (b.delta == null) {
+                                stats.deleted.addAndGet(writer.deleteMissing(rid, written));
+                                writer.clearBlocks(rid);
+                            } else {
+                                if (b.delta.full) stats.deleted.addAndGet(writer.deleteMissing(rid, b.delta.keep));
+                                else stats.deleted.addAndGet(writer.deleteChunks(rid, b.delta.delete));
+                                writer.replaceBlocks(rid, b.delta.removed, b.delta.added);
+                            }
+                        }
+                        stats.writeNanos.addAndGet(System.nanoTime() - t0);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("ingest interrupted", e);
+                }
+
+                Throwable f = failure.get();
+                if (f != null) throw new IllegalStateException("ingest stage failed", f);
+                writesDone[0] = System.nanoTime();
+            });
+            stats.swapNanos = System.nanoTime() - writesDone[0];
+        } finally {
+            stages.shutdownNow();
+        }
+
+        stats.totalNanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    // Chunk stage, incremental: unchanged blocks contribute the chunk hashes recorded for them,
+    // changed ones are chunked on their own and recorded with the hashes they produce.
+    private void chunkChangedBlocks(IngestDocument d, ChunkPreparer preparer, DocumentBatcher batcher, IngestStats stats) {
+        Map<String, String[]> stored = writer.blocks(d.resumeId);
+        List<ResumeChunker.Block> blocks = ResumeChunker.blocks(d.resumeText);
+
+        Set<String> current = new HashSet<>();
+        Set<String> keep = new HashSet<>();
+        Map<String, String[]> added = new LinkedHashMap<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            String h = preparer.blockHash(d, blocks.get(i));
+            if (!current.add(h)) continue;
+
+            String[] chunks = stored.get(h);
+            if (chunks == null) {
+                batcher.startBlock();
+                ResumeChunker.stream(blocks.get(i).text, batcher);
+                chunks = batcher.endBlock();
+                added.put(h, chunks);
+            }
+            for (int j = 0; j < chunks.length; j++) keep.add(chunks[j]);
+        }
+
+        List<String> removed = new ArrayList<>();
+        Set<String> delete = new HashSet<>();
+        for (Map.Entry<String, String[]> e : stored.entrySet()) {
+            if (current.contains(e.getKey())) continue;
+            removed.add(e.getKey());
+            for (int j = 0; j < e.getValue().length; j++) {
+                if (!keep.contains(e.getValue()[j])) delete.add(e.getValue()[j]);
+            }
+        }
+
+        stats.blocks.addAndGet(current.size());
+        stats.blocksChanged.addAndGet(added.size());
+        batcher.finish(new BlockDelta(stored.isEmpty(), keep, delete, removed, added));
+    }
+
+    // Chunk stage sink: receives chunks straight from the streaming chunker and hands full
+    // batches to the writer, so a large document is never materialised as one chunk list.
+    private class DocumentBatcher implements Consumer<ResumeChunker.Chunk> {
+        private final IngestDocument doc;
+        private final ChunkPreparer preparer;
+        private final BlockingQueue<Batch> batches;
+        private final IngestStats stats;
+
+        private List<PreparedChunk> batch = new ArrayList<>();
+        private boolean first = true;
+        private long t0 = System.nanoTime();
+
+        // content hashes of the block being chunked, duplicates included
+        private List<String> block;
+
+        DocumentBatcher(IngestDocument doc, ChunkPreparer preparer, BlockingQueue<Batch> batches, IngestStats stats) {
+            this.doc = doc;
+            this.preparer = preparer;
+            this.batches = batches;
+            this.stats = stats;
+        }
+
+        @Override
+        public void accept(ResumeChunker.Chunk c) {
+            PreparedChunk p = preparer.prepare(doc, c);
+            if (block != null) block.add(preparer.lastHash);
+            if (p == null) return;
+            batch.add(p);
+            if (batch.size() == batchSize) {
+                put(false, null);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        void startBlock() {
+            block = new ArrayList<>();
+        }
+
+        String[] endBlock() {
+            String[] out = block.toArray(new String[0]);
+            block = null;
+            return out;
+        }
+
+        void finish(BlockDelta delta) {
+            put(true, delta);
+        }
+
+        private void put(boolean last, BlockDelta delta) {
+            stats.chunkNanos.addAndGet(System.nanoTime() - t0);
+            try {
+                batches.put(new Batch(doc, batch, first, last, delta));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("ingest interrupted", e);
+            }
+            first = false;
+            t0 = System.nanoTime();
+        }
+    }
+
+    private static <T> void putQuietly(BlockingQueue<T> q, T item) {
+        try {
+            q.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Chunk stage helper: builds metadata JSON and the content hash, and drops chunks that
+    // repeat an earlier one in the same document (resume_id + hash is the upsert key).
+    // One per chunking thread.
+    static class ChunkPreparer {
+        private final ObjectMapper objectMapper;
+        private final MessageDigest md5;
+        private final HexFormat hex = HexFormat.of();
+        private final Set<String> seen = new HashSet<>();
+
+        // content hash of the chunk last passed to prepare, also when it was a repeat
+        String lastHash;
+
+        ChunkPreparer(ObjectMapper objectMapper) throws Exception {
+            this.objectMapper = objectMapper;
+            this.md5 = MessageDigest.getInstance("MD5");
+        }
+
+        void startDocument() {
+            seen.clear();
+        }
+
+        PreparedChunk prepare(IngestDocument d, ResumeChunker.Chunk c) {
+            String hash = hash(c.section, c.type, c.content);
+            lastHash = hash;
+            if (!seen.add(hash)) return null;
+
+            String metadataJson = objectMapper.createObjectNode()
+                    .put("source", d.source)
+                    .put("type", c.type)
+                    .put("prefixEnd", c.prefixEnd)
+                    .put("bodyStart", c.bodyStart)
+                    .toString();
+            return new PreparedChunk(d.resumeId, c.section, c.content, c.type, metadataJson, hash);
+        }
+
+        // the source is part of every chunk's metadata, so it is part of the block's identity
+        String blockHash(IngestDocument d, ResumeChunker.Block b) {
+            md5.reset();
+            md5.update(d.source.getBytes(StandardCharsets.UTF_8));
+            md5.update((byte) '\n');
+            md5.update(b.text.getBytes(StandardCharsets.UTF_8));
+            return hex.formatHex(md5.digest());
+        }
+
+        // must match md5(section || E'\n' || type || E'\n' || content) in V2__chunk_content_hash.sql
+        private String hash(String section, String type, String content) {
+            md5.reset();
+            md5.update(section.getBytes(StandardCharsets.UTF_8));
+            md5.update((byte) '\n');
+            md5.update(type.getBytes(StandardCharsets.UTF_8));
+            md5.update((byte) '\n');
+            md5.update(content.getBytes(StandardCharsets.UTF_8));
+            return hex.formatHex(md5.digest());
+        }
+    }
+}
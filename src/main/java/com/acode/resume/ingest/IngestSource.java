@@ -0,0 +1,6 @@
+package com.acode.resume.ingest;
+
+// Read stage of the ingest pipeline. Returns null once every document has been produced.
+public interface IngestSource {
+    IngestDocument next() throws Exception;
+}
@@ -0,0 +1,48 @@
+package com.acode.resume.ingest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-stage wall time (time spent doing work, not waiting on queues) and row counts.
+public class IngestStats {
+    public final AtomicLong readNanos = new AtomicLong();
+    public final AtomicLong chunkNanos = new AtomicLong();
+    public final AtomicLong writeNanos = new AtomicLong();
+
+    public final AtomicLong documents = new AtomicLong();
+    public final AtomicLong chunks = new AtomicLong();
+    public final AtomicLong upserted = new AtomicLong();
+    public final AtomicLong deleted = new AtomicLong();
+    // incremental ingest: distinct blocks seen, and those that had to be chunked and written
+    public final AtomicLong blocks = new AtomicLong();
+    public final AtomicLong blocksChanged = new AtomicLong();
+
+    public long totalNanos;
+    // commit of the write transaction, i.e. the moment readers switch to the new corpus
+    public long swapNanos;
+
+    public String summary() {
+        double secs = totalNanos / 1e9;
+        double writeSecs = writeNanos.get() / 1e9;
+        return "docs=" + documents.get()
+                + " chunks=" + chunks.get()
+                + " upserted=" + upserted.get()
+                + " deleted=" + deleted.get()
+                + (blocks.get() > 0 ? " blocks=" + blocksChanged.get() + "/" + blocks.get() : "")
+                + " read=" + ms(readNanos.get()) + "ms"
+                + " chunk=" + ms(chunkNanos.get()) + "ms"
+                + " write=" + ms(writeNanos.get()) + "ms"
+                + " swap=" + ms(swapNanos) + "ms"
+                + " total=" + ms(totalNanos) + "ms"
+                + " rows/s=" + rate(chunks.get(), secs)
+                + " write-rows/s=" + rate(chunks.get(), writeSecs);
+    }
+
+    private static long ms(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static long rate(long n, double secs) {
+        if (secs <= 0) return n;
+        return Math.round(n / secs);
+    }
+}
@@ -1,7 +1,20 @@
 package com.acode.resume.ingest;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ResumeChunker {
 
@@ -9,109 +22,256 @@ public class ResumeChunker {
         public final String section;
         public final String content;
         public final String type;
+        public final int prefixEnd;   // see prefixEnd(String)
+        public final int bodyStart;   // see bodyStart(String)
 
         public Chunk(String section, String content, String type) {
             this.section = section;
             this.content = content;
             this.type = type;
+            this.prefixEnd = prefixEnd(content);
+            this.bodyStart = bodyStart(content);
+        }
+    }
+
+    // Answer formatting offsets, computed once here and stored in the chunk's metadata so the chat
+    // path can group and print bullets from ranges of content instead of substrings. content is
+    // trimmed by the chunker.
+
+    // End of the context prefix before the first " - " (trailing blanks dropped), 0 for none:
+    // "Engineer, Cognizant - Built X" -> length of "Engineer, Cognizant".
+    public static int prefixEnd(String content) {
+        int idx = content.indexOf(" - ");
+        if (idx <= 0) return 0;
+        while (idx > 0 && content.charAt(idx - 1) <= ' ') idx--;
+        return idx;
+    }
+
+    // Start of the bullet text after the first " - " (leading blanks skipped), 0 when there is no
+    // prefix or nothing follows it, in which case the whole content is the bullet.
+    public static int bodyStart(String content) {
+        int idx = content.indexOf(" - ");
+        if (idx < 0) return 0;
+        int s = idx + 3;
+        int e = content.length();
+        while (s < e && content.charAt(s) <= ' ') s++;
+        while (e > s && content.charAt(e - 1) <= ' ') e--;
+        return s < e ? s : 0;
+    }
+
+    // Independently re-chunkable piece of a document: a whole non-context section, or one header
+    // group of EXPERIENCE / PROJECTS (a header line with its bullets, ended by a blank line or the
+    // next header). text starts with the section's heading line, so chunking it alone yields the
+    // same chunks the whole document yields for those lines.
+    public static class Block {
+        public final String section;
+        public final String text;
+
+        public Block(String section, String text) {
+            this.section = section;
+            this.text = text;
         }
     }
 
     public static List<Chunk> split(String text) {
         List<Chunk> out = new ArrayList<Chunk>();
+        stream(text, out::add);
+        return out;
+    }
+
+    // One LineScanner pass that records block boundaries instead of emitting chunks.
+    public static List<Block> blocks(String text) {
+        List<Block> out = new ArrayList<>();
+        LineScanner s = new LineScanner(null, out);
+        for (int i = 0; i < text.length(); i++) s.accept(text.charAt(i));
+        s.finish();
+        return out;
+    }
 
-        String[] lines = text.split("\\r?\\n");
-        String section = "GENERAL";
+    // Streaming variants: chunks are handed to the sink as soon as their line is complete,
+    // and only the current line is buffered.
 
-        String ctx1 = "";
-        String ctx2 = "";
+    public static void stream(CharSequence text, Consumer<Chunk> sink) {
+        LineScanner s = new LineScanner(sink, null);
+        for (int i = 0; i < text.length(); i++) s.accept(text.charAt(i));
+        s.finish();
+    }
 
-        for (int i = 0; i < lines.length; i++) {
-            String raw = lines[i];
-            if (raw == null) continue;
+    public static void stream(Reader in, Consumer<Chunk> sink) throws IOException {
+        LineScanner s = new LineScanner(sink, null);
+        char[] buf = new char[8192];
+        int n;
+        while ((n = in.read(buf)) >= 0) {
+            for (int i = 0; i < n; i++) s.accept(buf[i]);
+        }
+        s.finish();
+    }
 
-            String line = raw.trim();
+    // UTF-8 file, memory-mapped and decoded incrementally.
+    public static void stream(Path file, Consumer<Chunk> sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer bytes = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            CharsetDecoder dec = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
 
-            boolean isContextSection = section.equals("EXPERIENCE") || section.equals("PROJECTS");
+            LineScanner s = new LineScanner(sink, null);
+            CharBuffer chars = CharBuffer.allocate(8192);
+            while (true) {
+                CoderResult r = dec.decode(bytes, chars, true);
+                if (r.isOverflow()) {
+                    drain(chars, s);
+                    continue;
+                }
+                if (r.isError()) r.throwException();
+                break;
+            }
+            while (dec.flush(chars).isOverflow()) drain(chars, s);
+            drain(chars, s);
+            s.finish();
+        }
+    }
+
+    private static void drain(CharBuffer chars, LineScanner s) {
+        chars.flip();
+        while (chars.hasRemaining()) s.accept(chars.get());
+        chars.clear();
+    }
+
+    // Splits on '\n' and classifies each line in place (a trailing '\r' is dropped by the trim
+    // bounds, same as split("\\r?\\n") + trim()). Strings are only created for emitted content.
+    // Either output may be null: chunks go to sink, block boundaries (see Block) to blocks.
+    private static class LineScanner {
+        private final Consumer<Chunk> sink;
+        private final List<Block> blocks;
+        private final StringBuilder content = new StringBuilder(256);
+        private final StringBuilder block = new StringBuilder(256);
+        private String heading = "";
+
+        private char[] line = new char[256];
+        private int len;
+
+        private String section = "GENERAL";
+        private boolean contextSection;
+        private String ctx1 = "";
+
+        LineScanner(Consumer<Chunk> sink, List<Block> blocks) {
+            this.sink = sink;
+            this.blocks = blocks;
+        }
+
+        void accept(char c) {
+            if (c == '\n') {
+                processLine();
+                len = 0;
+                return;
+            }
+            if (len == line.length) line = Arrays.copyOf(line, len * 2);
+            line[len++] = c;
+        }
+
+        void finish() {
+            if (len > 0) processLine();
+            len = 0;
+            flushBlock();
+        }
+
+        private void processLine() {
+            int s = 0;
+            int e = len;
+            while (s < e && line[s] <= ' ') s++;
+            while (e > s && line[e - 1] <= ' ') e--;
 
             // IMPORTANT: blank line is a boundary between entries inside EXPERIENCE/PROJECTS
-            if (line.length() == 0) {
-                if (isContextSection) {
+            if (s == e) {
+                if (contextSection) {
                     ctx1 = "";
-                    ctx2 = "";
+                    flushBlock();
                 }
-                continue;
+                return;
             }
 
-            if (isHeading(line)) {
-                section = normalizeHeading(line);
+            if (isHeading(line, s, e)) {
+                String h = new String(line, s, e - s);
+                flushBlock();
+                heading = h;
+                section = normalizeHeading(h);
+                contextSection = section.equals("EXPERIENCE") || section.equals("PROJECTS");
                 ctx1 = "";
-                ctx2 = "";
-                continue;
+                return;
             }
 
-            isContextSection = section.equals("EXPERIENCE") || section.equals("PROJECTS");
+            char first = line[s];
+            boolean bullet = first == '•' || first == '-' || first == '*';
+            if (blocks != null) {
+                if (contextSection && !bullet) flushBlock();
+                block.append(line, s, e - s).append('\n');
+            }
+            if (sink == null) return;
 
-            if (startsWithBullet(line)) {
-                String cleaned = stripBullet(line).trim();
-                if (cleaned.length() > 0) {
-                    if (isContextSection && (ctx1.length() > 0 || ctx2.length() > 0)) {
-                        String prefix = ctx1;
-                        if (ctx2.length() > 0) prefix = prefix + " | " + ctx2;
-                        out.add(new Chunk(section, prefix + " - " + cleaned, "bullet"));
+            if (bullet) {
+                int cs = s + 1;
+                while (cs < e && line[cs] <= ' ') cs++;
+                if (cs < e) {
+                    if (contextSection && ctx1.length() > 0) {
+                        content.setLength(0);
+                        content.append(ctx1).append(" - ").append(line, cs, e - cs);
+                        sink.accept(new Chunk(section, content.toString(), "bullet"));
                     } else {
-                        out.add(new Chunk(section, cleaned, "bullet"));
+                        sink.accept(new Chunk(section, new String(line, cs, e - cs), "bullet"));
                     }
                 }
-                continue;
+                return;
             }
 
+            String text = new String(line, s, e - s);
+
             // non-bullet line
-            if (isContextSection) {
+            if (contextSection) {
                 // Treat any non-bullet line as the start of a new context header.
                 // This prevents context bleeding across jobs/projects.
-                ctx1 = line;
-                ctx2 = "";
-                out.add(new Chunk(section, line, "header"));
-                continue;
+                ctx1 = text;
+                sink.accept(new Chunk(section, text, "header"));
+                return;
             }
 
-            out.add(new Chunk(section, line, "line"));
+            sink.accept(new Chunk(section, text, "line"));
         }
 
-        return out;
+        private void flushBlock() {
+            if (blocks == null || block.length() == 0) return;
+            blocks.add(new Block(section, heading.length() == 0 ? block.toString() : heading + "\n" + block));
+            block.setLength(0);
+        }
     }
 
-    private static boolean startsWithBullet(String s) {
-        return s.startsWith("•") || s.startsWith("-") || s.startsWith("*");
-    }
+    private static final String[] HEADINGS = {"EDUCATION", "SKILLS", "EXPERIENCE", "PROJECTS", "CERTIFICATIONS"};
 
-    private static String stripBullet(String s) {
-        if (s.startsWith("•")) return s.substring(1);
-        if (s.startsWith("-")) return s.substring(1);
-        if (s.startsWith("*")) return s.substring(1);
-        return s;
-    }
-
-    private static boolean isHeading(String s) {
-        String u = s.toUpperCase();
-        if (u.equals("EDUCATION")) return true;
-        if (u.equals("SKILLS")) return true;
-        if (u.equals("EXPERIENCE")) return true;
-        if (u.equals("PROJECTS")) return true;
-        if (u.equals("CERTIFICATIONS")) return true;
+    private static boolean isHeading(char[] b, int s, int e) {
+        int n = e - s;
+        for (int h = 0; h < HEADINGS.length; h++) {
+            if (equalsUpper(b, s, n, HEADINGS[h])) return true;
+        }
 
-        if (s.endsWith(":") && s.length() <= 40) return true;
+        if (b[e - 1] == ':' && n <= 40) return true;
 
         boolean hasLetter = false;
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
+        for (int i = s; i < e; i++) {
+            char c = b[i];
             if (Character.isLetter(c)) {
                 hasLetter = true;
                 if (!Character.isUpperCase(c)) return false;
             }
         }
-        return hasLetter && s.length() <= 40;
+        return hasLetter && n <= 40;
+    }
+
+    private static boolean equalsUpper(char[] b, int s, int n, String upper) {
+        if (n != upper.length()) return false;
+        for (int i = 0; i < n; i++) {
+            if (Character.toUpperCase(b[s + i]) != upper.charAt(i)) return false;
+        }
+        return true;
     }
 
     private static String normalizeHeading(String s) {
@@ -0,0 +1,142 @@
+package com.acode.resume.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Runs one ingest of the configured resume source: resume.txt + profile.json from
+// app.ingestion.source-dir, or from classpath resume/ when that is empty.
+//
+// The new corpus is written by content-hash upserts inside a single transaction, so chat traffic
+// keeps reading the previous rows (MVCC, no table lock) and switches to the new ones atomically at
+// commit. The commit is the "swap"; its duration is reported next to the total ingest time.
+// Only one ingest runs at a time.
+@Component
+public class ResumeIngestService {
+
+    private final ChunkWriter chunkWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IngestGeneration generation;
+
+    private final String resumeId;
+    private final String sourceDir;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final boolean incremental;
+
+    private final Timer totalTimer;
+    private final Timer swapTimer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ResumeIngestService(ChunkWriter chunkWriter, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher, IngestGeneration generation, MeterRegistry registry,
+                               @Value("${app.ingestion.resume-id:default}") String resumeId,
+                               @Value("${app.ingestion.source-dir:}") String sourceDir,
+                               @Value("${app.ingestion.batch-size:500}") int batchSize,
+                               @Value("${app.ingestion.queue-capacity:4}") int queueCapacity,
+                               @Value("${app.ingestion.incremental:false}") boolean incremental) {
+        this.chunkWriter = chunkWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.generation = generation;
+        this.resumeId = resumeId;
+        this.sourceDir = sourceDir;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.incremental = incremental;
+
+        this.totalTimer = Timer.builder("ingest.duration")
+                .description("Wall time of one resume ingest, read to commit")
+                .register(registry);
+        this.swapTimer = Timer.builder("ingest.swap")
+                .description("Commit time that makes the new corpus visible")
+                .register(registry);
+    }
+
+    public static class Report {
+        public final String resumeId;
+        public final long generation;
+        public final long chunks;
+        public final long upserted;
+        public final long deleted;
+        public final double totalMs;
+        public final double swapMs;
+
+        Report(String resumeId, long generation, IngestStats stats) {
+            this.resumeId = resumeId;
+            this.generation = generation;
+            this.chunks = stats.chunks.get();
+            this.upserted = stats.upserted.get();
+            this.deleted = stats.deleted.get();
+            this.totalMs = stats.totalNanos / 1e6;
+            this.swapMs = stats.swapNanos / 1e6;
+        }
+    }
+
+    // Watched files, or null when the source is the classpath.
+    public Path[] watchedFiles() {
+        if (sourceDir.isBlank()) return null;
+        Path dir = Path.of(sourceDir);
+        return new Path[]{dir.resolve("resume.txt"), dir.resolve("profile.json")};
+    }
+
+    // Null when another ingest is already running.
+    public Report tryIngest() throws Exception {
+        if (!lock.tryLock()) return null;
+        try {
+            return ingest();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Report ingest() throws Exception {
+        String profile = read("profile.json");
+        String resume = read("resume.txt");
+
+        IngestSource source = new IngestSource() {
+            private boolean done;
+
+            @Override
+            public IngestDocument next() {
+                if (done) return null;
+                done = true;
+                return new IngestDocument(resumeId, "resume.txt", profile, resume);
+            }
+        };
+
+        IngestPipeline pipeline = new IngestPipeline(chunkWriter, transactionTemplate, objectMapper, batchSize, queueCapacity, incremental);
+        IngestStats stats = pipeline.run(source);
+        totalTimer.record(stats.totalNanos, TimeUnit.NANOSECONDS);
+        swapTimer.record(stats.swapNanos, TimeUnit.NANOSECONDS);
+        System.out.println("[INGEST] " + stats.summary());
+
+        long gen = generation.bump();
+        System.out.println("[INGEST] generation=" + gen);
+        eventPublisher.publishEvent(new ResumeIngestedEvent(resumeId, (int) stats.chunks.get()));
+        return new Report(resumeId, gen, stats);
+    }
+
+    private String read(String name) throws Exception {
+        if (sourceDir.isBlank()) {
+            ClassPathResource r = new ClassPathResource("resume/" + name);
+            byte[] bytes = r.getInputStream().readAllBytes();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return Files.readString(Path.of(sourceDir).resolve(name), StandardCharsets.UTF_8);
+    }
+}
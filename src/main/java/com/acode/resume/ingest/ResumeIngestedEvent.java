@@ -0,0 +1,22 @@
+package com.acode.resume.ingest;
+
+import java.util.List;
+
+// Published by ResumeIngestService after the ingest transaction has committed, and by
+// BulkIngestService for each group of resumes a writer commits (bulk = true, on that writer's
+// thread); a BulkIngestFinishedEvent follows the last group.
+public class ResumeIngestedEvent {
+    public final List<String> resumeIds;
+    public final long chunks;
+    public final boolean bulk;
+
+    public ResumeIngestedEvent(String resumeId, int chunks) {
+        this(List.of(resumeId), chunks, false);
+    }
+
+    public ResumeIngestedEvent(List<String> resumeIds, long chunks, boolean bulk) {
+        this.resumeIds = resumeIds;
+        this.chunks = chunks;
+        this.bulk = bulk;
+    }
+}
@@ -0,0 +1,67 @@
+package com.acode.resume.ingest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// With app.ingestion.watch=true and a source-dir set, polls resume.txt / profile.json every
+// app.ingestion.watch-interval-ms and re-ingests once their modification times have changed and
+// then stayed put for one more interval (so a half-written save is not picked up).
+@Component
+public class ResumeSourceWatcher {
+
+    private final ResumeIngestService ingestService;
+    private final boolean enabled;
+
+    private long[] seen;
+    private long[] pending;
+
+    public ResumeSourceWatcher(ResumeIngestService ingestService,
+                               @Value("${app.ingestion.watch:false}") boolean enabled) {
+        this.ingestService = ingestService;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(initialDelayString = "${app.ingestion.watch-interval-ms:2000}", fixedDelayString = "${app.ingestion.watch-interval-ms:2000}")
+    public void poll() {
+        if (!enabled) return;
+        Path[] files = ingestService.watchedFiles();
+        if (files == null) return;
+
+        long[] now = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            try {
+                now[i] = Files.getLastModifiedTime(files[i]).toMillis();
+            } catch (Exception e) {
+                now[i] = -1;
+            }
+        }
+
+        if (seen == null) {
+            seen = now;
+            return;
+        }
+        if (Arrays.equals(now, seen)) {
+            pending = null;
+            return;
+        }
+        if (pending == null || !Arrays.equals(now, pending)) {
+            pending = now;
+            return;
+        }
+
+        try {
+            ResumeIngestService.Report r = ingestService.tryIngest();
+            if (r == null) return; // another ingest is running; try again next poll
+            System.out.println("[INGEST] source change re-ingested: total=" + r.totalMs + "ms swap=" + r.swapMs + "ms");
+        } catch (Exception e) {
+            System.out.println("[INGEST] re-ingest after source change failed: " + e.getMessage());
+        }
+        seen = now;
+        pending = null;
+    }
+}
@@ -0,0 +1,424 @@
+package com.acode.resume.retrieval;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Immutable in-memory index over resume_chunks: a BM25 inverted index for the "fts" leg
+// and a character-trigram index for the "trgm" leg. Rebuilt from scratch on every load
+// and swapped in as a whole, so readers never see a half-built index.
+// write / read move a built index in and out of a CorpusSnapshot without re-analyzing any text.
+public final class ChunkIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // BM25 as a fraction of the query's best possible score, scaled onto ts_rank's 0..0.1 range
+    // (unweighted tsvectors, default weights). The scale only puts the numbers in the same
+    // ballpark; ranks, stems (TextAnalyzer's Porter stemmer vs. Postgres's Snowball english) and
+    // therefore fallback decisions can differ from postgres mode, which is why the memory and
+    // snapshot engines have their own thresholds (app.retrieval.thresholds.memory-location).
+    private static final double RANK_SCALE = 0.1;
+
+    // pg_trgm.similarity_threshold default, i.e. what "content % ?" filters on
+    private static final double TRGM_MATCH = 0.3;
+
+    private final long[] ids;
+    private final String[] sections;
+    private final String[] types;
+
+    // answer formatting offsets (ChunkRow.prefixEnd / bodyStart), carried so rows keep them
+    private final int[] prefixEnds;
+    private final int[] bodyStarts;
+
+    // chunk text: heap strings when built from rows; otherwise UTF-8 in a snapshot's mapped arena,
+    // decoded only for the rows a search returns
+    private final String[] contents;
+    private final ByteBuffer arena;
+    private final int[] offsets;
+
+    // BM25: doc ids per term are ascending, tfs run parallel to them
+    private final Map<String, Integer> termIds;
+    private final int[][] postings;
+    private final int[][] tfs;
+    private final int[] docLen;
+    private final double avgDocLen;
+
+    // trigrams: sorted keys, doc ids per key are ascending
+    private final long[] trigramKeys;
+    private final int[][] trigramPostings;
+    private final int[] trigramCount;
+
+    private ChunkIndex(long[] ids, String[] sections, String[] contents, String[] types, int[] prefixEnds, int[] bodyStarts) {
+        this.ids = ids;
+        this.sections = sections;
+        this.contents = contents;
+        this.types = types;
+        this.prefixEnds = prefixEnds;
+        this.bodyStarts = bodyStarts;
+        this.arena = null;
+        this.offsets = null;
+
+        int n = ids.length;
+
+        // ---- BM25 ----
+        Map<String, Integer> termIds = new HashMap<>();
+        List<int[]> postingBuf = new ArrayList<>();
+        List<int[]> tfBuf = new ArrayList<>();
+        int[] postingLen = new int[16];
+        int[] docLen = new int[n];
+        long totalLen = 0;
+
+        for (int d = 0; d < n; d++) {
+            List<String> lex = TextAnalyzer.lexemes(contents[d]);
+            docLen[d] = lex.size();
+            totalLen += lex.size();
+
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i < lex.size(); i++) counts.merge(lex.get(i), 1, Integer::sum);
+
+            for (Map.Entry<String, Integer> e : counts.entrySet()) {
+                Integer t = termIds.get(e.getKey());
+                if (t == null) {
+                    t = termIds.size();
+                    termIds.put(e.getKey(), t);
+                    postingBuf.add(new int[4]);
+                    tfBuf.add(new int[4]);
+                    if (t >= postingLen.length) postingLen = Arrays.copyOf(postingLen, postingLen.length * 2);
+                }
+                int len = postingLen[t];
+                int[] p = postingBuf.get(t);
+                if (len == p.length) {
+                    p = Arrays.copyOf(p, len * 2);
+                    postingBuf.set(t, p);
+                    tfBuf.set(t, Arrays.copyOf(tfBuf.get(t), len * 2));
+                }
+                p[len] = d;
+                tfBuf.get(t)[len] = e.getValue();
+                postingLen[t] = len + 1;
+            }
+        }
+
+        int terms = termIds.size();
+        this.postings = new int[terms][];
+        this.tfs = new int[terms][];
+        for (int t = 0; t < terms; t++) {
+            postings[t] = Arrays.copyOf(postingBuf.get(t), postingLen[t]);
+            tfs[t] = Arrays.copyOf(tfBuf.get(t), postingLen[t]);
+        }
+        this.termIds = termIds;
+        this.docLen = docLen;
+        this.avgDocLen = n == 0 ? 0 : (double) totalLen / n;
+
+        // ---- trigrams ----
+        Map<Long, List<Integer>> tri = new HashMap<>();
+        int[] trigramCount = new int[n];
+        for (int d = 0; d < n; d++) {
+            long[] ts = TextAnalyzer.trigrams(contents[d]);
+            trigramCount[d] = ts.length;
+            for (int i = 0; i < ts.length; i++) {
+                tri.computeIfAbsent(ts[i], k -> new ArrayList<>()).add(d);
+            }
+        }
+
+        long[] keys = new long[tri.size()];
+        int k = 0;
+        for (Long key : tri.keySet()) keys[k++] = key;
+        Arrays.sort(keys);
+
+        int[][] tp = new int[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            List<Integer> docs = tri.get(keys[i]);
+            int[] arr = new int[docs.size()];
+            for (int j = 0; j < arr.length; j++) arr[j] = docs.get(j);
+            tp[i] = arr;
+        }
+        this.trigramKeys = keys;
+        this.trigramPostings = tp;
+        this.trigramCount = trigramCount;
+    }
+
+    private ChunkIndex(long[] ids, String[] sections, String[] types, int[] prefixEnds, int[] bodyStarts,
+                       ByteBuffer arena, int[] offsets,
+                       Map<String, Integer> termIds, int[][] postings, int[][] tfs, int[] docLen, double avgDocLen,
+                       long[] trigramKeys, int[][] trigramPostings, int[] trigramCount) {
+        this.ids = ids;
+        this.sections = sections;
+        this.types = types;
+        this.prefixEnds = prefixEnds;
+        this.bodyStarts = bodyStarts;
+        this.contents = null;
+        this.arena = arena;
+        this.offsets = offsets;
+        this.termIds = termIds;
+        this.postings = postings;
+        this.tfs = tfs;
+        this.docLen = docLen;
+        this.avgDocLen = avgDocLen;
+        this.trigramKeys = trigramKeys;
+        this.trigramPostings = trigramPostings;
+        this.trigramCount = trigramCount;
+    }
+
+    public static ChunkIndex build(List<ChunkRow> rows) {
+        int n = rows.size();
+        long[] ids = new long[n];
+        String[] sections = new String[n];
+        String[] contents = new String[n];
+        String[] types = new String[n];
+        int[] prefixEnds = new int[n];
+        int[] bodyStarts = new int[n];
+        for (int i = 0; i < n; i++) {
+            ChunkRow r = rows.get(i);
+            ids[i] = r.id;
+            sections[i] = r.section;
+            contents[i] = r.content;
+            types[i] = r.type;
+            prefixEnds[i] = r.prefixEnd;
+            bodyStarts[i] = r.bodyStart;
+        }
+        return new ChunkIndex(ids, sections, contents, types, prefixEnds, bodyStarts);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // plainto_tsquery semantics: every query lexeme must be present in the chunk.
+    public List<ChunkRow> fts(String q, int limit) {
+        return fts(TextAnalyzer.lexemes(q).toArray(new String[0]), limit);
+    }
+
+    // lexemes as produced by TextAnalyzer.lexemes (duplicates allowed)
+    public List<ChunkRow> fts(String[] lexemes, int limit) {
+        Set<String> terms = new HashSet<>(Arrays.asList(lexemes));
+        if (terms.isEmpty()) return new ArrayList<>();
+
+        int[] termList = new int[terms.size()];
+        int k = 0;
+        for (String term : terms) {
+            Integer t = termIds.get(term);
+            if (t == null) return new ArrayList<>();
+            termList[k++] = t;
+        }
+
+        int n = ids.length;
+        double maxScore = 0;
+        double[] idf = new double[termList.length];
+        int shortest = 0;
+        for (int i = 0; i < termList.length; i++) {
+            int df = postings[termList[i]].length;
+            idf[i] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            maxScore += idf[i] * (K1 + 1);
+            if (df < postings[termList[shortest]].length) shortest = i;
+        }
+
+        int[] base = postings[termList[shortest]];
+        int[] cand = new int[base.length];
+        double[] scores = new double[base.length];
+        int found = 0;
+
+        for (int p = 0; p < base.length; p++) {
+            int d = base[p];
+            double s = 0;
+            boolean all = true;
+            for (int i = 0; i < termList.length; i++) {
+                int[] post = postings[termList[i]];
+                int at = i == shortest ? p : Arrays.binarySearch(post, d);
+                if (at < 0) {
+                    all = false;
+                    break;
+                }
+                int tf = tfs[termList[i]][at];
+                double norm = K1 * (1 - B + B * docLen[d] / avgDocLen);
+                s += idf[i] * tf * (K1 + 1) / (tf + norm);
+            }
+            if (!all) continue;
+            cand[found] = d;
+            scores[found] = maxScore == 0 ? 0 : RANK_SCALE * s / maxScore;
+            found++;
+        }
+
+        return top(cand, scores, found, limit, "fts");
+    }
+
+    // similarity(content, q) over pg_trgm trigram sets, filtered like "content % q".
+    public List<ChunkRow> trgm(String q, int limit) {
+        return trgm(TextAnalyzer.trigrams(q), limit);
+    }
+
+    // sorted, distinct trigrams as produced by TextAnalyzer.trigrams
+    public List<ChunkRow> trgm(long[] qt, int limit) {
+        if (qt.length == 0) return new ArrayList<>();
+
+        int n = ids.length;
+        int[] shared = new int[n];
+        for (int i = 0; i < qt.length; i++) {
+            int at = Arrays.binarySearch(trigramKeys, qt[i]);
+            if (at < 0) continue;
+            int[] docs = trigramPostings[at];
+            for (int j = 0; j < docs.length; j++) shared[docs[j]]++;
+        }
+
+        int[] cand = new int[n];
+        double[] scores = new double[n];
+        int found = 0;
+        for (int d = 0; d < n; d++) {
+            int c = shared[d];
+            if (c == 0) continue;
+            double sim = (double) c / (qt.length + trigramCount[d] - c);
+            if (sim < TRGM_MATCH) continue;
+            cand[found] = d;
+            scores[found] = sim;
+            found++;
+        }
+
+        return top(cand, scores, found, limit, "trgm");
+    }
+
+    private List<ChunkRow> top(int[] cand, double[] scores, int found, int limit, String method) {
+        int k = Math.min(limit, found);
+        int[] best = new int[k];
+        int filled = 0;
+
+        // insertion into a small sorted window; ties keep document order
+        for (int i = 0; i < found; i++) {
+            double s = scores[i];
+            if (filled == k && (k == 0 || s <= scores[best[k - 1]])) continue;
+            int pos = filled < k ? filled++ : k - 1;
+            while (pos > 0 && scores[best[pos - 1]] < s) {
+                best[pos] = best[pos - 1];
+                pos--;
+            }
+            best[pos] = i;
+        }
+
+        List<ChunkRow> out = new ArrayList<>(filled);
+        for (int i = 0; i < filled; i++) {
+            int d = cand[best[i]];
+            out.add(new ChunkRow(ids[d], sections[d], content(d), scores[best[i]], method, types[d], prefixEnds[d], bodyStarts[d]));
+        }
+        return out;
+    }
+
+    private String content(int d) {
+        if (contents != null) return contents[d];
+        byte[] b = new byte[offsets[d + 1] - offsets[d]];
+        arena.get(offsets[d], b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // Snapshot block, in order: n, ids, section and type dictionaries + one short code per chunk,
+    // prefix ends and body starts (char offsets into the decoded content), n + 1 content offsets and the UTF-8 arena, BM25 terms (term, df, postings, tfs), doc
+    // lengths, average doc length, trigram keys with their postings, trigram counts.
+    void write(DataOutputStream out) throws IOException {
+        int n = ids.length;
+        out.writeInt(n);
+        for (int d = 0; d < n; d++) out.writeLong(ids[d]);
+        writeCodes(out, sections);
+        writeCodes(out, types);
+        for (int d = 0; d < n; d++) out.writeInt(prefixEnds[d]);
+        for (int d = 0; d < n; d++) out.writeInt(bodyStarts[d]);
+
+        byte[][] text = new byte[n][];
+        int off = 0;
+        out.writeInt(0);
+        for (int d = 0; d < n; d++) {
+            text[d] = content(d).getBytes(StandardCharsets.UTF_8);
+            off += text[d].length;
+            out.writeInt(off);
+        }
+        for (int d = 0; d < n; d++) out.write(text[d]);
+
+        String[] terms = new String[termIds.size()];
+        for (Map.Entry<String, Integer> e : termIds.entrySet()) terms[e.getValue()] = e.getKey();
+        out.writeInt(terms.length);
+        for (int t = 0; t < terms.length; t++) {
+            CorpusSnapshot.writeString(out, terms[t]);
+            out.writeInt(postings[t].length);
+            for (int i = 0; i < postings[t].length; i++) out.writeInt(postings[t][i]);
+            for (int i = 0; i < tfs[t].length; i++) out.writeInt(tfs[t][i]);
+        }
+        for (int d = 0; d < n; d++) out.writeInt(docLen[d]);
+        out.writeDouble(avgDocLen);
+
+        out.writeInt(trigramKeys.length);
+        for (int i = 0; i < trigramKeys.length; i++) out.writeLong(trigramKeys[i]);
+        for (int i = 0; i < trigramKeys.length; i++) {
+            out.writeInt(trigramPostings[i].length);
+            for (int j = 0; j < trigramPostings[i].length; j++) out.writeInt(trigramPostings[i][j]);
+        }
+        for (int d = 0; d < n; d++) out.writeInt(trigramCount[d]);
+    }
+
+    // Reads a block written by write, advancing buf past it. The content arena is a view of buf.
+    static ChunkIndex read(ByteBuffer buf) {
+        int n = buf.getInt();
+        long[] ids = CorpusSnapshot.readLongs(buf, n);
+        String[] sections = readCodes(buf, n);
+        String[] types = readCodes(buf, n);
+        int[] prefixEnds = CorpusSnapshot.readInts(buf, n);
+        int[] bodyStarts = CorpusSnapshot.readInts(buf, n);
+
+        int[] offsets = CorpusSnapshot.readInts(buf, n + 1);
+        ByteBuffer arena = buf.slice(buf.position(), offsets[n]);
+        buf.position(buf.position() + offsets[n]);
+
+        int terms = buf.getInt();
+        Map<String, Integer> termIds = new HashMap<>(terms * 2);
+        int[][] postings = new int[terms][];
+        int[][] tfs = new int[terms][];
+        for (int t = 0; t < terms; t++) {
+            termIds.put(CorpusSnapshot.readString(buf), t);
+            int df = buf.getInt();
+            postings[t] = CorpusSnapshot.readInts(buf, df);
+            tfs[t] = CorpusSnapshot.readInts(buf, df);
+        }
+        int[] docLen = CorpusSnapshot.readInts(buf, n);
+        double avgDocLen = buf.getDouble();
+
+        int keys = buf.getInt();
+        long[] trigramKeys = CorpusSnapshot.readLongs(buf, keys);
+        int[][] trigramPostings = new int[keys][];
+        for (int i = 0; i < keys; i++) trigramPostings[i] = CorpusSnapshot.readInts(buf, buf.getInt());
+        int[] trigramCount = CorpusSnapshot.readInts(buf, n);
+
+        return new ChunkIndex(ids, sections, types, prefixEnds, bodyStarts, arena, offsets, termIds, postings, tfs, docLen, avgDocLen,
+                trigramKeys, trigramPostings, trigramCount);
+    }
+
+    // dictionary in first-seen order, then one code per chunk
+    private static void writeCodes(DataOutputStream out, String[] values) throws IOException {
+        Map<String, Integer> dict = new LinkedHashMap<>();
+        short[] codes = new short[values.length];
+        for (int d = 0; d < values.length; d++) {
+            Integer c = dict.get(values[d]);
+            if (c == null) {
+                c = dict.size();
+                if (c > Short.MAX_VALUE) throw new IllegalStateException("more than " + Short.MAX_VALUE + " distinct values");
+                dict.put(values[d], c);
+            }
+            codes[d] = (short) (int) c;
+        }
+        out.writeInt(dict.size());
+        for (String v : dict.keySet()) CorpusSnapshot.writeString(out, v);
+        for (int d = 0; d < codes.length; d++) out.writeShort(codes[d]);
+    }
+
+    private static String[] readCodes(ByteBuffer buf, int n) {
+        String[] dict = new String[buf.getInt()];
+        for (int i = 0; i < dict.length; i++) dict[i] = CorpusSnapshot.readString(buf);
+        String[] out = new String[n];
+        for (int d = 0; d < n; d++) out[d] = dict[buf.getShort()];
+        return out;
+    }
+}
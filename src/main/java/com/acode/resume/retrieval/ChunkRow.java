@@ -0,0 +1,32 @@
+package com.acode.resume.retrieval;
+
+import com.acode.resume.ingest.ResumeChunker;
+
+public class ChunkRow {
+    public final long id;
+    public final String section;
+    public final String content;
+    public final double score;
+    public final String method;   // "fts" or "trgm"
+    public final String type;     // "bullet", "header", "line"
+    public final int prefixEnd;   // answer group title is content[0, prefixEnd), section when 0
+    public final int bodyStart;   // bullet text is content[bodyStart, length)
+
+    public ChunkRow(long id, String section, String content, double score, String method, String type) {
+        this(id, section, content, score, method, type, -1, -1);
+    }
+
+    // prefixEnd / bodyStart come from the chunk metadata written at ingest; -1 (chunks written
+    // before the offsets were stored) computes them from content
+    public ChunkRow(long id, String section, String content, double score, String method, String type,
+                    int prefixEnd, int bodyStart) {
+        this.id = id;
+        this.section = section;
+        this.content = content;
+        this.score = score;
+        this.method = method;
+        this.type = type;
+        this.prefixEnd = prefixEnd < 0 ? ResumeChunker.prefixEnd(content) : prefixEnd;
+        this.bodyStart = bodyStart < 0 ? ResumeChunker.bodyStart(content) : bodyStart;
+    }
+}
@@ -0,0 +1,211 @@
+package com.acode.resume.retrieval;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Versioned, checksummed binary image of the corpus: every resume's chunks with their prebuilt
+// ChunkIndex, plus the latest profile JSON. Written by CorpusSnapshotStore after an ingest and
+// memory-mapped read-only at boot by nodes running app.retrieval.mode=snapshot, so they answer
+// chat without Postgres on the read path and without re-analyzing any text.
+//
+// Layout (big-endian; strings are an int byte length + UTF-8):
+//   int    magic "RSNP"
+//   int    format version
+//   long   created-at, epoch ms
+//   per resume: string resume id, string profile JSON ("" = none), ChunkIndex block (see ChunkIndex.write)
+//   int    resume count
+//   long   CRC32 of every byte before it
+//
+// Chunk text stays in the mapping; postings and dictionaries are copied onto the heap once.
+public final class CorpusSnapshot {
+
+    static final int MAGIC = 0x52534E50;
+    static final int VERSION = 2;
+
+    private static final int HEADER = 16;
+    private static final int TRAILER = 12;
+
+    public final Path path;
+    public final long createdAt;
+    public final long checksum;
+    public final long bytes;
+
+    private final Map<String, ChunkIndex> indexes;
+    private final Map<String, String> profiles;
+    private final long chunks;
+
+    private CorpusSnapshot(Path path, long createdAt, long checksum, long bytes,
+                           Map<String, ChunkIndex> indexes, Map<String, String> profiles, long chunks) {
+        this.path = path;
+        this.createdAt = createdAt;
+        this.checksum = checksum;
+        this.bytes = bytes;
+        this.indexes = indexes;
+        this.profiles = profiles;
+        this.chunks = chunks;
+    }
+
+    // null for resumes the snapshot does not contain
+    public ChunkIndex index(String resumeId) {
+        return indexes.get(resumeId);
+    }
+
+    // Latest profile JSON, or null when the resume has none.
+    public String profile(String resumeId) {
+        return profiles.get(resumeId);
+    }
+
+    public int resumes() {
+        return indexes.size();
+    }
+
+    public long chunks() {
+        return chunks;
+    }
+
+    // Maps the file and checks magic, version and checksum before decoding anything.
+    public static CorpusSnapshot map(Path path) throws IOException {
+        MappedByteBuffer buf;
+        long size;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = ch.size();
+            if (size < HEADER + TRAILER) throw new IOException("corpus snapshot " + path + " is truncated");
+            if (size > Integer.MAX_VALUE) throw new IOException("corpus snapshot " + path + " is larger than 2 GB");
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int end = (int) size - TRAILER;
+        if (buf.getInt(0) != MAGIC) throw new IOException(path + " is not a corpus snapshot");
+        int version = buf.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("corpus snapshot " + path + " has format version " + version + ", expected " + VERSION);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().position(0).limit(end + 4));
+        long checksum = buf.getLong(end + 4);
+        if (crc.getValue() != checksum) throw new IOException("corpus snapshot " + path + " fails its checksum");
+
+        int count = buf.getInt(end);
+        long createdAt = buf.getLong(8);
+        buf.position(HEADER);
+
+        Map<String, ChunkIndex> indexes = new HashMap<>(count * 2);
+        Map<String, String> profiles = new HashMap<>(count * 2);
+        long chunks = 0;
+        for (int i = 0; i < count; i++) {
+            String resumeId = readString(buf);
+            String profile = readString(buf);
+            ChunkIndex index = ChunkIndex.read(buf);
+            indexes.put(resumeId, index);
+            if (profile.length() > 0) profiles.put(resumeId, profile);
+            chunks += index.size();
+        }
+        if (buf.position() != end) throw new IOException("corpus snapshot " + path + " has trailing bytes");
+
+        return new CorpusSnapshot(path, createdAt, checksum, size, indexes, profiles, chunks);
+    }
+
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(path);
+    }
+
+    // Appends one resume at a time, so only one resume's index is in memory while writing. The file
+    // is written next to the target and renamed over it on commit; nodes that already mapped the
+    // old file keep reading it.
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+        private final Path tmp;
+        private final FileOutputStream file;
+        private final CheckedOutputStream checked;
+        private final DataOutputStream out;
+        private int count;
+        private boolean committed;
+
+        private Writer(Path path) throws IOException {
+            Path dir = path.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            this.path = path;
+            this.tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.file = new FileOutputStream(tmp.toFile());
+            this.checked = new CheckedOutputStream(file, new CRC32());
+            this.out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+        }
+
+        public void add(String resumeId, String profileJson, List<ChunkRow> rows) throws IOException {
+            writeString(out, resumeId);
+            writeString(out, profileJson == null ? "" : profileJson);
+            ChunkIndex.build(rows).write(out);
+            count++;
+        }
+
+        // Returns the file size.
+        public long commit() throws IOException {
+            out.writeInt(count);
+            out.flush();
+            long crc = checked.getChecksum().getValue();
+            out.writeLong(crc);
+            out.flush();
+            file.getFD().sync();
+            out.close();
+
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return Files.size(path);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            out.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    static String readString(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    static int[] readInts(ByteBuffer buf, int n) {
+        int[] a = new int[n];
+        buf.asIntBuffer().get(a);
+        buf.position(buf.position() + 4 * n);
+        return a;
+    }
+
+    static long[] readLongs(ByteBuffer buf, int n) {
+        long[] a = new long[n];
+        buf.asLongBuffer().get(a);
+        buf.position(buf.position() + 8 * n);
+        return a;
+    }
+}
@@ -0,0 +1,150 @@
+package com.acode.resume.retrieval;
+
+import com.acode.resume.ingest.BulkIngestFinishedEvent;
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Owns app.snapshot.path. With app.snapshot.write the ingesting node rewrites the file from the
+// primary after every committed ingest; with app.retrieval.mode=snapshot the file is mapped once
+// at boot and serves retrieval and profile facts. Read-only nodes pick up a newer file on restart.
+@Component
+public class CorpusSnapshotStore {
+
+    private static final String CHUNKS_SQL =
+            "SELECT resume_id, id, section, content, COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks ORDER BY resume_id, id";
+
+    private static final String PROFILES_SQL =
+            "SELECT DISTINCT ON (resume_id) resume_id, profile_json::text AS json " +
+                    "FROM resume_profile ORDER BY resume_id, id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String path;
+    private final boolean write;
+    private final CorpusSnapshot current;
+
+    public CorpusSnapshotStore(JdbcTemplate jdbcTemplate,
+                               @Value("${app.snapshot.path:}") String path,
+                               @Value("${app.snapshot.write:false}") boolean write,
+                               @Value("${app.retrieval.mode:postgres}") String mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.path = path;
+        this.write = write;
+        this.current = "snapshot".equals(mode) ? load() : null;
+    }
+
+    // The mapped snapshot, or null unless app.retrieval.mode=snapshot.
+    public CorpusSnapshot current() {
+        return current;
+    }
+
+    // a bulk run rewrites the file once, when it finishes, not per committed group
+    @EventListener
+    public void onIngested(ResumeIngestedEvent event) {
+        if (event.bulk) return;
+        rewrite();
+    }
+
+    @EventListener
+    public void onBulkFinished(BulkIngestFinishedEvent event) {
+        rewrite();
+    }
+
+    private void rewrite() {
+        if (!write) return;
+        try {
+            write();
+        } catch (Exception e) {
+            // the ingest itself has committed; read-only nodes keep the previous file
+            System.out.println("[SNAPSHOT] writing " + path + " failed: " + e.getMessage());
+        }
+    }
+
+    // Writes every resume's chunks and latest profile. Runs inside the ingest that triggered it, so
+    // no other ingest from this node commits between the two queries.
+    public synchronized long write() throws IOException {
+        if (path.isBlank()) throw new IllegalStateException("app.snapshot.write needs app.snapshot.path");
+        long t0 = System.nanoTime();
+
+        Map<String, String> profiles = new HashMap<>();
+        jdbcTemplate.query(PROFILES_SQL, (RowCallbackHandler) rs -> profiles.put(rs.getString("resume_id"), rs.getString("json")));
+
+        long bytes;
+        int resumes = 0;
+        try (CorpusSnapshot.Writer w = CorpusSnapshot.writer(Path.of(path))) {
+            List<ChunkRow> rows = new ArrayList<>();
+            String[] resumeId = {null};
+            int[] written = {0};
+
+            jdbcTemplate.query(CHUNKS_SQL, (RowCallbackHandler) rs -> {
+                String rid = rs.getString("resume_id");
+                if (resumeId[0] != null && !resumeId[0].equals(rid)) {
+                    add(w, resumeId[0], profiles.remove(resumeId[0]), rows);
+                    written[0]++;
+                    rows.clear();
+                }
+                resumeId[0] = rid;
+                rows.add(new ChunkRow(
+                        rs.getLong("id"),
+                        rs.getString("section"),
+                        rs.getString("content"),
+                        0,
+                        "",
+                        rs.getString("type"),
+                        rs.getInt("prefix_end"),
+                        rs.getInt("body_start")
+                ));
+            });
+            if (resumeId[0] != null) {
+                add(w, resumeId[0], profiles.remove(resumeId[0]), rows);
+                written[0]++;
+            }
+
+            // profiles without chunks still answer fact questions
+            for (Map.Entry<String, String> e : profiles.entrySet()) {
+                w.add(e.getKey(), e.getValue(), List.of());
+                written[0]++;
+            }
+            resumes = written[0];
+            bytes = w.commit();
+        }
+
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("[SNAPSHOT] wrote " + path + " resumes=" + resumes + " bytes=" + bytes + " in " + ms + " ms");
+        return bytes;
+    }
+
+    private static void add(CorpusSnapshot.Writer w, String resumeId, String profile, List<ChunkRow> rows) {
+        try {
+            w.add(resumeId, profile, rows);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot write corpus snapshot for " + resumeId, e);
+        }
+    }
+
+    private CorpusSnapshot load() {
+        if (path.isBlank()) throw new IllegalStateException("app.retrieval.mode=snapshot needs app.snapshot.path");
+        long t0 = System.nanoTime();
+        try {
+            CorpusSnapshot s = CorpusSnapshot.map(Path.of(path));
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            System.out.println("[SNAPSHOT] mapped " + path + " resumes=" + s.resumes() + " chunks=" + s.chunks()
+                    + " bytes=" + s.bytes + " in " + ms + " ms");
+            return s;
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot map corpus snapshot " + path, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.acode.resume.retrieval;
+
+// Maps text to a fixed-size, L2-normalized vector, so cosine similarity is a dot product.
+public interface Embedder {
+
+    int dimension();
+
+    // Writes the embedding of text into out[0 .. dimension()).
+    void embed(String text, float[] out);
+
+    default void embed(NormalizedQuery q, float[] out) {
+        embed(q.text, out);
+    }
+}
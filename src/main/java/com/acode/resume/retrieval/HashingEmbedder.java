@@ -0,0 +1,72 @@
+package com.acode.resume.retrieval;
+
+// CPU-only embedder with no model weights: signed feature hashing of stemmed lexemes, adjacent
+// lexeme pairs and pg_trgm-style character trigrams into a dense vector.
+//
+// It does not know synonyms, but unlike plainto_tsquery it does not need every query term to be
+// present: "what backend work have you done" still lands near chunks that mention "backend",
+// and the trigram features tolerate misspellings. A learned sentence encoder can replace it
+// behind the Embedder interface.
+public final class HashingEmbedder implements Embedder {
+
+    private static final float LEXEME_WEIGHT = 1.0f;
+    private static final float PAIR_WEIGHT = 0.5f;
+    private static final float TRIGRAM_WEIGHT = 0.25f;
+
+    private final int dim;
+
+    public HashingEmbedder(int dim) {
+        if (dim <= 0) throw new IllegalArgumentException("dimension must be positive: " + dim);
+        this.dim = dim;
+    }
+
+    @Override
+    public int dimension() {
+        return dim;
+    }
+
+    @Override
+    public void embed(String text, float[] out) {
+        embed(TextAnalyzer.lexemes(text).toArray(new String[0]), TextAnalyzer.trigrams(text), out);
+    }
+
+    @Override
+    public void embed(NormalizedQuery q, float[] out) {
+        embed(q.lexemes, q.trigrams, out);
+    }
+
+    private void embed(String[] lex, long[] tri, float[] out) {
+        for (int i = 0; i < dim; i++) out[i] = 0;
+
+        for (int i = 0; i < lex.length; i++) {
+            add(out, lex[i].hashCode(), LEXEME_WEIGHT);
+            if (i > 0) add(out, 31 * lex[i - 1].hashCode() + lex[i].hashCode() + 0x5bd1e995, PAIR_WEIGHT);
+        }
+
+        for (int i = 0; i < tri.length; i++) {
+            add(out, Long.hashCode(tri[i] * 0x9E3779B97F4A7C15L), TRIGRAM_WEIGHT);
+        }
+
+        double norm = 0;
+        for (int i = 0; i < dim; i++) norm += out[i] * out[i];
+        if (norm == 0) return;
+        float inv = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dim; i++) out[i] *= inv;
+    }
+
+    // one bucket per feature, sign from an independent bit so collisions cancel out on average
+    private void add(float[] out, int h, float w) {
+        int x = mix(h);
+        int bucket = Math.floorMod(x, dim);
+        out[bucket] += (x & 0x40000000) == 0 ? w : -w;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,243 @@
+package com.acode.resume.retrieval;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+// Hierarchical navigable small world graph over one resume's chunk embeddings (Malkov & Yashunin).
+// Vectors live off-heap in a direct buffer; the graph is built once and never mutated, so
+// searches need no locking. Distance is 1 - dot product of normalized vectors.
+public final class HnswIndex {
+
+    private final int dim;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMult;
+
+    private final FloatBuffer vectors;
+
+    private final long[] ids;
+    private final String[] sections;
+    private final String[] contents;
+    private final String[] types;
+    private final int[] prefixEnds;
+    private final int[] bodyStarts;
+
+    // neighbors[node][level] = ids of linked nodes; counts run parallel
+    private final int[][][] neighbors;
+    private final int[][] counts;
+    private final int[] levels;
+
+    private int entry = -1;
+    private int topLevel = -1;
+
+    private HnswIndex(List<ChunkRow> rows, Embedder embedder, int m, int efConstruction) {
+        int n = rows.size();
+        this.dim = embedder.dimension();
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMult = 1 / Math.log(Math.max(2, m));
+
+        this.vectors = ByteBuffer.allocateDirect(Math.max(1, n) * dim * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+
+        this.ids = new long[n];
+        this.sections = new String[n];
+        this.contents = new String[n];
+        this.types = new String[n];
+        this.prefixEnds = new int[n];
+        this.bodyStarts = new int[n];
+        this.neighbors = new int[n][][];
+        this.counts = new int[n][];
+        this.levels = new int[n];
+
+        float[] v = new float[dim];
+        Random rnd = new Random(42);
+        for (int i = 0; i < n; i++) {
+            ChunkRow r = rows.get(i);
+            ids[i] = r.id;
+            sections[i] = r.section;
+            contents[i] = r.content;
+            types[i] = r.type;
+            prefixEnds[i] = r.prefixEnd;
+            bodyStarts[i] = r.bodyStart;
+
+            embedder.embed(r.content, v);
+            vectors.put(i * dim, v);
+
+            insert(i, (int) (-Math.log(1 - rnd.nextDouble()) * levelMult));
+        }
+    }
+
+    public static HnswIndex build(List<ChunkRow> rows, Embedder embedder, int m, int efConstruction) {
+        return new HnswIndex(rows, embedder, m, efConstruction);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // The k nearest chunks to the (already embedded) query with cosine >= minSimilarity,
+    // best first, as ChunkRows with method "vector" and the cosine as score.
+    public List<ChunkRow> search(float[] q, int k, int ef, double minSimilarity) {
+        List<ChunkRow> out = new ArrayList<>();
+        if (entry < 0) return out;
+
+        int cur = entry;
+        float curDist = distance(q, cur);
+        for (int l = topLevel; l > 0; l--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] nb = neighbors[cur][l];
+                for (int j = 0; j < counts[cur][l]; j++) {
+                    float d = distance(q, nb[j]);
+                    if (d < curDist) {
+                        curDist = d;
+                        cur = nb[j];
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        PriorityQueue<Cand> found = searchLayer(q, cur, Math.max(ef, k), 0);
+        Cand[] best = found.toArray(new Cand[0]);
+        Arrays.sort(best, (a, b) -> Float.compare(a.dist, b.dist));
+        for (int i = 0; i < best.length && out.size() < k; i++) {
+            double sim = 1 - best[i].dist;
+            if (sim < minSimilarity) break;
+            int d = best[i].node;
+            out.add(new ChunkRow(ids[d], sections[d], contents[d], sim, "vector", types[d], prefixEnds[d], bodyStarts[d]));
+        }
+        return out;
+    }
+
+    private void insert(int node, int level) {
+        levels[node] = level;
+        neighbors[node] = new int[level + 1][];
+        counts[node] = new int[level + 1];
+        for (int l = 0; l <= level; l++) neighbors[node][l] = new int[(l == 0 ? maxM0 : m) + 1];
+
+        if (entry < 0) {
+            entry = node;
+            topLevel = level;
+            return;
+        }
+
+        float[] q = new float[dim];
+        vectors.get(node * dim, q);
+
+        int cur = entry;
+        float curDist = distance(q, cur);
+        for (int l = topLevel; l > level; l--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] nb = neighbors[cur][l];
+                for (int j = 0; j < counts[cur][l]; j++) {
+                    float d = distance(q, nb[j]);
+                    if (d < curDist) {
+                        curDist = d;
+                        cur = nb[j];
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            PriorityQueue<Cand> found = searchLayer(q, cur, efConstruction, l);
+            Cand[] sorted = found.toArray(new Cand[0]);
+            Arrays.sort(sorted, (a, b) -> Float.compare(a.dist, b.dist));
+
+            int keep = Math.min(m, sorted.length);
+            for (int j = 0; j < keep; j++) {
+                link(node, sorted[j].node, l);
+                link(sorted[j].node, node, l);
+            }
+            cur = sorted[0].node;
+        }
+
+        if (level > topLevel) {
+            topLevel = level;
+            entry = node;
+        }
+    }
+
+    // Adds to's id to from's list at level l; an overfull list keeps its closest members.
+    private void link(int from, int to, int l) {
+        int max = l == 0 ? maxM0 : m;
+        int[] nb = neighbors[from][l];
+        int c = counts[from][l];
+        nb[c++] = to;
+        if (c > max) {
+            float[] base = new float[dim];
+            vectors.get(from * dim, base);
+            Cand[] all = new Cand[c];
+            for (int j = 0; j < c; j++) all[j] = new Cand(nb[j], distance(base, nb[j]));
+            Arrays.sort(all, (a, b) -> Float.compare(a.dist, b.dist));
+            for (int j = 0; j < max; j++) nb[j] = all[j].node;
+            c = max;
+        }
+        counts[from][l] = c;
+    }
+
+    // Best-first search within one level; returns up to ef closest nodes (max-heap by distance).
+    private PriorityQueue<Cand> searchLayer(float[] q, int start, int ef, int l) {
+        boolean[] visited = new boolean[ids.length];
+        PriorityQueue<Cand> candidates = new PriorityQueue<>((a, b) -> Float.compare(a.dist, b.dist));
+        PriorityQueue<Cand> results = new PriorityQueue<>((a, b) -> Float.compare(b.dist, a.dist));
+
+        Cand s = new Cand(start, distance(q, start));
+        visited[start] = true;
+        candidates.add(s);
+        results.add(s);
+
+        while (!candidates.isEmpty()) {
+            Cand c = candidates.poll();
+            if (c.dist > results.peek().dist && results.size() >= ef) break;
+
+            int[] nb = neighbors[c.node][l];
+            for (int j = 0; j < counts[c.node][l]; j++) {
+                int e = nb[j];
+                if (visited[e]) continue;
+                visited[e] = true;
+
+                float d = distance(q, e);
+                if (results.size() < ef || d < results.peek().dist) {
+                    Cand ce = new Cand(e, d);
+                    candidates.add(ce);
+                    results.add(ce);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+        return results;
+    }
+
+    private float distance(float[] q, int node) {
+        int off = node * dim;
+        float dot = 0;
+        for (int i = 0; i < dim; i++) dot += q[i] * vectors.get(off + i);
+        return 1 - dot;
+    }
+
+    private static final class Cand {
+        final int node;
+        final float dist;
+
+        Cand(int node, float dist) {
+            this.node = node;
+            this.dist = dist;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.acode.resume.retrieval;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Both lexical legs in one statement: the fts and trgm candidate sets are CTEs over their own
+// GIN indexes, and the choice between them happens in the database, so every search is a single
+// round-trip with one plan regardless of which branch wins.
+//
+// app.retrieval.hybrid.fusion:
+//   fallback  same decision as LexicalFallbackEngine (fts >= ftsAccept, else trgm rows >= trgmAccept,
+//             else fts >= ftsWeak), so answers match the postgres mode
+//   rrf       reciprocal-rank fusion of fts rows >= ftsWeak and trgm rows >= trgmAccept;
+//             score = sum of 1 / (rrf-k + rank) over the legs a chunk appears in
+//
+// The RetrievalThresholds cutoffs are written into the statements when the engine is built: a
+// plain literal, or with per-section overrides a CASE on the row's section (the top fts row's for
+// the fts cutoffs, each trgm row's own for trgmAccept), the same lookup LexicalFallbackEngine does.
+@Component
+@ConditionalOnProperty(name = "app.retrieval.mode", havingValue = "hybrid")
+public class HybridRetrievalEngine implements RetrievalEngine {
+
+    private static final String FALLBACK_SQL =
+            "WITH fts AS (" +
+                    "SELECT id, section, content, ts_rank(tsv, query) AS score, " +
+                    "COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks, plainto_tsquery('english', ?) AS query " +
+                    "WHERE resume_id = ? AND tsv @@ query " +
+                    "ORDER BY score DESC LIMIT ?" +
+                    "), trgm AS (" +
+                    "SELECT id, section, content, similarity(content, ?) AS score, " +
+                    "COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks " +
+                    "WHERE resume_id = ? AND content % ? " +
+                    "ORDER BY score DESC LIMIT ?" +
+                    "), top AS (" +
+                    "SELECT score, section FROM fts ORDER BY score DESC LIMIT 1" +
+                    "), decision AS (" +
+                    "SELECT CASE " +
+                    "WHEN EXISTS (SELECT 1 FROM top WHERE score >= {ftsAccept:section}) THEN 'fts_accepted' " +
+                    "WHEN EXISTS (SELECT 1 FROM trgm WHERE score >= {trgmAccept:section}) THEN 'trgm_accepted' " +
+                    "WHEN EXISTS (SELECT 1 FROM top WHERE score >= {ftsWeak:section}) THEN 'fts_weak_accepted' " +
+                    "ELSE 'empty' END AS d" +
+                    ") " +
+                    "SELECT f.id, f.section, f.content, f.score, 'fts' AS method, f.type, f.prefix_end, f.body_start, d.d AS decision " +
+                    "FROM fts f, decision d WHERE d.d IN ('fts_accepted', 'fts_weak_accepted') " +
+                    "UNION ALL " +
+                    "SELECT t.id, t.section, t.content, t.score, 'trgm' AS method, t.type, t.prefix_end, t.body_start, d.d AS decision " +
+                    "FROM trgm t, decision d WHERE d.d = 'trgm_accepted' AND t.score >= {trgmAccept:t.section} " +
+                    "ORDER BY score DESC";
+
+    private static final String RRF_SQL =
+            "WITH fts AS (" +
+                    "SELECT x.*, row_number() OVER (ORDER BY x.score DESC) AS rk FROM (" +
+                    "SELECT id, section, content, ts_rank(tsv, query) AS score, " +
+                    "COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks, plainto_tsquery('english', ?) AS query " +
+                    "WHERE resume_id = ? AND tsv @@ query " +
+                    "ORDER BY score DESC LIMIT ?) x" +
+                    "), trgm AS (" +
+                    "SELECT x.*, row_number() OVER (ORDER BY x.score DESC) AS rk FROM (" +
+                    "SELECT id, section, content, similarity(content, ?) AS score, " +
+                    "COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks " +
+                    "WHERE resume_id = ? AND content % ? " +
+                    "ORDER BY score DESC LIMIT ?) x" +
+                    ") " +
+                    "SELECT COALESCE(f.id, t.id) AS id, COALESCE(f.section, t.section) AS section, " +
+                    "COALESCE(f.content, t.content) AS content, " +
+                    "COALESCE(1.0 / (? + f.rk), 0) + COALESCE(1.0 / (? + t.rk), 0) AS score, " +
+                    "CASE WHEN t.id IS NULL THEN 'fts' WHEN f.id IS NULL THEN 'trgm' ELSE 'hybrid' END AS method, " +
+                    "COALESCE(f.type, t.type) AS type, COALESCE(f.prefix_end, t.prefix_end) AS prefix_end, " +
+                    "COALESCE(f.body_start, t.body_start) AS body_start, 'rrf_fused' AS decision " +
+                    "FROM (SELECT * FROM fts WHERE score >= {ftsWeak:section}) f " +
+                    "FULL OUTER JOIN (SELECT * FROM trgm WHERE score >= {trgmAccept:section}) t ON f.id = t.id " +
+                    "ORDER BY score DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RetrievalThresholds thresholds;
+    private final String sql;
+    private final boolean rrf;
+    private final int rrfK;
+
+    public HybridRetrievalEngine(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate, RetrievalThresholds thresholds,
+                                 @Value("${app.retrieval.hybrid.fusion:fallback}") String fusion,
+                                 @Value("${app.retrieval.hybrid.rrf-k:60}") int rrfK) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.thresholds = thresholds;
+        this.rrf = "rrf".equals(fusion);
+        this.rrfK = rrfK;
+        if (!rrf && !"fallback".equals(fusion)) {
+            throw new IllegalArgumentException("app.retrieval.hybrid.fusion must be fallback or rrf, got: " + fusion);
+        }
+        this.sql = withCutoffs(rrf ? RRF_SQL : FALLBACK_SQL, thresholds);
+    }
+
+    @Override
+    public List<ChunkRow> search(String resumeId, String q, int limit, RetrievalTrace trace) {
+        String[] decision = {RetrievalTrace.EMPTY};
+        long t0 = System.nanoTime();
+
+        List<ChunkRow> rows;
+        if (rrf) {
+            rows = jdbcTemplate.query(
+                    sql,
+                    mapper(decision),
+                    q, resumeId, limit,
+                    q, resumeId, q, limit,
+                    rrfK, rrfK,
+                    limit
+            );
+        } else {
+            rows = jdbcTemplate.query(
+                    sql,
+                    mapper(decision),
+                    q, resumeId, limit,
+                    q, resumeId, q, limit
+            );
+        }
+
+        trace.stage("hybrid", t0, rows.size());
+        trace.decision(decision[0]);
+        return rows;
+    }
+
+    // Replaces each {cutoff:column} placeholder with that cutoff as a SQL expression. The values
+    // are fixed for the engine's lifetime, so the statement text (and its prepared plan) is too.
+    static String withCutoffs(String template, RetrievalThresholds t) {
+        StringBuilder sb = new StringBuilder(template.length() + 64);
+        int from = 0;
+        int open;
+        while ((open = template.indexOf('{', from)) >= 0) {
+            int colon = template.indexOf(':', open);
+            int close = template.indexOf('}', colon);
+            sb.append(template, from, open);
+            cutoff(sb, t, template.substring(open + 1, colon), template.substring(colon + 1, close));
+            from = close + 1;
+        }
+        return sb.append(template, from, template.length()).toString();
+    }
+
+    private static void cutoff(StringBuilder sb, RetrievalThresholds t, String name, String column) {
+        if (t.sections.isEmpty()) {
+            sb.append(value(t.defaults, name));
+            return;
+        }
+        sb.append("CASE ").append(column);
+        for (Map.Entry<String, RetrievalThresholds.Cutoffs> e : t.sections.entrySet()) {
+            sb.append(" WHEN '").append(e.getKey().replace("'", "''")).append("' THEN ").append(value(e.getValue(), name));
+        }
+        sb.append(" ELSE ").append(value(t.defaults, name)).append(" END");
+    }
+
+    private static double value(RetrievalThresholds.Cutoffs c, String name) {
+        switch (name) {
+            case "ftsAccept":
+                return c.ftsAccept;
+            case "trgmAccept":
+                return c.trgmAccept;
+            case "ftsWeak":
+                return c.ftsWeak;
+            default:
+                throw new IllegalArgumentException("unknown cutoff: " + name);
+        }
+    }
+
+    // every row carries the branch the query chose; an empty result means EMPTY
+    private static RowMapper<ChunkRow> mapper(String[] decision) {
+        return (rs, rowNum) -> {
+            decision[0] = rs.getString("decision");
+            return new ChunkRow(
+                    rs.getLong("id"),
+                    rs.getString("section"),
+                    rs.getString("content"),
+                    rs.getDouble("score"),
+                    rs.getString("method"),
+                    rs.getString("type"),
+                    rs.getInt("prefix_end"),
+                    rs.getInt("body_start")
+            );
+        };
+    }
+
+    // the batched statement applies the fallback decision; rrf batches go query by query
+    @Override
+    public List<List<ChunkRow>> searchAll(String resumeId, List<String> queries, int limit, RetrievalTrace trace) {
+        if (rrf) return RetrievalEngine.super.searchAll(resumeId, queries, limit, trace);
+        return LateralBatchSearch.search(jdbcTemplate, resumeId, queries, limit, thresholds, trace);
+    }
+}
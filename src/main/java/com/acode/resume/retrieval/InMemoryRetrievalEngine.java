@@ -0,0 +1,151 @@
+package com.acode.resume.retrieval;
+
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "app.retrieval.mode", havingValue = "memory")
+public class InMemoryRetrievalEngine extends LexicalFallbackEngine {
+
+    private static final ChunkIndex EMPTY = ChunkIndex.build(List.of());
+
+    private static final String CHUNKS_SQL =
+            "SELECT resume_id, id, section, content, COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // one independent index per resume, replaced as a whole on reload
+    private volatile Map<String, ChunkIndex> indexes;
+
+    public InMemoryRetrievalEngine(JdbcTemplate jdbcTemplate, @Qualifier("memoryRetrievalThresholds") RetrievalThresholds thresholds) {
+        super(thresholds);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reload();
+    }
+
+    // after ReplicaRouter (so this reads the primary), before listeners that search the new corpus
+    // (canonical answers)
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onIngested(ResumeIngestedEvent event) {
+        reload(event.resumeIds);
+    }
+
+    public synchronized void reload() {
+        long t0 = System.nanoTime();
+
+        Map<String, List<ChunkRow>> byResume = new HashMap<>();
+        jdbcTemplate.query(CHUNKS_SQL + "ORDER BY resume_id, id", (RowCallbackHandler) rs -> add(byResume, rs));
+        int chunks = replaceAll(byResume);
+
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("[RETRIEVAL] in-memory index loaded, resumes=" + byResume.size() + " chunks=" + chunks + " in " + ms + " ms");
+    }
+
+    // Swaps in indexes built from these rows (id order per resume); returns the chunk count.
+    synchronized int replaceAll(Map<String, List<ChunkRow>> byResume) {
+        Map<String, ChunkIndex> next = new HashMap<>();
+        int chunks = 0;
+        for (Map.Entry<String, List<ChunkRow>> e : byResume.entrySet()) {
+            next.put(e.getKey(), ChunkIndex.build(e.getValue()));
+            chunks += e.getValue().size();
+        }
+        indexes = next;
+        return chunks;
+    }
+
+    // Rebuilds only these resumes' indexes (dropping any left without chunks); every other
+    // resume keeps its index.
+    public synchronized void reload(List<String> resumeIds) {
+        if (indexes == null) {
+            reload();
+            return;
+        }
+        long t0 = System.nanoTime();
+
+        Object[] ids = resumeIds.toArray();
+        Map<String, List<ChunkRow>> byResume = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(CHUNKS_SQL + "WHERE resume_id = ANY (?) ORDER BY resume_id, id");
+                    ps.setArray(1, con.createArrayOf("text", ids));
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> add(byResume, rs)
+        );
+
+        Map<String, ChunkIndex> next = new HashMap<>(indexes);
+        int chunks = 0;
+        for (int i = 0; i < resumeIds.size(); i++) {
+            String rid = resumeIds.get(i);
+            List<ChunkRow> rows = byResume.get(rid);
+            if (rows == null) {
+                next.remove(rid);
+                continue;
+            }
+            next.put(rid, ChunkIndex.build(rows));
+            chunks += rows.size();
+        }
+        indexes = next;
+
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("[RETRIEVAL] in-memory index reloaded for " + resumeIds.size() + " resumes, chunks=" + chunks + " in " + ms + " ms");
+    }
+
+    private static void add(Map<String, List<ChunkRow>> byResume, ResultSet rs) throws SQLException {
+        byResume.computeIfAbsent(rs.getString("resume_id"), k -> new ArrayList<>()).add(new ChunkRow(
+                rs.getLong("id"),
+                rs.getString("section"),
+                rs.getString("content"),
+                0,
+                "",
+                rs.getString("type"),
+                rs.getInt("prefix_end"),
+                rs.getInt("body_start")
+        ));
+    }
+
+    private ChunkIndex index(String resumeId) {
+        Map<String, ChunkIndex> m = indexes;
+        if (m == null) {
+            synchronized (this) {
+                if (indexes == null) reload();
+                m = indexes;
+            }
+        }
+        ChunkIndex i = m.get(resumeId);
+        return i == null ? EMPTY : i;
+    }
+
+    @Override
+    protected List<ChunkRow> fts(String resumeId, NormalizedQuery q, int limit) {
+        return index(resumeId).fts(q.lexemes, limit);
+    }
+
+    @Override
+    protected List<ChunkRow> trgm(String resumeId, NormalizedQuery q, int limit) {
+        return index(resumeId).trgm(q.trigrams, limit);
+    }
+}
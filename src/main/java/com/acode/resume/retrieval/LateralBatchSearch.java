@@ -0,0 +1,89 @@
+package com.acode.resume.retrieval;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Both lexical legs for many queries against one resume in a single statement: the queries are
+// unnest()ed with their position and each one drives a LATERAL fts and a LATERAL trgm top-N.
+// The trgm leg runs for every query, even those fts will accept; over one resume's chunks that
+// is cheaper than a second round-trip. The fallback decision is applied per query in Java.
+final class LateralBatchSearch {
+
+    private static final String SQL =
+            "WITH q AS (SELECT qtext, ord, plainto_tsquery('english', qtext) AS tsq " +
+                    "FROM unnest(?::text[]) WITH ORDINALITY AS u(qtext, ord)) " +
+                    "SELECT q.ord, f.id, f.section, f.content, f.score, 'fts' AS method, f.type, f.prefix_end, f.body_start " +
+                    "FROM q CROSS JOIN LATERAL (" +
+                    "SELECT id, section, content, ts_rank(tsv, q.tsq) AS score, " +
+                    "COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks " +
+                    "WHERE resume_id = ? AND tsv @@ q.tsq " +
+                    "ORDER BY score DESC LIMIT ?) f " +
+                    "UNION ALL " +
+                    "SELECT q.ord, t.id, t.section, t.content, t.score, 'trgm' AS method, t.type, t.prefix_end, t.body_start " +
+                    "FROM q CROSS JOIN LATERAL (" +
+                    "SELECT id, section, content, similarity(content, q.qtext) AS score, " +
+                    "COALESCE(metadata->>'type','') AS type, " +
+                    "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                    "FROM resume_chunks " +
+                    "WHERE resume_id = ? AND content % q.qtext " +
+                    "ORDER BY score DESC LIMIT ?) t " +
+                    "ORDER BY ord, method, score DESC";
+
+    private LateralBatchSearch() {
+    }
+
+    static List<List<ChunkRow>> search(JdbcTemplate jdbcTemplate, String resumeId, List<String> queries, int limit,
+                                       RetrievalThresholds thresholds, RetrievalTrace trace) {
+        int n = queries.size();
+        List<List<ChunkRow>> fts = new ArrayList<>(n);
+        List<List<ChunkRow>> trgm = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            fts.add(new ArrayList<>());
+            trgm.add(new ArrayList<>());
+        }
+
+        long t0 = System.nanoTime();
+        int[] rows = {0};
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(SQL);
+                    ps.setArray(1, con.createArrayOf("text", queries.toArray()));
+                    ps.setString(2, resumeId);
+                    ps.setInt(3, limit);
+                    ps.setString(4, resumeId);
+                    ps.setInt(5, limit);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> {
+                    int i = rs.getInt("ord") - 1;
+                    String method = rs.getString("method");
+                    ChunkRow r = new ChunkRow(
+                            rs.getLong("id"),
+                            rs.getString("section"),
+                            rs.getString("content"),
+                            rs.getDouble("score"),
+                            method,
+                            rs.getString("type"),
+                            rs.getInt("prefix_end"),
+                            rs.getInt("body_start")
+                    );
+                    if ("fts".equals(method)) fts.get(i).add(r);
+                    else trgm.get(i).add(r);
+                    rows[0]++;
+                }
+        );
+        trace.stage("batch_search", t0, rows[0]);
+
+        List<List<ChunkRow>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(LexicalFallbackEngine.choose(fts.get(i), trgm.get(i), thresholds, trace));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,75 @@
+package com.acode.resume.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Shared fts-then-trgm fallback used by every lexical engine:
+// accept FTS when its top score clears ftsAccept, otherwise try trigram rows above
+// trgmAccept, and finally fall back to a weak FTS result above ftsWeak. The cutoffs come from
+// RetrievalThresholds (per section); every accepted FTS result saves the trgm round-trip.
+public abstract class LexicalFallbackEngine implements RetrievalEngine {
+
+    protected final RetrievalThresholds thresholds;
+
+    protected LexicalFallbackEngine(RetrievalThresholds thresholds) {
+        this.thresholds = thresholds;
+    }
+
+    protected abstract List<ChunkRow> fts(String resumeId, NormalizedQuery q, int limit);
+
+    protected abstract List<ChunkRow> trgm(String resumeId, NormalizedQuery q, int limit);
+
+    @Override
+    public List<ChunkRow> search(String resumeId, String q, int limit, RetrievalTrace trace) {
+        return search(resumeId, NormalizedQuery.of(q), limit, trace);
+    }
+
+    @Override
+    public List<ChunkRow> search(String resumeId, NormalizedQuery q, int limit, RetrievalTrace trace) {
+        long t0 = System.nanoTime();
+        List<ChunkRow> a = fts(resumeId, q, limit);
+        trace.stage("fts", t0, a.size());
+
+        if (ftsAccepted(a, thresholds)) {
+            trace.decision(RetrievalTrace.FTS_ACCEPTED);
+            return a;
+        }
+
+        t0 = System.nanoTime();
+        List<ChunkRow> b = trgm(resumeId, q, limit);
+        trace.stage("trgm", t0, b.size());
+
+        return choose(a, b, thresholds, trace);
+    }
+
+    // true when the fts rows alone decide the search, i.e. the trgm leg is not needed
+    static boolean ftsAccepted(List<ChunkRow> a, RetrievalThresholds t) {
+        return a.size() > 0 && a.get(0).score >= t.ftsAccept(a.get(0).section);
+    }
+
+    // The fallback decision over both legs' rows (each ordered by score, best first).
+    static List<ChunkRow> choose(List<ChunkRow> a, List<ChunkRow> b, RetrievalThresholds t, RetrievalTrace trace) {
+        if (ftsAccepted(a, t)) {
+            trace.decision(RetrievalTrace.FTS_ACCEPTED);
+            return a;
+        }
+
+        List<ChunkRow> out = new ArrayList<>();
+        for (int i = 0; i < b.size(); i++) {
+            ChunkRow r = b.get(i);
+            if (r.score >= t.trgmAccept(r.section)) out.add(r);
+        }
+        if (out.size() > 0) {
+            trace.decision(RetrievalTrace.TRGM_ACCEPTED);
+            return out;
+        }
+
+        if (a.size() > 0 && a.get(0).score >= t.ftsWeak(a.get(0).section)) {
+            trace.decision(RetrievalTrace.FTS_WEAK_ACCEPTED);
+            return a;
+        }
+
+        trace.decision(RetrievalTrace.EMPTY);
+        return new ArrayList<>();
+    }
+}
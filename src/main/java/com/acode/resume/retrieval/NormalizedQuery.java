@@ -0,0 +1,85 @@
+package com.acode.resume.retrieval;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+
+// Everything the answer path derives from the message text, computed once per distinct message
+// (see QueryNormalizer) and handed to the intent matcher, the retrieval engines and the caches:
+//   text      trimmed message; what SQL engines bind, so Postgres sees exactly what it saw before
+//   folded    NFKC + lower case + single spaces; what intent keywords (folded the same way) are matched on
+//   key       cache key form (case, whitespace runs and edge punctuation folded)
+//   lexemes   stemmed, stopword-free lexemes of text in order, as TextAnalyzer.lexemes
+//   trigrams  sorted pg_trgm trigrams of text, as TextAnalyzer.trigrams
+public final class NormalizedQuery {
+
+    public final String text;
+    public final String folded;
+    public final String key;
+    public final String[] lexemes;
+    public final long[] trigrams;
+
+    private NormalizedQuery(String text) {
+        this.text = text;
+        this.folded = fold(text);
+        this.key = key(text);
+
+        List<String> lex = TextAnalyzer.lexemes(text);
+        this.lexemes = lex.toArray(new String[0]);
+        this.trigrams = TextAnalyzer.trigrams(text);
+    }
+
+    public static NormalizedQuery of(String message) {
+        return new NormalizedQuery(message == null ? "" : message.trim());
+    }
+
+    public boolean isEmpty() {
+        return text.length() == 0;
+    }
+
+    public static String fold(String s) {
+        String x = Normalizer.normalize(s, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(x.length());
+        boolean space = false;
+        for (int i = 0; i < x.length(); i++) {
+            char c = x.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    // Folds case and whitespace runs and drops leading/trailing punctuation
+    // ("What did you do at Cognizant?" == "what did you do at  cognizant").
+    // Inner punctuation is kept: it can change what query expansion sees. Only queries that
+    // missed the fact rules reach the caches, so "name?" vs "name" never share an entry.
+    public static String key(String q) {
+        int start = 0;
+        int end = q.length();
+        while (start < end && !Character.isLetterOrDigit(q.charAt(start))) start++;
+        while (end > start && !Character.isLetterOrDigit(q.charAt(end - 1))) end--;
+
+        StringBuilder sb = new StringBuilder(end - start);
+        boolean space = false;
+        for (int i = start; i < end; i++) {
+            char c = q.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+}
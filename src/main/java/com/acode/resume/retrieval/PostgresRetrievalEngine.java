@@ -0,0 +1,82 @@
+package com.acode.resume.retrieval;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "app.retrieval.mode", havingValue = "postgres", matchIfMissing = true)
+public class PostgresRetrievalEngine extends LexicalFallbackEngine {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresRetrievalEngine(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate, RetrievalThresholds thresholds) {
+        super(thresholds);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    protected List<ChunkRow> fts(String resumeId, NormalizedQuery q, int limit) {
+        // the query is parsed into a tsquery once and shared by the filter and the rank
+        String sql =
+                "SELECT id, section, content, " +
+                        "ts_rank(tsv, query) AS score, " +
+                        "COALESCE(metadata->>'type','') AS type, " +
+                        "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                        "FROM resume_chunks, plainto_tsquery('english', ?) AS query " +
+                        "WHERE resume_id = ? AND tsv @@ query " +
+                        "ORDER BY score DESC " +
+                        "LIMIT ?";
+
+        return jdbcTemplate.query(
+                sql,
+                (rs, rowNum) -> new ChunkRow(
+                        rs.getLong("id"),
+                        rs.getString("section"),
+                        rs.getString("content"),
+                        rs.getDouble("score"),
+                        "fts",
+                        rs.getString("type"),
+                        rs.getInt("prefix_end"),
+                        rs.getInt("body_start")
+                ),
+                q.text, resumeId, limit
+        );
+    }
+
+    @Override
+    protected List<ChunkRow> trgm(String resumeId, NormalizedQuery q, int limit) {
+        String sql =
+                "SELECT id, section, content, " +
+                        "similarity(content, ?) AS score, " +
+                        "COALESCE(metadata->>'type','') AS type, " +
+                        "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                        "FROM resume_chunks " +
+                        "WHERE resume_id = ? AND content % ? " +
+                        "ORDER BY score DESC " +
+                        "LIMIT ?";
+
+        return jdbcTemplate.query(
+                sql,
+                (rs, rowNum) -> new ChunkRow(
+                        rs.getLong("id"),
+                        rs.getString("section"),
+                        rs.getString("content"),
+                        rs.getDouble("score"),
+                        "trgm",
+                        rs.getString("type"),
+                        rs.getInt("prefix_end"),
+                        rs.getInt("body_start")
+                ),
+                q.text, resumeId, q.text, limit
+        );
+    }
+
+    @Override
+    public List<List<ChunkRow>> searchAll(String resumeId, List<String> queries, int limit, RetrievalTrace trace) {
+        return LateralBatchSearch.search(jdbcTemplate, resumeId, queries, limit, thresholds, trace);
+    }
+}
@@ -0,0 +1,36 @@
+package com.acode.resume.retrieval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Size-bounded cache of NormalizedQuery by trimmed message text (Caffeine, W-TinyLFU eviction),
+// so a repeated question is folded, tokenized, stemmed and cut into trigrams only once.
+// Normalized forms do not depend on the corpus, so nothing invalidates the cache.
+@Component
+public class QueryNormalizer {
+
+    private final Cache<String, NormalizedQuery> cache;
+    private final boolean enabled;
+
+    public QueryNormalizer(MeterRegistry meterRegistry,
+                           @Value("${app.cache.queries.enabled:true}") boolean enabled,
+                           @Value("${app.cache.queries.max-size:10000}") long maxSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.queries");
+    }
+
+    public NormalizedQuery normalize(String message) {
+        String text = message == null ? "" : message.trim();
+        if (!enabled || text.length() == 0) return NormalizedQuery.of(text);
+        return cache.get(text, NormalizedQuery::of);
+    }
+}
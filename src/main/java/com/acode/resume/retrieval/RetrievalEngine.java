@@ -0,0 +1,31 @@
+package com.acode.resume.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public interface RetrievalEngine {
+
+    // Returns the accepted rows for q within one resume, already filtered by the fts/trgm fallback rules.
+    // Stage timings and the fallback decision are appended to trace.
+    List<ChunkRow> search(String resumeId, String q, int limit, RetrievalTrace trace);
+
+    // Same search over an already normalized query; engines that analyze text in the JVM use its
+    // lexemes and trigrams instead of re-deriving them, SQL engines bind its text.
+    default List<ChunkRow> search(String resumeId, NormalizedQuery q, int limit, RetrievalTrace trace) {
+        return search(resumeId, q.text, limit, trace);
+    }
+
+    default List<ChunkRow> search(String resumeId, String q, int limit) {
+        return search(resumeId, q, limit, new RetrievalTrace());
+    }
+
+    // One result list per query, in input order. Engines backed by a database answer the whole
+    // list in one round-trip; the default just searches each query in turn.
+    default List<List<ChunkRow>> searchAll(String resumeId, List<String> queries, int limit, RetrievalTrace trace) {
+        List<List<ChunkRow>> out = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            out.add(search(resumeId, queries.get(i), limit, trace));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,117 @@
+package com.acode.resume.retrieval;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Score cutoffs for the fts-then-trgm fallback, per method and optionally per section:
+//
+//   { "default":  { "ftsAccept": 0.03, "trgmAccept": 0.12, "ftsWeak": 0.015 },
+//     "sections": { "SKILLS": { "trgmAccept": 0.2 } } }
+//
+// A section entry overrides only the cutoffs it names. The fts cutoffs are looked up by the
+// section of the top fts row (the one the decision is made on), the trgm cutoff by each trgm
+// row's own section. Loaded from app.retrieval.thresholds.location; ThresholdTuner in src/bench
+// writes files in this format.
+public final class RetrievalThresholds {
+
+    public static final RetrievalThresholds DEFAULTS =
+            new RetrievalThresholds(new Cutoffs(0.03, 0.12, 0.015), new LinkedHashMap<>());
+
+    public static final class Cutoffs {
+        public final double ftsAccept;
+        public final double trgmAccept;
+        public final double ftsWeak;
+
+        public Cutoffs(double ftsAccept, double trgmAccept, double ftsWeak) {
+            this.ftsAccept = ftsAccept;
+            this.trgmAccept = trgmAccept;
+            this.ftsWeak = ftsWeak;
+        }
+    }
+
+    public final Cutoffs defaults;
+    public final Map<String, Cutoffs> sections;
+
+    public RetrievalThresholds(Cutoffs defaults, Map<String, Cutoffs> sections) {
+        this.defaults = defaults;
+        this.sections = sections;
+    }
+
+    public double ftsAccept(String section) {
+        return of(section).ftsAccept;
+    }
+
+    public double trgmAccept(String section) {
+        return of(section).trgmAccept;
+    }
+
+    public double ftsWeak(String section) {
+        return of(section).ftsWeak;
+    }
+
+    private Cutoffs of(String section) {
+        if (sections.isEmpty() || section == null) return defaults;
+        Cutoffs c = sections.get(section);
+        return c == null ? defaults : c;
+    }
+
+    // copy with one section's cutoffs replaced (tuning)
+    public RetrievalThresholds with(String section, Cutoffs c) {
+        Map<String, Cutoffs> next = new LinkedHashMap<>(sections);
+        if (section == null) return new RetrievalThresholds(c, next);
+        next.put(section, c);
+        return new RetrievalThresholds(defaults, next);
+    }
+
+    public static RetrievalThresholds parse(JsonNode root) {
+        Cutoffs d = cutoffs(root.path("default"), DEFAULTS.defaults);
+        Map<String, Cutoffs> sections = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> it = root.path("sections").fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            sections.put(e.getKey(), cutoffs(e.getValue(), d));
+        }
+        return new RetrievalThresholds(d, sections);
+    }
+
+    public ObjectNode toJson(ObjectMapper objectMapper) {
+        ObjectNode root = objectMapper.createObjectNode();
+        write(root.putObject("default"), defaults);
+        ObjectNode s = root.putObject("sections");
+        for (Map.Entry<String, Cutoffs> e : sections.entrySet()) write(s.putObject(e.getKey()), e.getValue());
+        return root;
+    }
+
+    private static Cutoffs cutoffs(JsonNode n, Cutoffs base) {
+        return new Cutoffs(
+                n.path("ftsAccept").asDouble(base.ftsAccept),
+                n.path("trgmAccept").asDouble(base.trgmAccept),
+                n.path("ftsWeak").asDouble(base.ftsWeak)
+        );
+    }
+
+    private static void write(ObjectNode n, Cutoffs c) {
+        n.put("ftsAccept", c.ftsAccept);
+        n.put("trgmAccept", c.trgmAccept);
+        n.put("ftsWeak", c.ftsWeak);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("default=").append(format(defaults));
+        for (Map.Entry<String, Cutoffs> e : sections.entrySet()) {
+            sb.append(' ').append(e.getKey()).append('=').append(format(e.getValue()));
+        }
+        return sb.toString();
+    }
+
+    private static String format(Cutoffs c) {
+        return "fts>=" + c.ftsAccept + "/trgm>=" + c.trgmAccept + "/weak>=" + c.ftsWeak;
+    }
+}
@@ -0,0 +1,45 @@
+package com.acode.resume.retrieval;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.InputStream;
+
+// The fallback cutoffs of the lexical engines, read once at startup. The SQL engines (postgres,
+// hybrid) use app.retrieval.thresholds.location, which is calibrated on ts_rank / similarity
+// scores. The memory and snapshot engines score with their own BM25 + trigram index, which only
+// approximates those scores, so they read app.retrieval.thresholds.memory-location instead.
+// The bundled files hold the original constants; point either at a file written by ThresholdTuner
+// (-Deval.source=db for the first, bundled for the second) to deploy tuned cutoffs.
+@Configuration
+public class RetrievalThresholdsConfig {
+
+    @Bean
+    @Primary
+    public RetrievalThresholds retrievalThresholds(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                                                   @Value("${app.retrieval.thresholds.location:classpath:retrieval/thresholds.json}") String location) {
+        return load(resourceLoader, objectMapper, location);
+    }
+
+    @Bean
+    public RetrievalThresholds memoryRetrievalThresholds(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                                                         @Value("${app.retrieval.thresholds.memory-location:classpath:retrieval/thresholds-memory.json}") String location) {
+        return load(resourceLoader, objectMapper, location);
+    }
+
+    private static RetrievalThresholds load(ResourceLoader resourceLoader, ObjectMapper objectMapper, String location) {
+        Resource r = resourceLoader.getResource(location);
+        try (InputStream in = r.getInputStream()) {
+            RetrievalThresholds t = RetrievalThresholds.parse(objectMapper.readTree(in));
+            System.out.println("[RETRIEVAL] thresholds from " + location + ": " + t);
+            return t;
+        } catch (Exception e) {
+            throw new IllegalStateException("cannot load retrieval thresholds from " + location, e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.acode.resume.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-request record of the answer path: how long each stage took, how many rows it produced,
+// and which fallback branch accepted the result. One instance per request, single-threaded.
+public final class RetrievalTrace {
+
+    // fallback decisions made by LexicalFallbackEngine.search (and HybridRetrievalEngine in one query)
+    public static final String FTS_ACCEPTED = "fts_accepted";
+    public static final String TRGM_ACCEPTED = "trgm_accepted";
+    public static final String FTS_WEAK_ACCEPTED = "fts_weak_accepted";
+    public static final String EMPTY = "empty";
+    // HybridRetrievalEngine with app.retrieval.hybrid.fusion=rrf
+    public static final String RRF_FUSED = "rrf_fused";
+
+    public static class Stage {
+        public final String name;
+        public final long nanos;
+        public final int rows;
+
+        public Stage(String name, long nanos, int rows) {
+            this.name = name;
+            this.nanos = nanos;
+            this.rows = rows;
+        }
+    }
+
+    public final List<Stage> stages = new ArrayList<>(8);
+    public final List<String> decisions = new ArrayList<>(2);
+
+    public void stage(String name, long startNanos, int rows) {
+        stages.add(new Stage(name, System.nanoTime() - startNanos, rows));
+    }
+
+    public void decision(String decision) {
+        decisions.add(decision);
+    }
+}
@@ -0,0 +1,158 @@
+package com.acode.resume.retrieval;
+
+import com.acode.resume.ingest.ResumeIngestedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Optional semantic stage on top of whichever lexical engine is configured
+// (app.retrieval.semantic.enabled). Each resume's chunks are embedded into an HnswIndex on first
+// use; after an ingest commits, the indexes that were loaded are rebuilt from the new chunks.
+// Query-time kNN hits are fused with the lexical rows by reciprocal-rank fusion.
+@Component
+public class SemanticIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Embedder embedder;
+    private final boolean enabled;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double minSimilarity;
+    private final int rrfK;
+
+    private final Cache<String, HnswIndex> indexes;
+
+    public SemanticIndex(JdbcTemplate jdbcTemplate,
+                         @Value("${app.retrieval.semantic.enabled:false}") boolean enabled,
+                         @Value("${app.retrieval.semantic.dimension:384}") int dimension,
+                         @Value("${app.retrieval.semantic.hnsw-m:16}") int m,
+                         @Value("${app.retrieval.semantic.ef-construction:100}") int efConstruction,
+                         @Value("${app.retrieval.semantic.ef-search:50}") int efSearch,
+                         @Value("${app.retrieval.semantic.min-similarity:0.15}") double minSimilarity,
+                         @Value("${app.retrieval.semantic.rrf-k:60}") int rrfK,
+                         @Value("${app.retrieval.semantic.max-resumes:1000}") long maxResumes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.embedder = new HashingEmbedder(dimension);
+        this.enabled = enabled;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.minSimilarity = minSimilarity;
+        this.rrfK = rrfK;
+        this.indexes = Caffeine.newBuilder().maximumSize(maxResumes).build();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // Lexical rows fused with the resume's nearest chunks; lexical unchanged when disabled.
+    public List<ChunkRow> fuse(String resumeId, NormalizedQuery q, List<ChunkRow> lexical, int limit, RetrievalTrace trace) {
+        if (!enabled) return lexical;
+
+        long t0 = System.nanoTime();
+        HnswIndex index = indexes.get(resumeId, this::load);
+        float[] v = new float[embedder.dimension()];
+        embedder.embed(q, v);
+        List<ChunkRow> knn = index.search(v, limit, efSearch, minSimilarity);
+        trace.stage("vector", t0, knn.size());
+
+        return rrf(lexical, knn, limit, rrfK);
+    }
+
+    // after ReplicaRouter and the in-memory lexical index, before listeners that search the new
+    // corpus (canonical answers). Only the ingested resumes that were loaded are rebuilt.
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    public void onIngested(ResumeIngestedEvent event) {
+        if (!enabled) return;
+        int rebuilt = 0;
+        for (int i = 0; i < event.resumeIds.size(); i++) {
+            String resumeId = event.resumeIds.get(i);
+            if (indexes.getIfPresent(resumeId) == null) continue;
+            indexes.put(resumeId, load(resumeId));
+            rebuilt++;
+        }
+        System.out.println("[RETRIEVAL] semantic indexes rebuilt for " + rebuilt + " resumes");
+    }
+
+    // score = sum over both lists of 1 / (k + rank); a chunk found by both keeps the lexical row's
+    // section/type and reports method "<lexical>+vector"
+    static List<ChunkRow> rrf(List<ChunkRow> lexical, List<ChunkRow> knn, int limit, int k) {
+        if (knn.isEmpty()) return lexical;
+
+        Map<Long, Integer> at = new HashMap<>();
+        List<ChunkRow> rows = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+
+        for (int i = 0; i < lexical.size(); i++) {
+            ChunkRow r = lexical.get(i);
+            at.put(r.id, rows.size());
+            rows.add(r);
+            scores.add(1.0 / (k + i + 1));
+            methods.add(r.method);
+        }
+        for (int i = 0; i < knn.size(); i++) {
+            ChunkRow r = knn.get(i);
+            Integer j = at.get(r.id);
+            double s = 1.0 / (k + i + 1);
+            if (j == null) {
+                at.put(r.id, rows.size());
+                rows.add(r);
+                scores.add(s);
+                methods.add("vector");
+            } else {
+                scores.set(j, scores.get(j) + s);
+                methods.set(j, methods.get(j) + "+vector");
+            }
+        }
+
+        Integer[] order = new Integer[rows.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(scores.get(b), scores.get(a)));
+
+        List<ChunkRow> out = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && out.size() < limit; i++) {
+            ChunkRow r = rows.get(order[i]);
+            out.add(new ChunkRow(r.id, r.section, r.content, scores.get(order[i]), methods.get(order[i]), r.type, r.prefixEnd, r.bodyStart));
+        }
+        return out;
+    }
+
+    private HnswIndex load(String resumeId) {
+        List<ChunkRow> rows = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, section, content, COALESCE(metadata->>'type','') AS type, " +
+                        "COALESCE((metadata->>'prefixEnd')::int, -1) AS prefix_end, COALESCE((metadata->>'bodyStart')::int, -1) AS body_start " +
+                        "FROM resume_chunks WHERE resume_id = ? ORDER BY id",
+                (RowCallbackHandler) rs -> {
+                    rows.add(new ChunkRow(
+                            rs.getLong("id"),
+                            rs.getString("section"),
+                            rs.getString("content"),
+                            0,
+                            "",
+                            rs.getString("type"),
+                            rs.getInt("prefix_end"),
+                            rs.getInt("body_start")
+                    ));
+                },
+                resumeId
+        );
+        return HnswIndex.build(rows, embedder, m, efConstruction);
+    }
+}
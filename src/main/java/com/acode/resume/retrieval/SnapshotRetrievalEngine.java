@@ -0,0 +1,38 @@
+package com.acode.resume.retrieval;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Same BM25 + trigram search as InMemoryRetrievalEngine, over the indexes of the corpus snapshot
+// mapped at boot instead of ones rebuilt from resume_chunks. Never touches the database.
+@Component
+@ConditionalOnProperty(name = "app.retrieval.mode", havingValue = "snapshot")
+public class SnapshotRetrievalEngine extends LexicalFallbackEngine {
+
+    private static final ChunkIndex EMPTY = ChunkIndex.build(List.of());
+
+    private final CorpusSnapshot snapshot;
+
+    public SnapshotRetrievalEngine(CorpusSnapshotStore store, @Qualifier("memoryRetrievalThresholds") RetrievalThresholds thresholds) {
+        super(thresholds);
+        this.snapshot = store.current();
+    }
+
+    private ChunkIndex index(String resumeId) {
+        ChunkIndex i = snapshot.index(resumeId);
+        return i == null ? EMPTY : i;
+    }
+
+    @Override
+    protected List<ChunkRow> fts(String resumeId, NormalizedQuery q, int limit) {
+        return index(resumeId).fts(q.lexemes, limit);
+    }
+
+    @Override
+    protected List<ChunkRow> trgm(String resumeId, NormalizedQuery q, int limit) {
+        return index(resumeId).trgm(q.trigrams, limit);
+    }
+}
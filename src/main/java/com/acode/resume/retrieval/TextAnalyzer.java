@@ -0,0 +1,85 @@
+package com.acode.resume.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Mirrors the pieces of Postgres text search the in-memory engine needs:
+// to_tsvector('english', ...) style lexemes and pg_trgm's word trigrams.
+public final class TextAnalyzer {
+
+    // Postgres' english.stop list
+    private static final Set<String> STOPWORDS = new HashSet<>(List.of(
+            "i", "me", "my", "myself", "we", "our", "ours", "ourselves", "you", "your", "yours",
+            "yourself", "yourselves", "he", "him", "his", "himself", "she", "her", "hers", "herself",
+            "it", "its", "itself", "they", "them", "their", "theirs", "themselves", "what", "which",
+            "who", "whom", "this", "that", "these", "those", "am", "is", "are", "was", "were", "be",
+            "been", "being", "have", "has", "had", "having", "do", "does", "did", "doing", "a", "an",
+            "the", "and", "but", "if", "or", "because", "as", "until", "while", "of", "at", "by",
+            "for", "with", "about", "against", "between", "into", "through", "during", "before",
+            "after", "above", "below", "to", "from", "up", "down", "in", "out", "on", "off", "over",
+            "under", "again", "further", "then", "once", "here", "there", "when", "where", "why",
+            "how", "all", "any", "both", "each", "few", "more", "most", "other", "some", "such", "no",
+            "nor", "not", "only", "own", "same", "so", "than", "too", "very", "s", "t", "can", "will",
+            "just", "don", "should", "now"
+    ));
+
+    private TextAnalyzer() {
+    }
+
+    // Stemmed, stopword-free lexemes in document order (duplicates kept for term frequency).
+    public static List<String> lexemes(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i > start) {
+                String w = text.substring(start, i).toLowerCase();
+                if (!STOPWORDS.contains(w)) out.add(EnglishStemmer.stem(w));
+            }
+        }
+        return out;
+    }
+
+    // pg_trgm: every alphanumeric word is lower-cased, padded with two leading blanks and one
+    // trailing blank, and cut into 3-char windows. Each trigram is packed into a long.
+    public static long[] trigrams(String text) {
+        if (text == null) return new long[0];
+
+        Set<Long> set = new HashSet<>();
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i > start) {
+                char c0 = ' ';
+                char c1 = ' ';
+                for (int p = start; p <= i; p++) {
+                    char c2 = p < i ? Character.toLowerCase(text.charAt(p)) : ' ';
+                    set.add(pack(c0, c1, c2));
+                    c0 = c1;
+                    c1 = c2;
+                }
+            }
+        }
+
+        long[] out = new long[set.size()];
+        int k = 0;
+        for (Long t : set) out[k++] = t;
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+}
@@ -0,0 +1,16 @@
+-- Chunks are upserted by content hash instead of TRUNCATE + re-insert,
+-- so unchanged chunks keep their ids and the table is never empty mid-ingest.
+ALTER TABLE resume_chunks ADD COLUMN IF NOT EXISTS content_hash TEXT;
+
+UPDATE resume_chunks
+SET content_hash = md5(section || E'\n' || COALESCE(metadata->>'type', '') || E'\n' || content)
+WHERE content_hash IS NULL;
+
+DELETE FROM resume_chunks a
+    USING resume_chunks b
+WHERE a.content_hash = b.content_hash
+  AND a.id > b.id;
+
+ALTER TABLE resume_chunks ALTER COLUMN content_hash SET NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_resume_chunks_content_hash ON resume_chunks (content_hash);
@@ -0,0 +1,20 @@
+-- One deployment serves many resumes: every profile and chunk belongs to a resume_id.
+-- Existing rows become the 'default' resume.
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE resume_profile ADD COLUMN IF NOT EXISTS resume_id TEXT NOT NULL DEFAULT 'default';
+ALTER TABLE resume_chunks ADD COLUMN IF NOT EXISTS resume_id TEXT NOT NULL DEFAULT 'default';
+
+CREATE INDEX IF NOT EXISTS idx_resume_profile_resume ON resume_profile (resume_id, id DESC);
+
+-- Content hashes are only unique within a resume. The leading resume_id also serves the
+-- per-resume lookup: a resume has a few hundred chunks at most, so scanning them for
+-- ts_rank / similarity stays flat as the corpus grows.
+DROP INDEX IF EXISTS ux_resume_chunks_content_hash;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_resume_chunks_resume_hash ON resume_chunks (resume_id, content_hash);
+
+-- composite GIN indexes keep the @@ / % searches scoped to one resume when the planner prefers them
+DROP INDEX IF EXISTS idx_resume_chunks_tsv;
+DROP INDEX IF EXISTS idx_resume_chunks_trgm;
+CREATE INDEX IF NOT EXISTS idx_resume_chunks_resume_tsv ON resume_chunks USING GIN (resume_id, tsv);
+CREATE INDEX IF NOT EXISTS idx_resume_chunks_resume_trgm ON resume_chunks USING GIN (resume_id, content gin_trgm_ops);
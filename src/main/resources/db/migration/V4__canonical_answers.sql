@@ -0,0 +1,13 @@
+-- Answers to canonical questions ("what did you do at <company>", skills, projects), rendered at
+-- ingest time. question_key is the normalized question (NormalizedQuery.key, the key AnswerCache
+-- and AnswerCoalescer use); rows for a resume are replaced as a whole in the ingest that produced them.
+CREATE TABLE IF NOT EXISTS resume_answers (
+    resume_id    TEXT NOT NULL,
+    question_key TEXT NOT NULL,
+    question     TEXT NOT NULL,
+    can_answer   BOOLEAN NOT NULL,
+    answer       TEXT NOT NULL,
+    citations    JSONB NOT NULL DEFAULT '[]'::jsonb,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (resume_id, question_key)
+);
@@ -0,0 +1,10 @@
+-- Incremental ingest (app.ingestion.incremental): one row per block of a resume's text (a whole
+-- section, or one header group of EXPERIENCE / PROJECTS) with the content hashes of the chunks it
+-- produced. A re-ingest only re-chunks and writes blocks whose hash is not recorded here.
+-- Full ingests drop a resume's rows, so the next incremental one starts from a complete write.
+CREATE TABLE IF NOT EXISTS resume_blocks (
+    resume_id    TEXT NOT NULL,
+    block_hash   TEXT NOT NULL,
+    chunk_hashes TEXT[] NOT NULL,
+    PRIMARY KEY (resume_id, block_hash)
+);
@@ -0,0 +1,95 @@
+package com.acode.resume.api;
+
+import com.acode.resume.chat.ResumeChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+// ChatResponseWriter hand-writes ChatResponse JSON; it must stay byte-identical to what the
+// application's ObjectMapper (spring.jackson.* applied) writes for the DTO.
+@JsonTest
+class ChatResponseWriterTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void factAnswerMatchesDatabind() throws Exception {
+        assertSameJson(new ResumeChatService.Result(true, "jane@example.com", List.of(), List.of("email"), null));
+        assertSameJson(new ResumeChatService.Result(false, "I don’t have that information in my resume.", List.of(),
+                List.of("education.gpa"), null));
+    }
+
+    @Test
+    void canonicalAnswerMatchesDatabind() throws Exception {
+        assertSameJson(new ResumeChatService.Result(true,
+                "Cognizant - Software Engineer (2021–2023)\n- Built \"order\" APIs in Java\n- Cut p99 latency by 40%",
+                List.of(new Citation(12, "EXPERIENCE", "Built \"order\" APIs in Java"),
+                        new Citation(13, "EXPERIENCE", "Cut p99 latency by 40%")),
+                new ArrayList<>(), null));
+    }
+
+    @Test
+    void retrievalAnswerMatchesDatabind() throws Exception {
+        assertSameJson(new ResumeChatService.Result(true,
+                "RAGOps Copilot (Java, Spring Boot)\n- Retrieval over pgvector \\ tsvector\n- Tab\there, emoji 🚀, control \u0001",
+                List.of(new Citation(40, "PROJECTS", "Retrieval over pgvector \\ tsvector"),
+                        new Citation(41, "PROJECTS", "Tab\there, emoji 🚀, control \u0001")),
+                new ArrayList<>(), null));
+        assertSameJson(new ResumeChatService.Result(false, "I don’t have that information in my resume.",
+                new ArrayList<>(), new ArrayList<>(), null));
+    }
+
+    @Test
+    void debugAnswerMatchesDatabind() throws Exception {
+        List<RetrievalHit> hits = List.of(
+                new RetrievalHit(40, "PROJECTS", "fts", 0.0607927106320858, "bullet", "Retrieval over pgvector"),
+                new RetrievalHit(7, "SKILLS", "trgm+vector", 0.12, "line", "Java, Kotlin, SQL"),
+                new RetrievalHit(3, null, "trgm", 1.0E-7, "header", ""));
+        DebugTrace trace = new DebugTrace("retrieval", 3.217, List.of(
+                new DebugTrace.Stage("fact_match", 0.004, 0),
+                new DebugTrace.Stage("fts", 1.5, 2),
+                new DebugTrace.Stage("trgm", 0.0, 0)),
+                List.of("fts_weak_accepted"));
+        assertSameJson(new ResumeChatService.Result(true, "answer", List.of(new Citation(40, "PROJECTS", "Retrieval")),
+                new ArrayList<>(), hits, trace));
+
+        // empty question: debug hits present but empty, with a trace
+        assertSameJson(new ResumeChatService.Result(false, "Ask a question about the resume.", new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>(), new DebugTrace("fact", 0.01, List.of(), List.of())));
+    }
+
+    @Test
+    void batchMatchesDatabindList() throws Exception {
+        List<ResumeChatService.Result> rs = List.of(
+                new ResumeChatService.Result(true, "jane@example.com", List.of(), List.of("email"), null),
+                new ResumeChatService.Result(true, "a\nb", List.of(new Citation(1, "EXPERIENCE", "b")), List.of(), null),
+                new ResumeChatService.Result(false, "none", List.of(), List.of(), new ArrayList<>(),
+                        new DebugTrace("retrieval", 1, List.of(), List.of("empty"))));
+        List<ChatResponse> dtos = new ArrayList<>();
+        for (int i = 0; i < rs.size(); i++) dtos.add(dto(rs.get(i)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ChatResponseWriter(objectMapper).writeAll(out, rs);
+        assertArrayEquals(objectMapper.writeValueAsBytes(dtos), out.toByteArray());
+    }
+
+    private void assertSameJson(ResumeChatService.Result r) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ChatResponseWriter(objectMapper).write(out, r);
+        byte[] expected = objectMapper.writeValueAsBytes(dto(r));
+        assertArrayEquals(expected, out.toByteArray(), new String(expected, StandardCharsets.UTF_8) + "\n" + out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static ChatResponse dto(ResumeChatService.Result r) {
+        return new ChatResponse(r.canAnswer, r.answer, r.citations, r.usedFields, r.debugHits, r.debugTrace);
+    }
+}
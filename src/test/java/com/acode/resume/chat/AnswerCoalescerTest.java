@@ -0,0 +1,188 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.ingest.IngestGeneration;
+import com.acode.resume.retrieval.NormalizedQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerCoalescerTest {
+
+    private static final int WAITERS = 16;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NormalizedQuery query = NormalizedQuery.of("What did you do at Cognizant?");
+
+    @Test
+    void concurrentIdenticalQuestionsRunTheLoaderOnce() throws Exception {
+        AnswerCoalescer coalescer = new AnswerCoalescer(new IngestGeneration(), registry, true, 10_000);
+        ResumeChatService.Result answer = result("answer");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Call leader = start(coalescer, "default", false, () -> {
+            loads.incrementAndGet();
+            release.await();
+            return answer;
+        });
+        awaitLoading(coalescer);
+        Call[] waiters = new Call[WAITERS];
+        for (int i = 0; i < WAITERS; i++) {
+            waiters[i] = start(coalescer, "default", false, () -> {
+                loads.incrementAndGet();
+                return result("duplicate");
+            });
+        }
+        awaitBlocked(waiters);
+        release.countDown();
+
+        assertSame(answer, leader.join());
+        for (int i = 0; i < WAITERS; i++) assertSame(answer, waiters[i].join());
+        assertEquals(1, loads.get());
+        assertEquals(0, coalescer.inflight());
+        assertEquals(1.0, count("executed"));
+        assertEquals((double) WAITERS, count("coalesced"));
+    }
+
+    @Test
+    void loaderExceptionReachesEveryWaiter() throws Exception {
+        AnswerCoalescer coalescer = new AnswerCoalescer(new IngestGeneration(), registry, true, 10_000);
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+        CountDownLatch release = new CountDownLatch(1);
+
+        Call leader = start(coalescer, "default", false, () -> {
+            release.await();
+            throw failure;
+        });
+        awaitLoading(coalescer);
+        Call[] waiters = new Call[WAITERS];
+        for (int i = 0; i < WAITERS; i++) waiters[i] = start(coalescer, "default", false, () -> result("duplicate"));
+        awaitBlocked(waiters);
+        release.countDown();
+
+        leader.join();
+        assertSame(failure, leader.error);
+        for (int i = 0; i < WAITERS; i++) {
+            waiters[i].join();
+            assertSame(failure, waiters[i].error);
+        }
+        assertEquals(0, coalescer.inflight());
+
+        // nothing is remembered: the next request runs its own loader
+        ResumeChatService.Result next = result("recovered");
+        assertSame(next, coalescer.get("default", query, false, () -> next));
+    }
+
+    @Test
+    void waiterPastTimeoutGetsOverloaded() throws Exception {
+        AnswerCoalescer coalescer = new AnswerCoalescer(new IngestGeneration(), registry, true, 50);
+        ResumeChatService.Result answer = result("slow");
+        CountDownLatch release = new CountDownLatch(1);
+
+        Call leader = start(coalescer, "default", false, () -> {
+            release.await();
+            return answer;
+        });
+        awaitLoading(coalescer);
+        Call waiter = start(coalescer, "default", false, () -> result("duplicate"));
+        waiter.join();
+
+        assertTrue(waiter.error instanceof OverloadedException, "expected OverloadedException, got " + waiter.error);
+        assertNull(waiter.result);
+        assertEquals(1.0, count("timeout"));
+
+        // the leader is unaffected by its waiter giving up
+        release.countDown();
+        assertSame(answer, leader.join());
+    }
+
+    @Test
+    void differentResumeOrDebugFlagIsNotShared() throws Exception {
+        AnswerCoalescer coalescer = new AnswerCoalescer(new IngestGeneration(), registry, true, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Call a = start(coalescer, "default", false, () -> {
+            loads.incrementAndGet();
+            release.await();
+            return result("a");
+        });
+        awaitLoading(coalescer);
+        ResumeChatService.Result other = coalescer.get("other", query, false, () -> {
+            loads.incrementAndGet();
+            return result("b");
+        });
+        ResumeChatService.Result debug = coalescer.get("default", query, true, () -> {
+            loads.incrementAndGet();
+            return result("c");
+        });
+        release.countDown();
+
+        assertEquals("a", a.join().answer);
+        assertEquals("b", other.answer);
+        assertEquals("c", debug.answer);
+        assertEquals(3, loads.get());
+    }
+
+    private static ResumeChatService.Result result(String answer) {
+        return new ResumeChatService.Result(true, answer, List.of(), List.of(), null);
+    }
+
+    private double count(String outcome) {
+        return registry.counter("chat.coalesce", "outcome", outcome).count();
+    }
+
+    private Call start(AnswerCoalescer coalescer, String resumeId, boolean debug, AnswerCoalescer.Loader loader) {
+        Call c = new Call();
+        c.thread = new Thread(() -> {
+            try {
+                c.result = coalescer.get(resumeId, query, debug, loader);
+            } catch (Throwable t) {
+                c.error = t;
+            }
+        });
+        c.thread.start();
+        return c;
+    }
+
+    // the first call has registered its computation
+    private static void awaitLoading(AnswerCoalescer coalescer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalescer.inflight() == 0) {
+            assertTrue(System.nanoTime() < deadline, "leader never started");
+            Thread.sleep(1);
+        }
+    }
+
+    // every waiter is parked on the leader's result
+    private static void awaitBlocked(Call[] calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (int i = 0; i < calls.length; i++) {
+            while (calls[i].thread.getState() != Thread.State.TIMED_WAITING) {
+                assertTrue(System.nanoTime() < deadline, "waiter " + i + " never blocked");
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static final class Call {
+        Thread thread;
+        volatile ResumeChatService.Result result;
+        volatile Throwable error;
+
+        ResumeChatService.Result join() throws InterruptedException {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertTrue(!thread.isAlive(), "call did not finish");
+            return result;
+        }
+    }
+}
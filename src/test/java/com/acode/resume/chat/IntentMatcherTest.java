@@ -0,0 +1,152 @@
+package com.acode.resume.chat;
+
+import com.acode.resume.retrieval.NormalizedQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntentMatcherTest {
+
+    // every keyword of the legacy containsAny chains, in their original order
+    private static final String[] KEYWORDS = {
+            "who are you", "who is this resume", "your name", "name?",
+            "email", "email id", "mail id",
+            "phone number", "contact number", "your phone",
+            "where are you based", "based in", "your location", "location",
+            "gpa",
+            "graduation", "expected may", "may 2027",
+            "skills", "skill set", "skillset",
+            "languages",
+            "frameworks", "libraries",
+            "databases", "cloud", "devops", "infra",
+            "certification", "certifications",
+            "csu", "chico", "chico state", "csuchico"
+    };
+
+    private static final String[] QUESTIONS = {
+            "Who are you?",
+            "WHO IS THIS RESUME FOR",
+            "What's your name?",
+            "name?",
+            "Full name",
+            "What is your email?",
+            "Email ID please",
+            "gmail id?",
+            "What is your phone number",
+            "Contact number and email",
+            "Where are you based?",
+            "Are you based in California?",
+            "location of your last job",
+            "Relocation plans?",
+            "What was your GPA",
+            "When is graduation",
+            "expected May 2027?",
+            "List your skills",
+            "What's your skill set in cloud?",
+            "Which languages and frameworks do you know?",
+            "frameworks or libraries",
+            "databases",
+            "Cloud and DevOps experience",
+            "infrastructure as code",
+            "Any AWS certifications?",
+            "What did you do at CSU Chico?",
+            "Tell me about Chico State",
+            "csuchico.edu web work",
+            "chico",
+            "csu",
+            "What did you do at Cognizant?",
+            "Tell me about the RAGOps Copilot project",
+            "distributed job queue throughput",
+            "",
+            "   ",
+            "?"
+    };
+
+    private final IntentMatcher matcher = new IntentMatcher(new DefaultResourceLoader(), new ObjectMapper(), e -> { },
+            "classpath:chat/intent-rules.json");
+
+    @Test
+    void matchesLegacyChainsOnQuestionTable() {
+        for (int i = 0; i < QUESTIONS.length; i++) assertSameAsLegacy(QUESTIONS[i]);
+    }
+
+    // any two keywords in one question: the first legacy branch must still win
+    @Test
+    void matchesLegacyFirstMatchOrderForEveryKeywordPair() {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            assertSameAsLegacy("tell me " + KEYWORDS[i]);
+            assertSameAsLegacy(KEYWORDS[i].toUpperCase());
+            for (int j = 0; j < KEYWORDS.length; j++) {
+                assertSameAsLegacy("what about " + KEYWORDS[i] + " and " + KEYWORDS[j] + "?");
+            }
+        }
+    }
+
+    // The rules run on NormalizedQuery.folded (NFKC, lower case, one space per whitespace run), so
+    // these variants now match where the legacy chains did not; nothing legacy matched is lost.
+    @Test
+    void foldingOnlyAddsWhitespaceAndWidthVariants() {
+        String[] widened = {"your  name", "your\tname", "phone\nnumber", "ｅｍａｉｌ", "ＧＰＡ"};
+        for (int i = 0; i < widened.length; i++) {
+            assertFalse(legacyMatchFact(widened[i].trim()).matched, widened[i]);
+            assertTrue(matcher.match(NormalizedQuery.of(widened[i])).fact.matched, widened[i]);
+        }
+        assertEquals("California State University Chico",
+                matcher.match(NormalizedQuery.of("chico   state")).expansion);
+        assertEquals("", legacyExpandQuery("chico   state"));
+    }
+
+    private void assertSameAsLegacy(String question) {
+        IntentRules.Match m = matcher.match(NormalizedQuery.of(question));
+        FactMatch legacy = legacyMatchFact(question.trim());
+        assertEquals(legacy.matched, m.fact.matched, "matched: " + question);
+        assertEquals(legacy.fieldPath, m.fact.fieldPath, "fieldPath: " + question);
+        assertEquals(legacy.label, m.fact.label, "label: " + question);
+        assertEquals(legacyExpandQuery(question.trim()), m.expansion, "expansion: " + question);
+    }
+
+    // ---- the containsAny chains IntentRules replaced, verbatim ----
+
+    private static FactMatch legacyMatchFact(String q) {
+        String s = q.toLowerCase();
+
+        if (containsAny(s, "who are you", "who is this resume", "your name", "name?")) return new FactMatch(true, "name", "name");
+        if (containsAny(s, "email", "email id", "mail id")) return new FactMatch(true, "email", "email");
+        if (containsAny(s, "phone number", "contact number", "your phone")) return new FactMatch(true, "phone", "phone");
+        if (containsAny(s, "where are you based", "based in", "your location", "location")) return new FactMatch(true, "location", "location");
+
+        if (containsAny(s, "gpa")) return new FactMatch(true, "education[0].gpa", "education.gpa");
+        if (containsAny(s, "graduation", "expected may", "may 2027")) return new FactMatch(true, "education[0].grad", "education.grad");
+
+        if (containsAny(s, "skills", "skill set", "skillset")) return new FactMatch(true, "skills_all", "skills");
+
+        if (containsAny(s, "languages")) return new FactMatch(true, "skills.languages", "skills.languages");
+        if (containsAny(s, "frameworks", "libraries")) return new FactMatch(true, "skills.frameworks", "skills.frameworks");
+        if (containsAny(s, "databases", "cloud", "devops", "infra")) return new FactMatch(true, "skills.infra", "skills.infra");
+
+        if (containsAny(s, "certification", "certifications")) return new FactMatch(true, "certifications", "certifications");
+
+        return new FactMatch(false, "", "");
+    }
+
+    private static String legacyExpandQuery(String q) {
+        String s = q.toLowerCase();
+
+        if (s.contains("csu") && s.contains("chico")) return "California State University Chico Web Developer";
+        if (s.contains("chico state")) return "California State University Chico";
+        if (s.contains("csuchico")) return "California State University Chico";
+
+        return "";
+    }
+
+    private static boolean containsAny(String s, String... keys) {
+        for (int i = 0; i < keys.length; i++) {
+            if (s.contains(keys[i])) return true;
+        }
+        return false;
+    }
+}
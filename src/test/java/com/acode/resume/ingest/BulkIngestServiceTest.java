@@ -0,0 +1,150 @@
+package com.acode.resume.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// BulkIngestService against InMemoryChunkWriter: the walk / parse / write pipeline, the
+// checkpoint and the events, without a database.
+class BulkIngestServiceTest {
+
+    private static final String PROJECTS =
+            "PROJECTS\n" +
+            "Shared Tool (Java) - 2024\n" +
+            "- the same bullet in every resume\n";
+
+    private final InMemoryChunkWriter writer = new InMemoryChunkWriter();
+    private final IngestGeneration generation = new IngestGeneration();
+    private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+
+    private Path dir;
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        if (dir == null) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<Path> all = files.sorted(Comparator.reverseOrder()).toList();
+            for (int i = 0; i < all.size(); i++) Files.deleteIfExists(all.get(i));
+        }
+    }
+
+    @Test
+    void restartSkipsResumesInTheCheckpoint() throws Exception {
+        for (int i = 0; i < 6; i++) resume("r" + i, text(i, true));
+        Files.writeString(dir.resolve(".bulk-ingest.checkpoint"), "r1\nr3\n", StandardCharsets.UTF_8);
+
+        IngestStats stats = service(2, 1, 4).run();
+        assertEquals(4, stats.documents.get());
+        assertEquals(Set.of("r0", "r2", "r4", "r5"), writer.profiles.keySet());
+        assertEquals(Set.of("r0", "r1", "r2", "r3", "r4", "r5"), checkpoint());
+
+        // one event per committed group, on the writer threads, then one for the whole run
+        Set<String> grouped = new HashSet<>();
+        for (int i = 0; i < events.size() - 1; i++) {
+            ResumeIngestedEvent e = (ResumeIngestedEvent) events.get(i);
+            assertTrue(e.bulk);
+            grouped.addAll(e.resumeIds);
+        }
+        assertEquals(Set.of("r0", "r2", "r4", "r5"), grouped);
+        assertEquals(events.size() - 1, generation.current());
+        BulkIngestFinishedEvent done = (BulkIngestFinishedEvent) events.get(events.size() - 1);
+        assertEquals(Set.of("r0", "r2", "r4", "r5"), new HashSet<>(done.resumeIds));
+        assertEquals(stats.chunks.get(), done.chunks);
+
+        // everything is checkpointed now: nothing is parsed, written or published
+        events.clear();
+        writer.profiles.clear();
+        stats = service(2, 1, 4).run();
+        assertEquals(0, stats.documents.get());
+        assertTrue(writer.profiles.isEmpty());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void writerFailureStopsParsing() throws Exception {
+        int n = 200;
+        for (int i = 0; i < n; i++) resume(String.format("r%03d", i), text(i, true));
+        writer.failUpsert = new IllegalStateException("disk full");
+
+        IngestStats stats = new IngestStats();
+        BulkIngestService service = service(1, 1, 1);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> service.run(stats));
+        assertEquals("disk full", e.getCause().getMessage());
+
+        // parsing stops at the bounded queue instead of reading the rest of the tree
+        assertTrue(stats.documents.get() < 20, "parsed " + stats.documents.get() + " of " + n);
+        assertTrue(checkpoint().isEmpty());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void deletesMissingChunksPerResume() throws Exception {
+        resume("a", text(0, true));
+        resume("b", text(1, true));
+        service(1, 1000, 4).run();
+        Set<String> bBefore = writer.hashes("b");
+        Set<String> shared = writer.hashes("a");
+        shared.retainAll(bBefore);
+        assertFalse(shared.isEmpty());
+
+        // a drops its PROJECTS section, whose chunks b still has; both go in one transaction
+        resume("a", text(0, false));
+        Files.delete(dir.resolve(".bulk-ingest.checkpoint"));
+        writer.upserted.clear();
+        IngestStats stats = service(1, 1000, 4).run();
+
+        assertEquals(writer.upserted.get("a"), writer.hashes("a"));
+        assertEquals(bBefore, writer.hashes("b"));
+        for (String h : shared) assertFalse(writer.hashes("a").contains(h));
+        assertEquals(shared.size(), stats.deleted.get());
+        assertEquals(Set.of("a", "b"), writer.clearedBlocks);
+    }
+
+    private BulkIngestService service(int writers, int batchRows, int queueCapacity) {
+        return new BulkIngestService(writer, new TransactionTemplate(new NoTransactions()), new ObjectMapper(),
+                events::add, generation, dir.toString(), "", 1, writers, batchRows, queueCapacity);
+    }
+
+    private void resume(String id, String text) throws IOException {
+        if (dir == null) dir = Files.createTempDirectory("bulk-ingest-test");
+        Path folder = Files.createDirectories(dir.resolve(id));
+        Files.writeString(folder.resolve("resume.txt"), text, StandardCharsets.UTF_8);
+    }
+
+    private Set<String> checkpoint() throws IOException {
+        Set<String> out = new HashSet<>();
+        List<String> lines = Files.readAllLines(dir.resolve(".bulk-ingest.checkpoint"), StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).isBlank()) out.add(lines.get(i));
+        }
+        return out;
+    }
+
+    private static String text(int i, boolean projects) {
+        return "Person " + i + "\n" +
+                "EXPERIENCE\n" +
+                "Company " + i + " - Engineer (2020–2023)\n" +
+                "- shipped release " + i + "\n" +
+                "SKILLS\n" +
+                "Java, SQL, skill " + i + "\n" +
+                (projects ? PROJECTS : "");
+    }
+}
@@ -0,0 +1,86 @@
+package com.acode.resume.ingest;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// ChunkWriter over maps standing in for resume_profile, resume_chunks and resume_blocks, with the
+// same per-resume semantics as the SQL (upsert by content hash, deletes scoped to one resume).
+class InMemoryChunkWriter extends ChunkWriter {
+
+    final Map<String, String> profiles = new HashMap<>();
+    final Map<String, Map<String, IngestPipeline.PreparedChunk>> chunks = new HashMap<>();
+    final Map<String, Map<String, String[]>> blocks = new HashMap<>();
+    // content hashes passed to upsert, per resume, since the last clear
+    final Map<String, Set<String>> upserted = new HashMap<>();
+    final Set<String> clearedBlocks = new HashSet<>();
+    volatile RuntimeException failUpsert;
+
+    InMemoryChunkWriter() {
+        super(null, "batch");
+    }
+
+    synchronized Set<String> hashes(String resumeId) {
+        Map<String, IngestPipeline.PreparedChunk> rows = chunks.get(resumeId);
+        return rows == null ? new HashSet<>() : new HashSet<>(rows.keySet());
+    }
+
+    @Override
+    public synchronized void writeProfile(String resumeId, String profileJson) {
+        profiles.put(resumeId, profileJson);
+    }
+
+    @Override
+    public synchronized long upsert(List<IngestPipeline.PreparedChunk> rows) {
+        if (failUpsert != null) throw failUpsert;
+        long n = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            IngestPipeline.PreparedChunk c = rows.get(i);
+            upserted.computeIfAbsent(c.resumeId, k -> new HashSet<>()).add(c.contentHash);
+            IngestPipeline.PreparedChunk old = chunks.computeIfAbsent(c.resumeId, k -> new LinkedHashMap<>()).put(c.contentHash, c);
+            if (old == null || !old.metadataJson.equals(c.metadataJson)) n++;
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized int deleteMissing(String resumeId, Collection<String> keepHashes) {
+        Map<String, IngestPipeline.PreparedChunk> rows = chunks.get(resumeId);
+        if (rows == null) return 0;
+        int before = rows.size();
+        rows.keySet().retainAll(new HashSet<>(keepHashes));
+        return before - rows.size();
+    }
+
+    @Override
+    public synchronized int deleteChunks(String resumeId, Collection<String> hashes) {
+        Map<String, IngestPipeline.PreparedChunk> rows = chunks.get(resumeId);
+        if (rows == null) return 0;
+        int before = rows.size();
+        rows.keySet().removeAll(new HashSet<>(hashes));
+        return before - rows.size();
+    }
+
+    @Override
+    public synchronized Map<String, String[]> blocks(String resumeId) {
+        Map<String, String[]> rows = blocks.get(resumeId);
+        return rows == null ? new HashMap<>() : new HashMap<>(rows);
+    }
+
+    @Override
+    public synchronized void replaceBlocks(String resumeId, Collection<String> removed, Map<String, String[]> added) {
+        Map<String, String[]> rows = blocks.computeIfAbsent(resumeId, k -> new HashMap<>());
+        rows.keySet().removeAll(new HashSet<>(removed));
+        rows.putAll(added);
+    }
+
+    @Override
+    public synchronized void clearBlocks(String resumeId) {
+        clearedBlocks.add(resumeId);
+        blocks.remove(resumeId);
+    }
+}
@@ -0,0 +1,152 @@
+package com.acode.resume.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Incremental ingest (app.ingestion.incremental) through IngestPipeline and InMemoryChunkWriter:
+// after any edit the stored chunks must be exactly what a full ingest of the new text stores.
+class IngestPipelineTest {
+
+    private static final String RESUME =
+            "Jane Doe\n" +
+            "EXPERIENCE\n" +
+            "Acme - Engineer (2021–2023)\n" +
+            "- Built the order service\n" +
+            "- Cut p99 latency by 40%\n" +
+            "\n" +
+            "Globex - Intern (2020)\n" +
+            "- Wrote the billing exporter\n" +
+            "- Same bullet twice\n" +
+            "PROJECTS\n" +
+            "Queue (Go)\n" +
+            "- Same bullet twice\n" +
+            "SKILLS\n" +
+            "Java, Go, SQL\n";
+
+    private final InMemoryChunkWriter writer = new InMemoryChunkWriter();
+
+    @Test
+    void firstIncrementalIngestRecordsEveryBlock() throws Exception {
+        IngestStats stats = ingest(writer, RESUME, true);
+
+        assertEquals(full(RESUME), writer.hashes("r"));
+        assertEquals(ResumeChunker.blocks(RESUME).size(), writer.blocks.get("r").size());
+        assertEquals(stats.blocks.get(), stats.blocksChanged.get());
+    }
+
+    @Test
+    void editRewritesOnlyTheChangedBlock() throws Exception {
+        ingest(writer, RESUME, true);
+        Set<String> before = writer.hashes("r");
+        writer.upserted.clear();
+
+        String edited = RESUME.replace("Cut p99 latency by 40%", "Cut p99 latency by 60%");
+        IngestStats stats = ingest(writer, edited, true);
+
+        assertEquals(full(edited), writer.hashes("r"));
+        assertEquals(1, stats.blocksChanged.get());
+        assertEquals(1, stats.deleted.get());
+        // the Acme group is re-chunked; nothing else is written
+        Set<String> added = writer.hashes("r");
+        added.removeAll(before);
+        assertEquals(1, added.size());
+        assertEquals(3, writer.upserted.get("r").size());
+    }
+
+    @Test
+    void removingABlockDeletesOnlyItsOwnChunks() throws Exception {
+        ingest(writer, RESUME, true);
+
+        String edited = RESUME.replace("Globex - Intern (2020)\n- Wrote the billing exporter\n- Same bullet twice\n", "");
+        IngestStats stats = ingest(writer, edited, true);
+
+        assertEquals(full(edited), writer.hashes("r"));
+        assertEquals(0, stats.blocksChanged.get());
+        assertEquals(3, stats.deleted.get());
+    }
+
+    // both SKILLS blocks produce the "Java" chunk; dropping one must not delete it
+    @Test
+    void removingABlockKeepsAChunkAnotherBlockStillProduces() throws Exception {
+        String text = "SKILLS\nJava\nEDUCATION\nChico State\nSKILLS\nJava\nPostgres\n";
+        ingest(writer, text, true);
+
+        String edited = "EDUCATION\nChico State\nSKILLS\nJava\nPostgres\n";
+        IngestStats stats = ingest(writer, edited, true);
+
+        assertEquals(full(edited), writer.hashes("r"));
+        assertEquals(3, writer.hashes("r").size());
+        assertEquals(0, stats.deleted.get());
+    }
+
+    @Test
+    void movingABlockBetweenIngestsWritesNothing() throws Exception {
+        String a = "SKILLS\nJava, Go\nEDUCATION\nChico State\n";
+        String b = "EDUCATION\nChico State\nSKILLS\nJava, Go\n";
+        ingest(writer, a, true);
+        writer.upserted.clear();
+
+        IngestStats stats = ingest(writer, b, true);
+        assertEquals(full(b), writer.hashes("r"));
+        assertEquals(0, stats.blocksChanged.get());
+        assertEquals(0, stats.deleted.get());
+        assertTrue(writer.upserted.isEmpty());
+    }
+
+    @Test
+    void fullIngestClearsBlocksSoTheNextIncrementalStartsOver() throws Exception {
+        ingest(writer, RESUME, true);
+        String edited = RESUME.replace("SKILLS\nJava, Go, SQL\n", "");
+        ingest(writer, edited, false);
+        assertFalse(writer.blocks.containsKey("r"));
+
+        IngestStats stats = ingest(writer, RESUME, true);
+        assertEquals(full(RESUME), writer.hashes("r"));
+        assertEquals(stats.blocks.get(), stats.blocksChanged.get());
+    }
+
+    @Test
+    void bundledResumeSurvivesEverySingleBlockRemoval() throws Exception {
+        String text = new String(new ClassPathResource("resume/resume.txt").getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        for (int i = 0; i < ResumeChunker.blocks(text).size(); i++) {
+            InMemoryChunkWriter w = new InMemoryChunkWriter();
+            ingest(w, text, true);
+
+            StringBuilder edited = new StringBuilder();
+            for (int j = 0; j < ResumeChunker.blocks(text).size(); j++) {
+                if (j != i) edited.append(ResumeChunker.blocks(text).get(j).text).append('\n');
+            }
+            ingest(w, edited.toString(), true);
+            assertEquals(full(edited.toString()), w.hashes("r"), "without block #" + i);
+            ingest(w, text, true);
+            assertEquals(full(text), w.hashes("r"), "block #" + i + " restored");
+        }
+    }
+
+    // the chunk hashes a full ingest of text stores
+    private static Set<String> full(String text) throws Exception {
+        InMemoryChunkWriter w = new InMemoryChunkWriter();
+        ingest(w, text, false);
+        Map<String, IngestPipeline.PreparedChunk> rows = w.chunks.get("r");
+        return rows == null ? new HashSet<>() : new HashSet<>(rows.keySet());
+    }
+
+    private static IngestStats ingest(InMemoryChunkWriter w, String text, boolean incremental) throws Exception {
+        IngestDocument[] docs = {new IngestDocument("r", "resume.txt", "{}", text)};
+        int[] next = {0};
+        IngestPipeline pipeline = new IngestPipeline(w, new TransactionTemplate(new NoTransactions()), new ObjectMapper(),
+                2, 2, incremental);
+        return pipeline.run(() -> next[0] < docs.length ? docs[next[0]++] : null);
+    }
+}
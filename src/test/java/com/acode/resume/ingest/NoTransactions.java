@@ -0,0 +1,23 @@
+package com.acode.resume.ingest;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+// TransactionTemplate backend for tests that write through InMemoryChunkWriter.
+class NoTransactions implements PlatformTransactionManager {
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+        return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+    }
+}
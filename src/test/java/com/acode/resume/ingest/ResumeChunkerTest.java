@@ -0,0 +1,244 @@
+package com.acode.resume.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResumeChunkerTest {
+
+    private static final String EDGE_CASES =
+            "Name Only\r\n" +
+            "   \t\n" +
+            "experience\n" +
+            "Acme - Engineer (2020)\n" +
+            "•    spaced bullet   \r\n" +
+            "-\n" +
+            "* star bullet\n" +
+            "\n" +
+            "• orphan bullet after blank\n" +
+            "Globex - Intern\n" +
+            "- FOO BAR\n" +
+            "Notes:\n" +
+            "plain line in NOTES\n" +
+            "PROJECTS\n" +
+            "Thing (Java) - 2024\n" +
+            "• did a thing\r" +
+            "no trailing newline";
+
+    @Test
+    void streamingOutputMatchesLegacySplitOnResume() throws Exception {
+        String text = new String(new ClassPathResource("resume/resume.txt").getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertSame(legacySplit(text), ResumeChunker.split(text));
+        assertSame(legacySplit(text.replace("\n", "\r\n")), ResumeChunker.split(text.replace("\n", "\r\n")));
+    }
+
+    @Test
+    void streamingOutputMatchesLegacySplitOnEdgeCases() throws Exception {
+        List<ResumeChunker.Chunk> expected = legacySplit(EDGE_CASES);
+        assertSame(expected, ResumeChunker.split(EDGE_CASES));
+
+        List<ResumeChunker.Chunk> fromReader = new ArrayList<>();
+        ResumeChunker.stream(new StringReader(EDGE_CASES), fromReader::add);
+        assertSame(expected, fromReader);
+
+        Path tmp = Files.createTempFile("resume", ".txt");
+        try {
+            Files.writeString(tmp, EDGE_CASES, StandardCharsets.UTF_8);
+            List<ResumeChunker.Chunk> fromFile = new ArrayList<>();
+            ResumeChunker.stream(tmp, fromFile::add);
+            assertSame(expected, fromFile);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Test
+    void chunkingBlocksOneByOneMatchesWholeDocument() throws Exception {
+        String text = new String(new ClassPathResource("resume/resume.txt").getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertSame(ResumeChunker.split(text), splitBlocks(text));
+        assertSame(ResumeChunker.split(EDGE_CASES), splitBlocks(EDGE_CASES));
+    }
+
+    @Test
+    void blocksMatchLegacyBlocks() throws Exception {
+        String text = new String(new ClassPathResource("resume/resume.txt").getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        String[] docs = {text, text.replace("\n", "\r\n"), EDGE_CASES, EDGE_CASES + "\n\n", ""};
+        for (int d = 0; d < docs.length; d++) {
+            List<ResumeChunker.Block> expected = legacyBlocks(docs[d]);
+            List<ResumeChunker.Block> actual = ResumeChunker.blocks(docs[d]);
+            assertEquals(expected.size(), actual.size(), "doc #" + d);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).section, actual.get(i).section, "doc #" + d + " section #" + i);
+                assertEquals(expected.get(i).text, actual.get(i).text, "doc #" + d + " block #" + i);
+            }
+        }
+    }
+
+    @Test
+    void offsetsMatchPrefixAndBulletExtraction() throws Exception {
+        String text = new String(new ClassPathResource("resume/resume.txt").getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        List<ResumeChunker.Chunk> chunks = ResumeChunker.split(text + "\n" + EDGE_CASES);
+        for (int i = 0; i < chunks.size(); i++) {
+            ResumeChunker.Chunk c = chunks.get(i);
+
+            // what the chat formatter extracted with substrings before the offsets were stored
+            int idx = c.content.indexOf(" - ");
+            String prefix = idx <= 0 ? "" : c.content.substring(0, idx).trim();
+            String body = idx < 0 ? "" : c.content.substring(idx + 3).trim();
+            if (body.length() == 0) body = c.content;
+
+            assertEquals(prefix, c.content.substring(0, c.prefixEnd), "prefix #" + i);
+            assertEquals(body, c.content.substring(c.bodyStart), "body #" + i);
+        }
+    }
+
+    private static List<ResumeChunker.Chunk> splitBlocks(String text) {
+        List<ResumeChunker.Chunk> out = new ArrayList<>();
+        List<ResumeChunker.Block> blocks = ResumeChunker.blocks(text);
+        for (int i = 0; i < blocks.size(); i++) out.addAll(ResumeChunker.split(blocks.get(i).text));
+        return out;
+    }
+
+    private static void assertSame(List<ResumeChunker.Chunk> expected, List<ResumeChunker.Chunk> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).section, actual.get(i).section, "section #" + i);
+            assertEquals(expected.get(i).content, actual.get(i).content, "content #" + i);
+            assertEquals(expected.get(i).type, actual.get(i).type, "type #" + i);
+        }
+    }
+
+    // The original split(), kept verbatim as the reference.
+    private static List<ResumeChunker.Chunk> legacySplit(String text) {
+        List<ResumeChunker.Chunk> out = new ArrayList<>();
+
+        String[] lines = text.split("\\r?\\n");
+        String section = "GENERAL";
+
+        String ctx1 = "";
+        String ctx2 = "";
+
+        for (int i = 0; i < lines.length; i++) {
+            String raw = lines[i];
+            if (raw == null) continue;
+
+            String line = raw.trim();
+
+            boolean isContextSection = section.equals("EXPERIENCE") || section.equals("PROJECTS");
+
+            if (line.length() == 0) {
+                if (isContextSection) {
+                    ctx1 = "";
+                    ctx2 = "";
+                }
+                continue;
+            }
+
+            if (legacyIsHeading(line)) {
+                String x = line.trim();
+                if (x.endsWith(":")) x = x.substring(0, x.length() - 1);
+                section = x.toUpperCase();
+                ctx1 = "";
+                ctx2 = "";
+                continue;
+            }
+
+            isContextSection = section.equals("EXPERIENCE") || section.equals("PROJECTS");
+
+            if (line.startsWith("•") || line.startsWith("-") || line.startsWith("*")) {
+                String cleaned = line.substring(1).trim();
+                if (cleaned.length() > 0) {
+                    if (isContextSection && (ctx1.length() > 0 || ctx2.length() > 0)) {
+                        String prefix = ctx1;
+                        if (ctx2.length() > 0) prefix = prefix + " | " + ctx2;
+                        out.add(new ResumeChunker.Chunk(section, prefix + " - " + cleaned, "bullet"));
+                    } else {
+                        out.add(new ResumeChunker.Chunk(section, cleaned, "bullet"));
+                    }
+                }
+                continue;
+            }
+
+            if (isContextSection) {
+                ctx1 = line;
+                ctx2 = "";
+                out.add(new ResumeChunker.Chunk(section, line, "header"));
+                continue;
+            }
+
+            out.add(new ResumeChunker.Chunk(section, line, "line"));
+        }
+
+        return out;
+    }
+
+    // blocks() as first written, over split("\n") lines, kept as the reference.
+    private static List<ResumeChunker.Block> legacyBlocks(String text) {
+        List<ResumeChunker.Block> out = new ArrayList<>();
+        String heading = "";
+        String section = "GENERAL";
+        boolean contextSection = false;
+        StringBuilder cur = new StringBuilder(256);
+
+        String[] lines = text.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String t = lines[i].trim();
+            if (t.length() == 0) {
+                if (contextSection) legacyFlush(out, section, heading, cur);
+                continue;
+            }
+
+            if (legacyIsHeading(t)) {
+                legacyFlush(out, section, heading, cur);
+                heading = t;
+                String x = t;
+                if (x.endsWith(":")) x = x.substring(0, x.length() - 1);
+                section = x.toUpperCase();
+                contextSection = section.equals("EXPERIENCE") || section.equals("PROJECTS");
+                continue;
+            }
+
+            char first = t.charAt(0);
+            boolean bullet = first == '•' || first == '-' || first == '*';
+            if (contextSection && !bullet) legacyFlush(out, section, heading, cur);
+            cur.append(t).append('\n');
+        }
+        legacyFlush(out, section, heading, cur);
+        return out;
+    }
+
+    private static void legacyFlush(List<ResumeChunker.Block> out, String section, String heading, StringBuilder cur) {
+        if (cur.length() == 0) return;
+        out.add(new ResumeChunker.Block(section, heading.length() == 0 ? cur.toString() : heading + "\n" + cur));
+        cur.setLength(0);
+    }
+
+    private static boolean legacyIsHeading(String s) {
+        String u = s.toUpperCase();
+        if (u.equals("EDUCATION")) return true;
+        if (u.equals("SKILLS")) return true;
+        if (u.equals("EXPERIENCE")) return true;
+        if (u.equals("PROJECTS")) return true;
+        if (u.equals("CERTIFICATIONS")) return true;
+
+        if (s.endsWith(":") && s.length() <= 40) return true;
+
+        boolean hasLetter = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isLetter(c)) {
+                hasLetter = true;
+                if (!Character.isUpperCase(c)) return false;
+            }
+        }
+        return hasLetter && s.length() <= 40;
+    }
+}
@@ -0,0 +1,210 @@
+package com.acode.resume.retrieval;
+
+import com.acode.resume.ingest.ResumeChunker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CorpusSnapshotTest {
+
+    private static final String[] QUESTIONS = {
+            "What did you do at Cognizant?",
+            "Tell me about your experience",
+            "What projects have you worked on",
+            "What have you built with Java",
+            "spring boot microservices",
+            "postgress",
+            "kafka",
+            "React frontend",
+            "Web Developer at California State University Chico",
+            "machine learning",
+            "docker kubernetes",
+            "REST APIs",
+            "unit testing",
+            "leadership",
+            "blockchain smart contracts",
+            "ios swiftui apps"
+    };
+
+    private Path dir;
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        if (dir == null) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<Path> all = files.sorted(Comparator.reverseOrder()).toList();
+            for (int i = 0; i < all.size(); i++) Files.deleteIfExists(all.get(i));
+        }
+    }
+
+    @Test
+    void roundTripKeepsChunksProfilesAndSearchResults() throws Exception {
+        Map<String, List<ChunkRow>> corpus = corpus();
+        String profile = resource("resume/profile.json");
+        Path file = write(corpus, profile);
+
+        CorpusSnapshot s = CorpusSnapshot.map(file);
+        assertEquals(3, s.resumes());
+        assertEquals(corpus.get("default").size() + corpus.get("subset").size(), s.chunks());
+        assertEquals(profile, s.profile("default"));
+        assertNull(s.profile("subset"));
+        assertEquals("{\"name\":\"Profile Only\"}", s.profile("profile-only"));
+        assertEquals(0, s.index("profile-only").size());
+        assertNull(s.index("missing"));
+
+        for (String rid : new String[]{"default", "subset"}) {
+            ChunkIndex built = ChunkIndex.build(corpus.get(rid));
+            ChunkIndex mapped = s.index(rid);
+            assertEquals(built.size(), mapped.size());
+            for (int i = 0; i < QUESTIONS.length; i++) {
+                NormalizedQuery q = NormalizedQuery.of(QUESTIONS[i]);
+                assertRows(built.fts(q.lexemes, 10), mapped.fts(q.lexemes, 10), rid + " fts: " + QUESTIONS[i]);
+                assertRows(built.trgm(q.trigrams, 10), mapped.trgm(q.trigrams, 10), rid + " trgm: " + QUESTIONS[i]);
+            }
+        }
+    }
+
+    @Test
+    void snapshotModeAnswersLikeMemoryMode() throws Exception {
+        Map<String, List<ChunkRow>> corpus = corpus();
+        Path file = write(corpus, resource("resume/profile.json"));
+
+        InMemoryRetrievalEngine memory = new InMemoryRetrievalEngine(null, RetrievalThresholds.DEFAULTS);
+        memory.replaceAll(corpus);
+        SnapshotRetrievalEngine snapshot = new SnapshotRetrievalEngine(
+                new CorpusSnapshotStore(null, file.toString(), false, "snapshot"), RetrievalThresholds.DEFAULTS);
+
+        for (String rid : new String[]{"default", "subset", "profile-only", "missing"}) {
+            for (int i = 0; i < QUESTIONS.length; i++) {
+                RetrievalTrace mt = new RetrievalTrace();
+                RetrievalTrace st = new RetrievalTrace();
+                List<ChunkRow> m = memory.search(rid, QUESTIONS[i], 10, mt);
+                List<ChunkRow> sn = snapshot.search(rid, QUESTIONS[i], 10, st);
+                assertRows(m, sn, rid + ": " + QUESTIONS[i]);
+                assertEquals(mt.decisions, st.decisions, rid + " decision: " + QUESTIONS[i]);
+            }
+        }
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws Exception {
+        Path file = write(corpus(), "");
+        byte[] b = Files.readAllBytes(file);
+
+        Path cut = dir.resolve("cut.bin");
+        Files.write(cut, Arrays.copyOf(b, b.length - 5));
+        assertThrows(IOException.class, () -> CorpusSnapshot.map(cut));
+
+        Path header = dir.resolve("header.bin");
+        Files.write(header, Arrays.copyOf(b, 20));
+        IOException e = assertThrows(IOException.class, () -> CorpusSnapshot.map(header));
+        assertTrue(e.getMessage().contains("truncated"), e.getMessage());
+    }
+
+    @Test
+    void rejectsWrongVersionMagicAndCorruption() throws Exception {
+        Path file = write(corpus(), "");
+        byte[] b = Files.readAllBytes(file);
+
+        byte[] version = b.clone();
+        ByteBuffer.wrap(version).putInt(4, CorpusSnapshot.VERSION - 1);
+        Path old = dir.resolve("old.bin");
+        Files.write(old, version);
+        IOException e = assertThrows(IOException.class, () -> CorpusSnapshot.map(old));
+        assertTrue(e.getMessage().contains("format version " + (CorpusSnapshot.VERSION - 1)), e.getMessage());
+
+        byte[] magic = b.clone();
+        magic[0] = 'X';
+        Path foreign = dir.resolve("foreign.bin");
+        Files.write(foreign, magic);
+        e = assertThrows(IOException.class, () -> CorpusSnapshot.map(foreign));
+        assertTrue(e.getMessage().contains("not a corpus snapshot"), e.getMessage());
+
+        byte[] flipped = b.clone();
+        flipped[b.length / 2] ^= 0x20;
+        Path corrupt = dir.resolve("corrupt.bin");
+        Files.write(corrupt, flipped);
+        e = assertThrows(IOException.class, () -> CorpusSnapshot.map(corrupt));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+    }
+
+    // a node in snapshot mode refuses to start rather than serve from a bad file
+    @Test
+    void snapshotModeDoesNotStartFromBadFile() throws Exception {
+        Path file = write(corpus(), "");
+        assertNotNull(new CorpusSnapshotStore(null, file.toString(), false, "snapshot").current());
+
+        byte[] b = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(b, b.length - 1));
+        assertThrows(IllegalStateException.class, () -> new CorpusSnapshotStore(null, file.toString(), false, "snapshot"));
+        assertThrows(IllegalStateException.class,
+                () -> new CorpusSnapshotStore(null, dir.resolve("absent.bin").toString(), false, "snapshot"));
+    }
+
+    private Path write(Map<String, List<ChunkRow>> corpus, String profile) throws IOException {
+        if (dir == null) dir = Files.createTempDirectory("corpus-snapshot-test");
+        Path file = dir.resolve("corpus.snapshot");
+        try (CorpusSnapshot.Writer w = CorpusSnapshot.writer(file)) {
+            w.add("default", profile, corpus.get("default"));
+            w.add("subset", null, corpus.get("subset"));
+            w.add("profile-only", "{\"name\":\"Profile Only\"}", List.of());
+            w.commit();
+        }
+        return file;
+    }
+
+    // the bundled resume, and a second resume holding every other chunk under different ids
+    private static Map<String, List<ChunkRow>> corpus() throws IOException {
+        List<ResumeChunker.Chunk> chunks = ResumeChunker.split(resource("resume/resume.txt"));
+        List<ChunkRow> all = new ArrayList<>();
+        List<ChunkRow> subset = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            ResumeChunker.Chunk c = chunks.get(i);
+            all.add(new ChunkRow(i + 1, c.section, c.content, 0, "", c.type));
+            if (i % 2 == 0) subset.add(new ChunkRow(1000 + i, c.section, c.content, 0, "", c.type));
+        }
+        Map<String, List<ChunkRow>> corpus = new HashMap<>();
+        corpus.put("default", all);
+        corpus.put("subset", subset);
+        return corpus;
+    }
+
+    private static String resource(String path) throws IOException {
+        return new String(new ClassPathResource(path).getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void assertRows(List<ChunkRow> expected, List<ChunkRow> actual, String what) {
+        assertEquals(expected.size(), actual.size(), what);
+        for (int i = 0; i < expected.size(); i++) {
+            ChunkRow e = expected.get(i);
+            ChunkRow a = actual.get(i);
+            assertEquals(e.id, a.id, what);
+            assertEquals(e.section, a.section, what);
+            assertEquals(e.content, a.content, what);
+            assertEquals(e.score, a.score, what);
+            assertEquals(e.method, a.method, what);
+            assertEquals(e.type, a.type, what);
+            assertEquals(e.prefixEnd, a.prefixEnd, what);
+            assertEquals(e.bodyStart, a.bodyStart, what);
+        }
+    }
+}